@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.api.notifications;
+
+import java.util.List;
+
+import com.github.robozonky.api.SessionInfo;
+
+/**
+ * {@link EventListener} which is able to handle multiple events of the same type at once. When several such events
+ * are fired in quick succession, RoboZonky may coalesce them and deliver them through
+ * {@link #handle(List, SessionInfo)}
+ * instead of calling {@link #handle(Event, SessionInfo)} for each of them. Listeners which do not implement this
+ * interface always receive events one by one.
+ *
+ * @param <E> Event type to handle.
+ */
+public interface BatchEventListener<E extends Event> extends EventListener<E> {
+
+    /**
+     * Implementation must be thread-safe.
+     *
+     * @param events      Events that are being listened to, in the order in which they were fired. Never empty.
+     * @param sessionInfo Information about the user firing the events.
+     */
+    void handle(List<E> events, SessionInfo sessionInfo);
+}
@@ -39,4 +39,12 @@ public interface ListenerService {
      */
     <T extends Event> Stream<EventListenerSupplier<T>> findListeners(final SessionInfo sessionInfo,
             final Class<T> eventType);
+
+    /**
+     * Called once when RoboZonky is shutting down, after the last event has been delivered. Services which deliver
+     * notifications in the background should use this to send whatever they still hold.
+     */
+    default void flush() {
+        // nothing to flush by default
+    }
 }
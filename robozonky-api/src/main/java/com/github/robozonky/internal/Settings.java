@@ -165,6 +165,47 @@ public enum Settings {
         return get(Key.MAX_ITEMS_READ_FROM_SECONDARY_MARKETPLACE, 500);
     }
 
+    public boolean isTimerBasedSchedulerEnabled() {
+        return get(Key.SCHEDULER_TIMER_BASED);
+    }
+
+    public Duration getSchedulerMaxJitter() {
+        return Duration.ofMillis(get(Key.SCHEDULER_MAX_JITTER, 0));
+    }
+
+    public Duration getStateCommitWindow() {
+        return Duration.ofMillis(get(Key.STATE_COMMIT_WINDOW, 0));
+    }
+
+    public Duration getKeyStoreSaveWindow() {
+        return Duration.ofMillis(get(Key.KEYSTORE_SAVE_WINDOW, 1000));
+    }
+
+    public boolean isStateJournalEnabled() {
+        return get(Key.STATE_JOURNAL_ENABLED);
+    }
+
+    public int getEventDispatchThreads() {
+        return get(Key.EVENTS_DISPATCH_THREADS, Math.max(2, Runtime.getRuntime()
+            .availableProcessors()));
+    }
+
+    public int getEventDispatchQueueCapacity() {
+        return get(Key.EVENTS_DISPATCH_QUEUE_CAPACITY, 1000);
+    }
+
+    public Duration getEventCoalescingWindow() {
+        return Duration.ofMillis(get(Key.EVENTS_COALESCING_WINDOW, 0));
+    }
+
+    public int getConnectionsPerTenant() {
+        return get(Key.CONNECTIONS_PER_TENANT, 4);
+    }
+
+    public int getInvestmentDetailThreads() {
+        return get(Key.INVESTMENT_DETAIL_THREADS, 4);
+    }
+
     public int getDefaultApiPageSize() {
         return get(Settings.Key.DEFAULTS_API_PAGE_SIZE, 100);
     }
@@ -176,10 +217,20 @@ public enum Settings {
         DEFAULTS_SOCKET_TIMEOUT("robozonky.default.socket_timeout_seconds"),
         DEFAULTS_CONNECTION_TIMEOUT("robozonky.default.connection_timeout_seconds"),
         DEFAULTS_API_PAGE_SIZE("robozonky.default.api_page_size"),
+        INVESTMENT_DETAIL_THREADS("robozonky.default.investment_detail_threads"),
+        CONNECTIONS_PER_TENANT("robozonky.default.connections_per_tenant"),
         DRY_RUN_BALANCE_MINIMUM("robozonky.dry_run_balance_minimum"),
         MAX_ITEMS_READ_FROM_PRIMARY_MARKETPLACE("robozonky.max_items_read_from_primary_marketplace"),
         MAX_ITEMS_READ_FROM_SECONDARY_MARKETPLACE("robozonky.max_items_read_from_secondary_marketplace"),
         STATE_FILE_LOCATION("robozonky.state_file"),
+        STATE_JOURNAL_ENABLED("robozonky.state_journal"),
+        STATE_COMMIT_WINDOW("robozonky.state_commit_window_millis"),
+        KEYSTORE_SAVE_WINDOW("robozonky.keystore_save_window_millis"),
+        SCHEDULER_TIMER_BASED("robozonky.scheduler.timer_based"),
+        SCHEDULER_MAX_JITTER("robozonky.scheduler.max_jitter_millis"),
+        EVENTS_DISPATCH_THREADS("robozonky.events.dispatch_threads"),
+        EVENTS_DISPATCH_QUEUE_CAPACITY("robozonky.events.dispatch_queue_capacity"),
+        EVENTS_COALESCING_WINDOW("robozonky.events.coalescing_window_millis"),
         HTTPS_PROXY_HOSTNAME("https.proxyHost"),
         HTTPS_PROXY_PORT("https.proxyPort");
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.async;
+
+import java.time.Duration;
+
+/**
+ * Leaves the creation of {@link TaskMetrics} to the caller, so that {@link TenantScheduler} can tag the tasks with
+ * the tenant while scheduling them on the shared threads.
+ */
+abstract class AbstractScheduler implements Scheduler {
+
+    @Override
+    public final TaskDescriptor submit(final String type, final Runnable toSchedule, final Duration delayInBetween,
+            final Duration firstDelay, final Duration timeout) {
+        return submit(new TaskMetrics(type), toSchedule, delayInBetween, firstDelay, timeout);
+    }
+
+    @Override
+    public final TaskDescriptor submitAtFixedRate(final String type, final Runnable toSchedule, final Duration period,
+            final Duration firstDelay, final Duration timeout, final Duration maxJitter) {
+        return submitAtFixedRate(new TaskMetrics(type), toSchedule, period, firstDelay, timeout, maxJitter);
+    }
+
+    abstract TaskDescriptor submit(final TaskMetrics metrics, final Runnable toSchedule,
+            final Duration delayInBetween, final Duration firstDelay, final Duration timeout);
+
+    abstract TaskDescriptor submitAtFixedRate(final TaskMetrics metrics, final Runnable toSchedule,
+            final Duration period, final Duration firstDelay, final Duration timeout, final Duration maxJitter);
+
+    @Override
+    public Scheduler forTenant(final String tenant, final int slot, final int slotCount) {
+        return new TenantScheduler(this, tenant, slot, slotCount);
+    }
+}
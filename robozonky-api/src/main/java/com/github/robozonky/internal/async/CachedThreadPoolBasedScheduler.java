@@ -17,6 +17,7 @@
 package com.github.robozonky.internal.async;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -46,22 +47,50 @@ import org.apache.logging.log4j.Logger;
  * initially specified.</li>
  * </ul>
  */
-final class CachedThreadPoolBasedScheduler implements Scheduler {
+final class CachedThreadPoolBasedScheduler extends AbstractScheduler {
 
     private static final Logger LOGGER = LogManager.getLogger(CachedThreadPoolBasedScheduler.class);
     private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private ScheduledThreadPoolExecutor timer;
 
     @Override
-    public TaskDescriptor submit(final Runnable toSchedule, final Duration delayInBetween, final Duration firstDelay,
-            final Duration timeout) {
-        final TaskDescriptor task = new TaskDescriptor(executorService, toSchedule, firstDelay, delayInBetween,
-                timeout);
+    public Executor getExecutor() {
+        return executorService;
+    }
+
+    @Override
+    TaskDescriptor submit(final TaskMetrics metrics, final Runnable toSchedule, final Duration delayInBetween,
+            final Duration firstDelay, final Duration timeout) {
+        final DelayedTaskDescriptor task = new DelayedTaskDescriptor(executorService, toSchedule, firstDelay,
+                delayInBetween, timeout, metrics);
         LOGGER.debug("Scheduling {} every {} ns, starting in {} ns.", task, delayInBetween.toNanos(),
                 firstDelay.toNanos());
         task.schedule();
         return task;
     }
 
+    private synchronized ScheduledThreadPoolExecutor getTimer() {
+        if (timer == null) {
+            timer = TimerBasedScheduler.newTimer();
+        }
+        return timer;
+    }
+
+    /**
+     * Fixed-rate tasks need precise timing, which is why they are timed the same way as in
+     * {@link TimerBasedScheduler}. The timer is only created when the first such task is submitted.
+     */
+    @Override
+    TaskDescriptor submitAtFixedRate(final TaskMetrics metrics, final Runnable toSchedule, final Duration period,
+            final Duration firstDelay, final Duration timeout, final Duration maxJitter) {
+        final TimerTaskDescriptor task = new TimerTaskDescriptor(getTimer(), executorService, toSchedule, period,
+                true, timeout, maxJitter, metrics);
+        LOGGER.debug("Scheduling {} at fixed rate of {} ns, starting in {} ns.", task, period.toNanos(),
+                firstDelay.toNanos());
+        task.schedule(firstDelay);
+        return task;
+    }
+
     @Override
     public boolean isClosed() {
         return executorService.isShutdown();
@@ -69,6 +98,11 @@ final class CachedThreadPoolBasedScheduler implements Scheduler {
 
     @Override
     public void close() throws Exception {
+        synchronized (this) {
+            if (timer != null) {
+                timer.shutdownNow();
+            }
+        }
         executorService.shutdownNow();
         LOGGER.debug("Shutting down {}.", executorService);
         executorService.awaitTermination(1, TimeUnit.SECONDS);
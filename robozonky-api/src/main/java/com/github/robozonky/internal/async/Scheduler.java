@@ -17,15 +17,37 @@
 package com.github.robozonky.internal.async;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import com.github.robozonky.internal.Settings;
 
 public interface Scheduler extends AutoCloseable {
 
     static Scheduler create() {
-        return new CachedThreadPoolBasedScheduler();
+        if (Settings.INSTANCE.isTimerBasedSchedulerEnabled()) {
+            return new TimerBasedScheduler();
+        } else {
+            return new CachedThreadPoolBasedScheduler();
+        }
+    }
+
+    /**
+     *
+     * @param toSchedule     Task to schedule.
+     * @param delayInBetween Delay between the first task's end and second task's start.
+     * @param firstDelay     The delay before the first instance of the task is scheduled.
+     * @param timeout        Maximum run time for a single instance of the scheduled task. Only used when greater than
+     *                       0.
+     * @return never null
+     */
+    default TaskDescriptor submit(final Runnable toSchedule, final Duration delayInBetween, final Duration firstDelay,
+            final Duration timeout) {
+        return submit("other", toSchedule, delayInBetween, firstDelay, timeout);
     }
 
     /**
      *
+     * @param type           Type of the task, used to tag its metrics.
      * @param toSchedule     Task to schedule.
      * @param delayInBetween Delay between the first task's end and second task's start.
      * @param firstDelay     The delay before the first instance of the task is scheduled.
@@ -33,8 +55,45 @@ public interface Scheduler extends AutoCloseable {
      *                       0.
      * @return never null
      */
-    TaskDescriptor submit(final Runnable toSchedule, final Duration delayInBetween, final Duration firstDelay,
-            final Duration timeout);
+    TaskDescriptor submit(final String type, final Runnable toSchedule, final Duration delayInBetween,
+            final Duration firstDelay, final Duration timeout);
+
+    /**
+     * Unlike {@link #submit(String, Runnable, Duration, Duration, Duration)}, the task will be started every time the
+     * period elapses, regardless of how long it runs. If a run takes longer than the period, the runs which should
+     * have started in the meantime are skipped.
+     *
+     * @param type       Type of the task, used to tag its metrics.
+     * @param toSchedule Task to schedule.
+     * @param period     Delay between the first task's start and second task's start.
+     * @param firstDelay The delay before the first instance of the task is scheduled.
+     * @param timeout    Maximum run time for a single instance of the scheduled task. Only used when greater than 0.
+     * @param maxJitter  Every start will be delayed by a random duration between zero and this.
+     * @return never null
+     */
+    TaskDescriptor submitAtFixedRate(final String type, final Runnable toSchedule, final Duration period,
+            final Duration firstDelay, final Duration timeout, final Duration maxJitter);
+
+    /**
+     * Gives one of many tenants sharing this scheduler its own view of it. Tasks submitted through the view run on
+     * this scheduler's threads, their metrics are additionally tagged with the tenant, and fixed-rate tasks are
+     * offset by slot / slotCount of their period so that tenants are served in turns. Closing the view cancels the
+     * tenant's tasks, leaving this scheduler and the other tenants running.
+     *
+     * @param tenant    Name of the tenant, used to tag metrics.
+     * @param slot      Position of the tenant among the tenants, starting at 0.
+     * @param slotCount Number of tenants sharing this scheduler.
+     * @return never null
+     */
+    Scheduler forTenant(final String tenant, final int slot, final int slotCount);
+
+    /**
+     * The threads on which this scheduler runs its tasks, for tasks that need to fork blocking work of their own.
+     * Closing the scheduler shuts the executor down.
+     *
+     * @return never null
+     */
+    Executor getExecutor();
 
     boolean isClosed();
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.async;
+
+import java.time.Duration;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of a single task scheduled with a {@link Scheduler}, all tagged with the type of the task and, if scheduled
+ * through {@link Scheduler#forTenant(String, int, int)}, also with the tenant.
+ * <ul>
+ * <li>Duration measures how long each run took.</li>
+ * <li>Lag measures how late each run started, compared to the time it was scheduled for.</li>
+ * <li>Overruns count the runs which either timed out or, for fixed-rate tasks, took longer than the period.</li>
+ * <li>Skipped counts the fixed-rate runs which did not happen because the previous run overran.</li>
+ * </ul>
+ */
+final class TaskMetrics {
+
+    private static final String TYPE_TAG = "type";
+    private static final String TENANT_TAG = "tenant";
+    private final Timer duration;
+    private final Timer lag;
+    private final Counter overruns;
+    private final Counter skipped;
+
+    public TaskMetrics(final String type) {
+        this(Tags.of(TYPE_TAG, type));
+    }
+
+    public TaskMetrics(final String type, final String tenant) {
+        this(Tags.of(TYPE_TAG, type, TENANT_TAG, tenant));
+    }
+
+    private TaskMetrics(final Tags tags) {
+        this.duration = Timer.builder("robozonky.task.duration")
+            .tags(tags)
+            .register(Defaults.METER_REGISTRY);
+        this.lag = Timer.builder("robozonky.task.lag")
+            .tags(tags)
+            .register(Defaults.METER_REGISTRY);
+        this.overruns = Counter.builder("robozonky.task.overruns")
+            .tags(tags)
+            .register(Defaults.METER_REGISTRY);
+        this.skipped = Counter.builder("robozonky.task.skipped")
+            .tags(tags)
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    void recordLag(final long plannedStartNanos, final long actualStartNanos) {
+        lag.record(Duration.ofNanos(Math.max(0, actualStartNanos - plannedStartNanos)));
+    }
+
+    void recordDuration(final long startNanos, final long endNanos) {
+        duration.record(Duration.ofNanos(endNanos - startNanos));
+    }
+
+    void recordOverrun() {
+        overruns.increment();
+    }
+
+    void recordSkipped(final long count) {
+        skipped.increment(count);
+    }
+
+    Timer getDuration() {
+        return duration;
+    }
+
+    Timer getLag() {
+        return lag;
+    }
+
+    Counter getOverruns() {
+        return overruns;
+    }
+
+    Counter getSkipped() {
+        return skipped;
+    }
+}
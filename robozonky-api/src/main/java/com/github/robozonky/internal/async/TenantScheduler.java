@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.async;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * One tenant's view of a {@link Scheduler} shared by many tenants. Tasks run on the shared threads, but their metrics
+ * are tagged with the tenant and closing the view only cancels the tenant's own tasks.
+ * <p>
+ * Each tenant gets a slot. Fixed-rate tasks are delayed by the tenant's share of their period, so that the tenants
+ * take turns polling the marketplace instead of all hitting it at the same moment and then idling.
+ */
+final class TenantScheduler implements Scheduler {
+
+    private static final Logger LOGGER = LogManager.getLogger(TenantScheduler.class);
+    private final AbstractScheduler parent;
+    private final String tenant;
+    private final int slot;
+    private final int slotCount;
+    private final Set<TaskDescriptor> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed = false;
+
+    TenantScheduler(final AbstractScheduler parent, final String tenant, final int slot, final int slotCount) {
+        if (slotCount < 1 || slot < 0 || slot >= slotCount) {
+            throw new IllegalArgumentException("Wrong slot " + slot + " of " + slotCount + ".");
+        }
+        this.parent = parent;
+        this.tenant = tenant;
+        this.slot = slot;
+        this.slotCount = slotCount;
+    }
+
+    Duration getOffset(final Duration period) {
+        return period.multipliedBy(slot)
+            .dividedBy(slotCount);
+    }
+
+    private TaskDescriptor register(final TaskDescriptor task) {
+        tasks.add(task);
+        if (closed) { // closed concurrently with the submission
+            task.cancel();
+        }
+        return task;
+    }
+
+    private void ensureOpen() {
+        if (isClosed()) {
+            throw new IllegalStateException("Scheduler for '" + tenant + "' already closed.");
+        }
+    }
+
+    @Override
+    public TaskDescriptor submit(final String type, final Runnable toSchedule, final Duration delayInBetween,
+            final Duration firstDelay, final Duration timeout) {
+        ensureOpen();
+        return register(parent.submit(new TaskMetrics(type, tenant), toSchedule, delayInBetween, firstDelay,
+                timeout));
+    }
+
+    @Override
+    public TaskDescriptor submitAtFixedRate(final String type, final Runnable toSchedule, final Duration period,
+            final Duration firstDelay, final Duration timeout, final Duration maxJitter) {
+        ensureOpen();
+        return register(parent.submitAtFixedRate(new TaskMetrics(type, tenant), toSchedule, period,
+                firstDelay.plus(getOffset(period)), timeout, maxJitter));
+    }
+
+    @Override
+    public Scheduler forTenant(final String tenant, final int slot, final int slotCount) {
+        return parent.forTenant(tenant, slot, slotCount);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return parent.getExecutor();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || parent.isClosed();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LOGGER.debug("Cancelling {} tasks of '{}'.", tasks.size(), tenant);
+        tasks.forEach(TaskDescriptor::cancel);
+        tasks.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "TenantScheduler{" +
+                "tenant='" + tenant + '\'' +
+                ", slot=" + slot +
+                ", slotCount=" + slotCount +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.async;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps all the delays and timeouts on a single timer thread, which does nothing but hand the tasks over to the
+ * workers. The task bodies then run on the workers in a blocking fashion, including the scheduling of their next run.
+ * Where the JVM supports virtual threads, every task run gets a new virtual thread; tasks blocking on HTTP then do
+ * not occupy a platform thread. Otherwise a cached thread pool is used.
+ */
+final class TimerBasedScheduler extends AbstractScheduler {
+
+    private static final Logger LOGGER = LogManager.getLogger(TimerBasedScheduler.class);
+    private final ScheduledThreadPoolExecutor timer = newTimer();
+    private final ExecutorService workers = newWorkers();
+
+    static ScheduledThreadPoolExecutor newTimer() {
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "robozonky-scheduler-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true); // Cancelled tasks and timeouts do not linger in the queue.
+        return timer;
+    }
+
+    static ExecutorService newWorkers() {
+        try { // Only available since Java 21, while we still need to run on Java 11.
+            var handle = MethodHandles.publicLookup()
+                .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                        MethodType.methodType(ExecutorService.class));
+            var result = (ExecutorService) handle.invoke();
+            LOGGER.debug("Scheduling on virtual threads.");
+            return result;
+        } catch (final Throwable ex) {
+            LOGGER.debug("Virtual threads not available, scheduling on a cached thread pool.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return workers;
+    }
+
+    @Override
+    TaskDescriptor submit(final TaskMetrics metrics, final Runnable toSchedule, final Duration delayInBetween,
+            final Duration firstDelay, final Duration timeout) {
+        final TimerTaskDescriptor task = new TimerTaskDescriptor(timer, workers, toSchedule, delayInBetween, false,
+                timeout, Duration.ZERO, metrics);
+        LOGGER.debug("Scheduling {} every {} ns, starting in {} ns.", task, delayInBetween.toNanos(),
+                firstDelay.toNanos());
+        task.schedule(firstDelay);
+        return task;
+    }
+
+    @Override
+    TaskDescriptor submitAtFixedRate(final TaskMetrics metrics, final Runnable toSchedule, final Duration period,
+            final Duration firstDelay, final Duration timeout, final Duration maxJitter) {
+        final TimerTaskDescriptor task = new TimerTaskDescriptor(timer, workers, toSchedule, period, true, timeout,
+                maxJitter, metrics);
+        LOGGER.debug("Scheduling {} at fixed rate of {} ns, starting in {} ns.", task, period.toNanos(),
+                firstDelay.toNanos());
+        task.schedule(firstDelay);
+        return task;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return workers.isShutdown();
+    }
+
+    @Override
+    public void close() throws Exception {
+        timer.shutdownNow();
+        workers.shutdownNow();
+        LOGGER.debug("Shutting down {}.", workers);
+        workers.awaitTermination(1, TimeUnit.SECONDS);
+        LOGGER.debug("Shut down {}.", workers);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.async;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * See {@link TimerBasedScheduler}. A run which exceeds the timeout is interrupted, and the task is then scheduled
+ * again as if it succeeded. Any other failure stops the scheduling.
+ * <p>
+ * In fixed-delay mode, the next run is planned for the given delay after the end of the previous run. In fixed-rate
+ * mode, runs are planned for every multiple of the period after the first run, regardless of how long the runs take.
+ * When a run takes longer than the period, the runs planned in the meantime are skipped, not queued. Either way, a
+ * random jitter may be added to every planned start, which however does not influence the planning of the following
+ * runs.
+ */
+final class TimerTaskDescriptor implements TaskDescriptor {
+
+    private static final Logger LOGGER = LogManager.getLogger(TimerTaskDescriptor.class);
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final Runnable toSchedule;
+    private final Duration period;
+    private final boolean fixedRate;
+    private final Duration timeout;
+    private final Duration maxJitter;
+    private final TaskMetrics metrics;
+    private final LongAdder successCount = new LongAdder();
+    private volatile boolean cancelled = false;
+    private volatile Future<?> next;
+    private long plannedStartNanos; // Without the jitter.
+    private long jitteredStartNanos;
+
+    TimerTaskDescriptor(final ScheduledExecutorService timer, final ExecutorService workers,
+            final Runnable toSchedule, final Duration period, final boolean fixedRate, final Duration timeout,
+            final Duration maxJitter, final TaskMetrics metrics) {
+        this.timer = timer;
+        this.workers = workers;
+        this.toSchedule = toSchedule;
+        this.period = period;
+        this.fixedRate = fixedRate;
+        this.timeout = timeout;
+        this.maxJitter = maxJitter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        final Future<?> scheduled = next;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    private long getJitterNanos() {
+        final long max = maxJitter.toNanos();
+        return max > 0 ? ThreadLocalRandom.current()
+            .nextLong(max + 1) : 0;
+    }
+
+    void schedule(final Duration initialDelay) {
+        scheduleAt(System.nanoTime() + initialDelay.toNanos());
+    }
+
+    private synchronized void scheduleAt(final long plannedStartNanos) {
+        if (cancelled || workers.isShutdown()) {
+            LOGGER.debug("Not scheduling {} as the scheduler is terminating.", this);
+            return;
+        }
+        this.plannedStartNanos = plannedStartNanos;
+        this.jitteredStartNanos = plannedStartNanos + getJitterNanos();
+        final long delayNanos = Math.max(0, jitteredStartNanos - System.nanoTime());
+        LOGGER.trace("Scheduling {} to happen after {} ns.", this, delayNanos);
+        try {
+            next = timer.schedule(this::submit, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException ex) {
+            LOGGER.debug("Not scheduling {} as the timer is terminating.", this);
+        }
+    }
+
+    private void submit() { // Runs on the timer thread, must therefore not block.
+        try {
+            workers.execute(this::run);
+        } catch (final RejectedExecutionException ex) {
+            LOGGER.debug("Not running {} as the scheduler is terminating.", this);
+        }
+    }
+
+    private void run() {
+        if (cancelled) {
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        final long plannedStart;
+        synchronized (this) {
+            plannedStart = plannedStartNanos;
+            metrics.recordLag(jitteredStartNanos, startNanos);
+        }
+        LOGGER.trace("Running {} from within {}.", toSchedule, this);
+        final Thread worker = Thread.currentThread();
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        final Future<?> timeoutKiller = timeout.isNegative() || timeout.isZero() ? null
+                : timer.schedule(() -> {
+                    timedOut.set(true);
+                    worker.interrupt();
+                }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        try {
+            toSchedule.run();
+            successCount.increment();
+            LOGGER.trace("Completed {} successfully.", this);
+        } catch (final Exception ex) {
+            if (timedOut.get()) {
+                LOGGER.debug("Timed out executing task {}, rescheduling.", this, ex);
+            } else {
+                LOGGER.warn("No longer scheduling {}.", this, ex);
+                return;
+            }
+        } finally {
+            if (timeoutKiller != null) {
+                timeoutKiller.cancel(false);
+            }
+            Thread.interrupted(); // Clear the interrupt, in case the timeout came just after the task ended.
+            final long endNanos = System.nanoTime();
+            metrics.recordDuration(startNanos, endNanos);
+            if (timedOut.get()) {
+                metrics.recordOverrun();
+            }
+            LOGGER.trace("Finished {}.", toSchedule);
+        }
+        scheduleNext(plannedStart, timedOut.get());
+    }
+
+    private void scheduleNext(final long previousPlannedStart, final boolean overrunAlreadyRecorded) {
+        final long now = System.nanoTime();
+        if (!fixedRate) {
+            scheduleAt(now + period.toNanos());
+            return;
+        }
+        final long periodNanos = Math.max(1, period.toNanos());
+        long nextPlannedStart = previousPlannedStart + periodNanos;
+        if (nextPlannedStart < now) { // Overran, skip the runs which should have already happened.
+            final long skipped = (now - nextPlannedStart) / periodNanos + 1;
+            nextPlannedStart += skipped * periodNanos;
+            if (!overrunAlreadyRecorded) {
+                metrics.recordOverrun();
+            }
+            metrics.recordSkipped(skipped);
+            LOGGER.debug("{} overran, skipping {} runs.", this, skipped);
+        }
+        scheduleAt(nextPlannedStart);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -40,11 +41,31 @@ public final class ListenerServiceLoader {
     private static final Logger LOGGER = LogManager.getLogger(ListenerServiceLoader.class);
     private static final Supplier<ServiceLoader<ListenerService>> LOADER = ExtensionsManager.INSTANCE
         .getServiceLoader(ListenerService.class);
+    private static final AtomicLong GENERATION = new AtomicLong(0);
 
     private ListenerServiceLoader() {
         // no instances
     }
 
+    /**
+     * Users of {@link #load(SessionInfo, Class)} are free to cache the listeners which the returned suppliers provide,
+     * as long as this number does not change. Once it changes, the listeners need to be resolved again.
+     * 
+     * @return Changes every time {@link #invalidate()} is called.
+     */
+    public static long getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Signal that listeners previously provided by {@link EventListenerSupplier}s may no longer be valid, such as when
+     * notification configuration changes.
+     */
+    public static void invalidate() {
+        final long generation = GENERATION.incrementAndGet();
+        LOGGER.debug("Listeners invalidated, generation {}.", generation);
+    }
+
     /**
      * Retrieve the location configuration previously stored through
      * {@link #registerConfiguration(SessionInfo, URL)}.
@@ -82,6 +103,7 @@ public final class ListenerServiceLoader {
         TenantState.of(session)
             .in(ListenerService.class)
             .update(state -> state.put(CONFIG_LOCATION_PROPERTY, configurationLocation));
+        invalidate();
     }
 
     /**
@@ -93,6 +115,7 @@ public final class ListenerServiceLoader {
         TenantState.of(session)
             .in(ListenerService.class)
             .update(state -> state.remove(CONFIG_LOCATION_PROPERTY));
+        invalidate();
         LOGGER.debug("Tenant '{}' notification configuration deleted.", session.getUsername());
     }
 
@@ -111,4 +134,23 @@ public final class ListenerServiceLoader {
             final Class<T> eventType) {
         return ListenerServiceLoader.load(sessionInfo, eventType, ListenerServiceLoader.LOADER.get());
     }
+
+    static void flushAll(final Iterable<ListenerService> loader) {
+        StreamUtil.toStream(loader)
+            .forEach(s -> {
+                try {
+                    s.flush();
+                } catch (final Exception ex) {
+                    LOGGER.warn("Failed flushing '{}'.", s.getClass(), ex);
+                }
+            });
+    }
+
+    /**
+     * Give every {@link ListenerService} a chance to deliver notifications it still holds. Meant to be called during
+     * shutdown, after the last event has been fired.
+     */
+    public static void flushAll() {
+        ListenerServiceLoader.flushAll(ListenerServiceLoader.LOADER.get());
+    }
 }
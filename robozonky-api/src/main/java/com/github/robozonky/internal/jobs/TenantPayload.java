@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.jobs;
 
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import com.github.robozonky.internal.tenant.Tenant;
@@ -23,4 +24,15 @@ import com.github.robozonky.internal.tenant.Tenant;
 @FunctionalInterface
 public interface TenantPayload extends Consumer<Tenant>, Payload {
 
+    /**
+     * Run the payload on behalf of the tenant.
+     *
+     * @param tenant   Tenant to run the payload for.
+     * @param executor Threads of the scheduler running the payload, where the payload may fork blocking work of its
+     *                 own instead of occupying the common fork-join pool.
+     */
+    default void accept(final Tenant tenant, final Executor executor) {
+        accept(tenant);
+    }
+
 }
@@ -28,21 +28,30 @@ class Api<T> {
 
     private final T proxy;
     private final Timer timer;
+    private final CircuitBreaker circuitBreaker;
 
     public Api(final T proxy) {
         this.proxy = proxy;
         this.timer = Timer.builder(UUID.randomUUID()
             .toString()) // Testing purposes
             .register(new SimpleMeterRegistry());
+        this.circuitBreaker = new CircuitBreaker(proxy.getClass()
+            .getSimpleName());
     }
 
     public Api(final T proxy, final Timer timer) {
+        this(proxy, timer, new CircuitBreaker(proxy.getClass()
+            .getSimpleName()));
+    }
+
+    public Api(final T proxy, final Timer timer, final CircuitBreaker circuitBreaker) {
         this.proxy = proxy;
         this.timer = Objects.requireNonNull(timer);
+        this.circuitBreaker = Objects.requireNonNull(circuitBreaker);
     }
 
     <S> S call(final Function<T, S> function) {
-        return timer.record(() -> function.apply(proxy));
+        return circuitBreaker.call(() -> timer.record(() -> function.apply(proxy)));
     }
 
     void run(final Consumer<T> consumer) {
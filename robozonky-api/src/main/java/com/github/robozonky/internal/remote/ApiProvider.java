@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.remote;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -44,6 +45,7 @@ import com.github.robozonky.internal.remote.entities.ParticipationImpl;
 import com.github.robozonky.internal.util.StreamUtil;
 import com.github.robozonky.internal.util.functional.Memoizer;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Timer;
 
 public class ApiProvider implements AutoCloseable {
@@ -62,6 +64,16 @@ public class ApiProvider implements AutoCloseable {
      * be reused as much as possible.
      */
     private final Supplier<ResteasyClient> client;
+    /**
+     * One per endpoint, shared by all users of this provider, so that one failing endpoint does not stop the others
+     * from being used.
+     */
+    private final Map<Class<?>, CircuitBreaker> circuitBreakers;
+    /**
+     * False when the client is shared with other providers, see {@link SharedHttpClient}.
+     */
+    private final boolean ownsClient;
+    private volatile boolean closed = false;
 
     public ApiProvider() {
         this(UUID.randomUUID()
@@ -69,7 +81,12 @@ public class ApiProvider implements AutoCloseable {
     }
 
     public ApiProvider(String id) {
-        this.client = Memoizer.memoize(ProxyFactory::newResteasyClient);
+        this(id, Memoizer.memoize(() -> ProxyFactory.newResteasyClient()), true);
+    }
+
+    ApiProvider(final String id, final Supplier<ResteasyClient> client, final boolean ownsClient) {
+        this.client = client;
+        this.ownsClient = ownsClient;
         var clientName = Objects.requireNonNullElse(id, "default");
         meteredRequestTimer = Timer.builder("robozonky.api.requests")
             .tag("metered", "true")
@@ -81,6 +98,22 @@ public class ApiProvider implements AutoCloseable {
             .tag("client", clientName)
             .description("Non-rate-limited requests to Zonky API.")
             .register(Defaults.METER_REGISTRY);
+        circuitBreakers = Map.of(LoanApi.class, circuitBreaker("marketplace", clientName),
+                ParticipationApi.class, circuitBreaker("smp", clientName),
+                PortfolioApi.class, circuitBreaker("portfolio", clientName),
+                ControlApi.class, circuitBreaker("control", clientName),
+                ReservationApi.class, circuitBreaker("reservations", clientName));
+    }
+
+    private static CircuitBreaker circuitBreaker(final String endpoint, final String clientName) {
+        var circuitBreaker = new CircuitBreaker(endpoint);
+        Gauge.builder("robozonky.api.circuit", circuitBreaker, c -> c.getState()
+            .ordinal())
+            .tag("endpoint", endpoint)
+            .tag("client", clientName)
+            .description("State of the endpoint's circuit breaker; 0 closed, 1 half-open, 2 open.")
+            .register(Defaults.METER_REGISTRY);
+        return circuitBreaker;
     }
 
     static <T> Api<T> actuallyObtainNormal(final T proxy, final Timer timer) {
@@ -99,13 +132,18 @@ public class ApiProvider implements AutoCloseable {
     <S, T extends EntityCollectionApi<S>> PaginatedApi<S, T> obtainPaginated(final Class<T> api,
             final Supplier<ZonkyApiToken> token) {
         return new PaginatedApi<>(api, ApiConstants.ZONKY_API_HOSTNAME, token, client.get(), meteredRequestTimer,
-                unmeteredRequestTimer);
+                unmeteredRequestTimer, getCircuitBreaker(api));
     }
 
     <T> Api<T> obtainNormal(final Class<T> api, final Supplier<ZonkyApiToken> token, Timer timer) {
         var proxy = ProxyFactory.newProxy(client.get(), new AuthenticatedFilter(token), api,
                 ApiConstants.ZONKY_API_HOSTNAME);
-        return actuallyObtainNormal(proxy, timer);
+        return new Api<>(proxy, timer, getCircuitBreaker(api));
+    }
+
+    private CircuitBreaker getCircuitBreaker(final Class<?> api) {
+        var circuitBreaker = api == null ? null : circuitBreakers.get(api);
+        return circuitBreaker == null ? new CircuitBreaker(String.valueOf(api)) : circuitBreaker;
     }
 
     private OAuth oauth() {
@@ -190,18 +228,28 @@ public class ApiProvider implements AutoCloseable {
         return obtainNormal(ReservationApi.class, token, meteredRequestTimer);
     }
 
+    /**
+     * @return One for each of the endpoints, as used by the APIs retrieved through this provider.
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers.values();
+    }
+
     public Timer getMeteredRequestTimer() {
         return meteredRequestTimer;
     }
 
     @Override
     public void close() {
-        client.get()
-            .close();
+        closed = true;
+        if (ownsClient) {
+            client.get()
+                .close();
+        }
     }
 
     public boolean isClosed() {
-        return client.get()
+        return closed || client.get()
             .isClosed();
     }
 }
@@ -31,11 +31,21 @@ class AuthenticatedFilter extends RoboZonkyFilter {
         this.token = token; // null token = no token, testing purposes
     }
 
+    private char[] getAccessToken() {
+        if (token == null) {
+            return AuthenticatedFilter.EMPTY_TOKEN;
+        }
+        try {
+            return token.get()
+                .getAccessToken();
+        } catch (final RuntimeException ex) {
+            throw new TokenUnavailableException(ex);
+        }
+    }
+
     @Override
     public void filter(final ClientRequestContext clientRequestContext) {
-        final char[] t = token == null ? AuthenticatedFilter.EMPTY_TOKEN
-                : token.get()
-                    .getAccessToken();
+        final char[] t = getAccessToken();
         this.setRequestHeader("Authorization", "Bearer " + String.valueOf(t));
         super.filter(clientRequestContext);
     }
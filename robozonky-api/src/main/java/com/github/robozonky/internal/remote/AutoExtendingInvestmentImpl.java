@@ -34,7 +34,7 @@ import com.github.robozonky.internal.util.functional.Memoizer;
  * <li>{@link InvestmentLoanData#getHealthStats()}.</li>
  * </ul>
  * The point of this class is to hide this complexity from the rest of the code.
- * When the data is missing, it will be automatically fetched in the background.
+ * When the data is missing, it will be automatically fetched through {@link InvestmentDetailLoader}.
  */
 final class AutoExtendingInvestmentImpl implements Investment {
 
@@ -42,9 +42,9 @@ final class AutoExtendingInvestmentImpl implements Investment {
     private final Supplier<Investment> fullInvestmentSupplier;
     private final InvestmentLoanData loanDataDelegate;
 
-    public AutoExtendingInvestmentImpl(Investment investment, Zonky zonky) {
+    public AutoExtendingInvestmentImpl(Investment investment, InvestmentDetailLoader investmentDetails) {
         this.delegate = investment;
-        this.fullInvestmentSupplier = Memoizer.memoize(() -> zonky.getInvestment(investment.getId()));
+        this.fullInvestmentSupplier = Memoizer.memoize(() -> investmentDetails.get(investment.getId()));
         this.loanDataDelegate = new AutoExtendingInvestmentLoanDataImpl(investment.getLoan(), fullInvestmentSupplier);
     }
 
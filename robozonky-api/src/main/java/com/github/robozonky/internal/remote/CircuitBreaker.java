@@ -0,0 +1,259 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.json.bind.JsonbException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Guards a single Zonky API endpoint, so that its failures do not affect the other endpoints.
+ * <ul>
+ * <li>While {@link State#CLOSED}, all requests go through. Server errors, I/O failures and requests taking
+ * significantly longer than usual count as failures; enough of them in a row will open the breaker.</li>
+ * <li>While {@link State#OPEN}, requests fail fast with {@link CircuitBreakerOpenException}. The breaker stays open
+ * for 5 seconds plus 2^n seconds, n being the number of times it opened in a row.</li>
+ * <li>Once that time passes, the breaker becomes {@link State#HALF_OPEN} and lets a single request through as a
+ * probe. Success will close the breaker, failure will open it again.</li>
+ * </ul>
+ * Only server errors (HTTP 5xx), I/O failures and responses that could not be parsed are failures of the endpoint,
+ * wherever they are in the cause chain. Anything else does not affect the breaker; that includes client errors (HTTP
+ * 4xx), failures to obtain the token to authenticate the request with (see {@link TokenUnavailableException}), as
+ * such requests never reach the endpoint, and bugs in our own code.
+ * <p>
+ * Single-item requests and {@link #callListing(Supplier) listings} have their usual latency tracked separately, so
+ * that a long listing is not mistaken for a slow single-item request and vice versa.
+ */
+public final class CircuitBreaker {
+
+    static final int FAILURE_THRESHOLD = 3;
+    static final long MANDATORY_OPEN_SECONDS = 5;
+    static final long MAX_BACKOFF_SECONDS = Duration.ofHours(1)
+        .toSeconds();
+    static final int MIN_LATENCY_SAMPLES = 10;
+    static final long MIN_SLOW_CALL_NANOS = Duration.ofSeconds(2)
+        .toNanos();
+    static final int SLOW_CALL_FACTOR = 5;
+    private static final Logger LOGGER = LogManager.getLogger(CircuitBreaker.class);
+
+    private final String endpoint;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private int failuresInRow = 0;
+    private int tripsInRow = 0;
+    private long openUntilNanos = 0;
+    private boolean probeInFlight = false;
+    private final Latency itemLatency = new Latency();
+    private final Latency listingLatency = new Latency();
+    private volatile Throwable lastFailure;
+
+    public CircuitBreaker(final String endpoint) {
+        this(endpoint, System::nanoTime);
+    }
+
+    CircuitBreaker(final String endpoint, final LongSupplier nanoClock) {
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.nanoClock = nanoClock;
+    }
+
+    static boolean isEndpointFailure(final Throwable throwable) {
+        if (throwable == null || throwable instanceof TokenUnavailableException) {
+            return false;
+        } else if (throwable instanceof WebApplicationException) {
+            var status = ((WebApplicationException) throwable).getResponse()
+                .getStatus();
+            return status >= 500;
+        } else if (throwable instanceof IOException || throwable instanceof JsonbException) {
+            return true; // I/O failures such as timeouts, unparseable responses.
+        } else if (throwable instanceof ProcessingException && throwable.getCause() == null) {
+            return true; // Failure of the transport itself.
+        }
+        // The actual failure may come wrapped, such as in a ProcessingException when thrown from a filter.
+        return isEndpointFailure(throwable.getCause());
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openUntilNanos >= 0) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @param throwable Exception thrown while executing a request.
+     * @return True if the exception is the failure most recently registered with this breaker.
+     */
+    public boolean isLastFailure(final Throwable throwable) {
+        return throwable != null && throwable == lastFailure;
+    }
+
+    private synchronized void acquire() {
+        var now = nanoClock.getAsLong();
+        switch (state) {
+            case CLOSED:
+                return;
+            case OPEN:
+                if (now - openUntilNanos < 0) {
+                    throw new CircuitBreakerOpenException(this);
+                }
+                LOGGER.debug("Circuit breaker for {} half-open, probing.", endpoint);
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    throw new CircuitBreakerOpenException(this);
+                }
+                probeInFlight = true;
+                return;
+            default:
+                throw new IllegalStateException("Impossible state: " + state);
+        }
+    }
+
+    private synchronized void registerSuccess(final Latency latency, final long latencyNanos) {
+        if (latency.isSlow(latencyNanos)) { // Outliers do not skew the average; they count as a failure instead.
+            LOGGER.debug("Slow request to {}, took {} ms.", endpoint, Duration.ofNanos(latencyNanos)
+                .toMillis());
+            registerFailure();
+            return;
+        }
+        latency.record(latencyNanos);
+        failuresInRow = 0;
+        if (state != State.CLOSED) {
+            LOGGER.info("Zonky API endpoint '{}' available again.", endpoint);
+            state = State.CLOSED;
+            tripsInRow = 0;
+            probeInFlight = false;
+        }
+    }
+
+    private synchronized void registerFailure() {
+        failuresInRow++;
+        if (state == State.HALF_OPEN || failuresInRow >= FAILURE_THRESHOLD) {
+            open();
+        }
+    }
+
+    private void open() {
+        var backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(tripsInRow, 62));
+        var openFor = Duration.ofSeconds(MANDATORY_OPEN_SECONDS + backoffSeconds);
+        LOGGER.warn("Zonky API endpoint '{}' failing, not using it for {} seconds.", endpoint, openFor.toSeconds());
+        state = State.OPEN;
+        openUntilNanos = nanoClock.getAsLong() + openFor.toNanos();
+        tripsInRow++;
+        failuresInRow = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void release() {
+        if (state == State.HALF_OPEN) { // The probe ended with an error that says nothing about the endpoint.
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Execute a request for a single item, unless the breaker is open.
+     *
+     * @param request Request to execute.
+     * @param <T>     Return type of the request.
+     * @return Whatever the request returned.
+     * @throws CircuitBreakerOpenException When the breaker is open.
+     */
+    public <T> T call(final Supplier<T> request) {
+        return call(itemLatency, request);
+    }
+
+    /**
+     * Execute a request for a page of a listing, unless the breaker is open.
+     *
+     * @param request Request to execute.
+     * @param <T>     Return type of the request.
+     * @return Whatever the request returned.
+     * @throws CircuitBreakerOpenException When the breaker is open.
+     */
+    public <T> T callListing(final Supplier<T> request) {
+        return call(listingLatency, request);
+    }
+
+    private <T> T call(final Latency latency, final Supplier<T> request) {
+        acquire();
+        var start = nanoClock.getAsLong();
+        try {
+            var result = request.get();
+            registerSuccess(latency, nanoClock.getAsLong() - start);
+            return result;
+        } catch (final RuntimeException ex) {
+            if (isEndpointFailure(ex)) {
+                LOGGER.debug("Failed request to {}.", endpoint, ex);
+                lastFailure = ex;
+                registerFailure();
+            } else {
+                release();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "endpoint='" + endpoint + '\'' +
+                ", state=" + getState() +
+                '}';
+    }
+
+    /**
+     * Usual latency of one kind of request. Only accessed while holding the lock on the breaker.
+     */
+    private static final class Latency {
+
+        private long samples = 0;
+        private double averageNanos = 0;
+
+        boolean isSlow(final long latencyNanos) {
+            if (samples < MIN_LATENCY_SAMPLES) {
+                return false;
+            }
+            return latencyNanos > Math.max(MIN_SLOW_CALL_NANOS, averageNanos * SLOW_CALL_FACTOR);
+        }
+
+        void record(final long latencyNanos) {
+            samples++;
+            averageNanos += (latencyNanos - averageNanos) / Math.min(samples, 20);
+        }
+    }
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+}
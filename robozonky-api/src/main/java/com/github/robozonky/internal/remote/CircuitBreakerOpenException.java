@@ -0,0 +1,36 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+/**
+ * Thrown instead of making a request to an endpoint whose {@link CircuitBreaker} is open.
+ */
+public final class CircuitBreakerOpenException extends IllegalStateException {
+
+    private static final long serialVersionUID = 42L;
+
+    private final transient CircuitBreaker circuitBreaker;
+
+    CircuitBreakerOpenException(final CircuitBreaker circuitBreaker) {
+        super("Zonky API endpoint '" + circuitBreaker.getEndpoint() + "' temporarily unavailable.");
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.api.remote.enums.SellStatus;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Investments listed by {@link Zonky} often lack {@link Investment#getSmpSellInfo()} and loan health statistics,
+ * which are only available from the investment detail, one request per investment. This class makes those requests
+ * visible and bounded:
+ * <ul>
+ * <li>Details are retrieved on a shared pool with a fixed number of threads and a bounded queue. When the queue is
+ * full, the detail is retrieved on the calling thread.</li>
+ * <li>Each detail is retrieved at most once within the cache period, no matter how many times it is asked for. The
+ * cache holds a limited number of details; when full, expired details are dropped first and arbitrary others after
+ * that.</li>
+ * <li>Details which will almost certainly be needed can be {@link #prefetch(Investment) prefetched} as soon as the
+ * listing arrives, so that the requests run in parallel to the processing of the listing.</li>
+ * </ul>
+ * Remote requests are counted in the "robozonky.api.investment_details" meter with tag "source" set to "remote",
+ * details served without a new request have the tag set to "cache".
+ */
+final class InvestmentDetailLoader {
+
+    static final String NAME = "robozonky.api.investment_details";
+    private static final Logger LOGGER = LogManager.getLogger(InvestmentDetailLoader.class);
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final int DEFAULT_MAX_CACHED_ITEMS = 10_000;
+    private static final ExecutorService EXECUTOR = createExecutor(Settings.INSTANCE.getInvestmentDetailThreads());
+    private static final Counter REMOTE = Counter.builder(NAME)
+        .tag("source", "remote")
+        .description("Investment details retrieved from Zonky API.")
+        .register(Defaults.METER_REGISTRY);
+    private static final Counter CACHED = Counter.builder(NAME)
+        .tag("source", "cache")
+        .description("Investment details served without a new request to Zonky API.")
+        .register(Defaults.METER_REGISTRY);
+
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>(0);
+    private final LongFunction<Investment> retriever;
+    private final long ttlNanos;
+    private final int maxCachedItems;
+
+    public InvestmentDetailLoader(final LongFunction<Investment> retriever, final Duration ttl) {
+        this(retriever, ttl, DEFAULT_MAX_CACHED_ITEMS);
+    }
+
+    InvestmentDetailLoader(final LongFunction<Investment> retriever, final Duration ttl, final int maxCachedItems) {
+        this.retriever = retriever;
+        this.ttlNanos = ttl.toNanos();
+        this.maxCachedItems = maxCachedItems;
+    }
+
+    private static ExecutorService createExecutor(final int threads) {
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        final String threadPrefix = NAME.replace('.', '-') + "-";
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    final Thread thread = new Thread(r, threadPrefix + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (r, e) -> r.run()); // Unlike CallerRunsPolicy, never silently drops the task.
+        executor.allowCoreThreadTimeOut(true); // Do not keep threads around when nothing is being retrieved.
+        return ExecutorServiceMetrics.monitor(Defaults.METER_REGISTRY, executor, NAME);
+    }
+
+    private Entry load(final long investmentId) {
+        final Entry current = cache.get(investmentId);
+        if (current != null && current.isValid()) {
+            CACHED.increment();
+            return current;
+        }
+        evictIfFull();
+        final CompletableFuture<Investment> future = new CompletableFuture<>();
+        final Entry created = new Entry(future, System.nanoTime() + ttlNanos);
+        final Entry result = cache.compute(investmentId, (id, old) -> old != null && old.isValid() ? old : created);
+        if (result != created) { // Another thread was faster.
+            CACHED.increment();
+            return result;
+        }
+        try { // Outside of compute(), as the caller may end up running this.
+            EXECUTOR.execute(() -> retrieve(investmentId, created));
+        } catch (final RuntimeException ex) {
+            fail(investmentId, created, ex);
+        }
+        return created;
+    }
+
+    private void retrieve(final long investmentId, final Entry entry) {
+        LOGGER.debug("Retrieving detail of investment #{}.", investmentId);
+        REMOTE.increment();
+        try {
+            entry.future.complete(retriever.apply(investmentId));
+        } catch (final Throwable ex) { // Whatever happens, waiting callers must not wait forever.
+            fail(investmentId, entry, ex);
+            if (ex instanceof Error) {
+                throw (Error) ex;
+            }
+        }
+    }
+
+    private void fail(final long investmentId, final Entry entry, final Throwable failure) {
+        cache.remove(investmentId, entry); // Do not cache failures; the next caller will try again.
+        entry.future.completeExceptionally(failure);
+    }
+
+    /**
+     * Once the cache is full, drop expired entries and, if that is not enough, arbitrary others, until there is some
+     * headroom again. The headroom makes sure that the cache is not scanned again on each of the following misses.
+     */
+    private void evictIfFull() {
+        if (cache.size() < maxCachedItems) {
+            return;
+        }
+        cache.values()
+            .removeIf(e -> !e.isValid());
+        final int target = maxCachedItems - Math.max(1, maxCachedItems / 10);
+        final Iterator<Entry> entries = cache.values()
+            .iterator();
+        while (cache.size() > target && entries.hasNext()) {
+            entries.next();
+            entries.remove();
+        }
+        LOGGER.trace("Investment detail cache reduced to {} items.", cache.size());
+    }
+
+    /**
+     * Start retrieving the detail on the background, if the investment is missing information that the detail would
+     * provide and is likely to be needed.
+     *
+     * @param investment Investment as listed by {@link Zonky}.
+     */
+    public void prefetch(final Investment investment) {
+        if (investment.getSellStatus() != SellStatus.SELLABLE_WITH_FEE || investment.getSmpSellInfo()
+            .isPresent()) {
+            return;
+        }
+        load(investment.getId());
+    }
+
+    /**
+     * Retrieve the detail, blocking until it becomes available.
+     *
+     * @param investmentId ID of the investment.
+     * @return Investment as returned by {@link Zonky#getInvestment(long)}.
+     */
+    public Investment get(final long investmentId) {
+        try {
+            return load(investmentId).future.join();
+        } catch (final CompletionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ex;
+        }
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<Investment> future;
+        private final long expiresAtNanos;
+
+        Entry(final CompletableFuture<Investment> future, final long expiresAtNanos) {
+            this.future = future;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isValid() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+    }
+}
@@ -39,15 +39,24 @@ class PaginatedApi<S, T> {
     private final Supplier<ZonkyApiToken> tokenSupplier;
     private final Timer meteredRequestTimer;
     private final Timer unmeteredRequestTimer;
+    private final CircuitBreaker circuitBreaker;
 
     public PaginatedApi(final Class<T> api, final String url, final Supplier<ZonkyApiToken> token,
             final ResteasyClient client, final Timer meteredRequestTimer, final Timer unmeteredRequestTimer) {
+        this(api, url, token, client, meteredRequestTimer, unmeteredRequestTimer,
+                new CircuitBreaker(String.valueOf(api)));
+    }
+
+    public PaginatedApi(final Class<T> api, final String url, final Supplier<ZonkyApiToken> token,
+            final ResteasyClient client, final Timer meteredRequestTimer, final Timer unmeteredRequestTimer,
+            final CircuitBreaker circuitBreaker) {
         this.api = api;
         this.url = url;
         this.client = client;
         this.tokenSupplier = token;
         this.meteredRequestTimer = meteredRequestTimer;
         this.unmeteredRequestTimer = unmeteredRequestTimer;
+        this.circuitBreaker = circuitBreaker;
     }
 
     public void setSortString(final String sortString) {
@@ -86,7 +95,7 @@ class PaginatedApi<S, T> {
     <Q> Q execute(final Function<T, Q> function, final RoboZonkyFilter filter, final boolean trackRequests) {
         var timer = trackRequests ? meteredRequestTimer : unmeteredRequestTimer;
         var proxy = ProxyFactory.newProxy(client, filter, api, url);
-        return timer.record(() -> function.apply(proxy));
+        return circuitBreaker.callListing(() -> timer.record(() -> function.apply(proxy)));
     }
 
     public PaginatedResult<S> execute(final Function<T, List<S>> function, final Select select, final int pageNo,
@@ -23,6 +23,7 @@ import javax.ws.rs.client.ClientBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 
 import com.github.robozonky.internal.Settings;
 
@@ -35,6 +36,15 @@ final class ProxyFactory {
     }
 
     public static ResteasyClient newResteasyClient() {
+        return newResteasyClient(0);
+    }
+
+    /**
+     * @param connectionPoolSize Maximum number of HTTP connections the client will keep open at the same time. Zero
+     *                           leaves the choice to RESTEasy.
+     * @return never null
+     */
+    public static ResteasyClient newResteasyClient(final int connectionPoolSize) {
         LOGGER.debug("Creating RESTEasy client.");
         var settings = Settings.INSTANCE;
         var socketTimeout = settings.getSocketTimeout()
@@ -57,6 +67,11 @@ final class ProxyFactory {
                     .property("org.jboss.resteasy.jaxrs.client.proxy.port", port);
                 LOGGER.debug("Set HTTP proxy to {}:{}.", host, port);
             });
+        if (connectionPoolSize > 0 && builder instanceof ResteasyClientBuilder) {
+            ((ResteasyClientBuilder) builder).connectionPoolSize(connectionPoolSize)
+                .maxPooledPerRoute(connectionPoolSize); // All the requests go to the same host.
+            LOGGER.debug("Set connection pool size to {}.", connectionPoolSize);
+        }
         return (ResteasyClient) builder.build();
     }
 
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.function.Supplier;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.util.functional.Memoizer;
+
+/**
+ * One HTTP client and its connection pool, shared by the {@link ApiProvider}s of all the tenants running in the same
+ * JVM. The providers keep their own metrics and circuit breakers; closing them leaves the client open, until this is
+ * closed.
+ */
+public final class SharedHttpClient implements AutoCloseable {
+
+    private final Supplier<ResteasyClient> client;
+
+    /**
+     * @param tenantCount How many tenants will share the client; determines the size of the connection pool.
+     */
+    public SharedHttpClient(final int tenantCount) {
+        var poolSize = Math.max(1, tenantCount) * Settings.INSTANCE.getConnectionsPerTenant();
+        this.client = Memoizer.memoize(() -> ProxyFactory.newResteasyClient(poolSize));
+    }
+
+    public ApiProvider newApiProvider(final String tenantName) {
+        return new ApiProvider(tenantName, client, false);
+    }
+
+    @Override
+    public void close() {
+        client.get()
+            .close();
+    }
+}
@@ -18,9 +18,12 @@ package com.github.robozonky.internal.remote;
 
 import static java.util.Collections.singleton;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -82,6 +85,8 @@ public class Zonky {
     private final PaginatedApi<LoanImpl, LoanApi> loanApi;
     private final PaginatedApi<ParticipationImpl, ParticipationApi> participationApi;
     private final PaginatedApi<InvestmentImpl, PortfolioApi> portfolioApi;
+    private final InvestmentDetailLoader investmentDetails = new InvestmentDetailLoader(this::getInvestment,
+            Settings.INSTANCE.getRemoteResourceRefreshInterval());
 
     Zonky(final ApiProvider api, final Supplier<ZonkyApiToken> tokenSupplier) {
         this.controlApi = api.control(tokenSupplier);
@@ -157,7 +162,7 @@ public class Zonky {
      */
     public Stream<Investment> getInvestments(final Select select) {
         return getStream(portfolioApi, PortfolioApi::items, select)
-            .map(i -> new AutoExtendingInvestmentImpl(i, this));
+            .map(i -> new AutoExtendingInvestmentImpl(i, investmentDetails));
     }
 
     public Stream<Investment> getPendingInvestments() {
@@ -181,7 +186,8 @@ public class Zonky {
         // It makes no sense, but we have already seen Zonky return these here.
         return getInvestments(select)
             .filter(i -> i.getSellStatus()
-                .isSellable());
+                .isSellable())
+            .peek(investmentDetails::prefetch); // Sell info will be needed, have it ready by the time it is.
     }
 
     public Stream<Investment> getDelinquentInvestments() {
@@ -200,6 +206,25 @@ public class Zonky {
         return portfolioApi.execute(api -> api.getInvestment(id));
     }
 
+    /**
+     * Retrieve many investments in as few requests as possible, as opposed to calling {@link #getInvestment(long)}
+     * for each of them. The IDs are split into chunks of {@link Settings#getDefaultApiPageSize()}, each of them
+     * retrieved from {@link PortfolioApi} with a single request.
+     *
+     * @param investmentIds IDs of the investments to retrieve.
+     * @return Investments found, lazy-loaded and in no particular order. Unknown IDs are silently skipped.
+     */
+    public Stream<Investment> getInvestmentsById(final long... investmentIds) {
+        var ids = LongStream.of(investmentIds)
+            .distinct()
+            .toArray();
+        var chunkSize = Settings.INSTANCE.getDefaultApiPageSize();
+        return IntStream.iterate(0, start -> start < ids.length, start -> start + chunkSize)
+            .mapToObj(start -> Arrays.copyOfRange(ids, start, Math.min(ids.length, start + chunkSize)))
+            .flatMap(chunk -> getInvestments(Select.unrestricted()
+                .in("id", chunk)));
+    }
+
     public LastPublishedItem getLastPublishedLoanInfo() {
         return loanApi.execute(LoanApi::lastPublished, false);
     }
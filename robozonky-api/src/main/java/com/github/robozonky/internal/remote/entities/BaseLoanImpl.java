@@ -20,6 +20,9 @@ import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.StringJoiner;
 
+import javax.json.bind.annotation.JsonbTransient;
+import javax.json.bind.annotation.JsonbVisibility;
+
 import com.github.robozonky.api.Money;
 import com.github.robozonky.api.Ratio;
 import com.github.robozonky.api.remote.entities.BaseLoan;
@@ -28,7 +31,9 @@ import com.github.robozonky.api.remote.enums.MainIncomeType;
 import com.github.robozonky.api.remote.enums.Purpose;
 import com.github.robozonky.api.remote.enums.Region;
 import com.github.robozonky.internal.test.DateUtil;
+import com.github.robozonky.internal.util.json.FieldVisibilityStrategy;
 
+@JsonbVisibility(FieldVisibilityStrategy.class)
 public abstract class BaseLoanImpl implements BaseLoan {
 
     protected boolean insuranceActive;
@@ -41,21 +46,38 @@ public abstract class BaseLoanImpl implements BaseLoan {
     protected Region region;
     protected Purpose purpose;
 
-    // various ratios
-    protected Ratio interestRate;
-    protected Ratio revenueRate;
-
     // OffsetDateTime is expensive to parse, and Loans are on the hot path. Only do it when needed.
     protected String datePublished;
     protected String deadline;
 
-    protected Money amount;
-    protected Money remainingInvestment;
-    protected Money reservedAmount;
-    protected Money annuity;
-    protected Money annuityWithInsurance;
-    protected Money premium;
-    protected Money zonkyPlusAmount;
+    // Same goes for BigDecimal-based types. Raw values come from JSON, decoded ones are cached on first access.
+    protected String interestRate;
+    protected String revenueRate;
+    protected String amount;
+    protected String remainingInvestment;
+    protected String reservedAmount;
+    protected String annuity;
+    protected String annuityWithInsurance;
+    protected String premium;
+    protected String zonkyPlusAmount;
+    @JsonbTransient
+    private Ratio decodedInterestRate;
+    @JsonbTransient
+    private Ratio decodedRevenueRate;
+    @JsonbTransient
+    private Money decodedAmount;
+    @JsonbTransient
+    private Money decodedRemainingInvestment;
+    @JsonbTransient
+    private Money decodedReservedAmount;
+    @JsonbTransient
+    private Money decodedAnnuity;
+    @JsonbTransient
+    private Money decodedAnnuityWithInsurance;
+    @JsonbTransient
+    private Money decodedPremium;
+    @JsonbTransient
+    private Money decodedZonkyPlusAmount;
 
     @Override
     public MainIncomeType getMainIncomeType() {
@@ -131,11 +153,15 @@ public abstract class BaseLoanImpl implements BaseLoan {
 
     @Override
     public Ratio getInterestRate() {
-        return interestRate;
+        if (decodedInterestRate == null) {
+            decodedInterestRate = RawValues.toRatio(interestRate);
+        }
+        return decodedInterestRate;
     }
 
     public void setInterestRate(final Ratio interestRate) {
-        this.interestRate = interestRate;
+        this.decodedInterestRate = interestRate;
+        this.interestRate = null;
     }
 
     @Override
@@ -149,11 +175,15 @@ public abstract class BaseLoanImpl implements BaseLoan {
 
     @Override
     public Optional<Ratio> getRevenueRate() {
-        return Optional.ofNullable(revenueRate);
+        if (decodedRevenueRate == null) {
+            decodedRevenueRate = RawValues.toRatio(revenueRate);
+        }
+        return Optional.ofNullable(decodedRevenueRate);
     }
 
     public void setRevenueRate(final Ratio revenueRate) {
-        this.revenueRate = revenueRate;
+        this.decodedRevenueRate = revenueRate;
+        this.revenueRate = null;
     }
 
     @Override
@@ -176,93 +206,121 @@ public abstract class BaseLoanImpl implements BaseLoan {
 
     @Override
     public Money getAmount() {
-        return amount;
+        if (decodedAmount == null) {
+            decodedAmount = RawValues.toMoney(amount);
+        }
+        return decodedAmount;
     }
 
     public void setAmount(final Money amount) {
-        this.amount = amount;
+        this.decodedAmount = amount;
+        this.amount = null;
     }
 
     @Override
     public Money getRemainingInvestment() {
-        return remainingInvestment;
+        if (decodedRemainingInvestment == null) {
+            decodedRemainingInvestment = RawValues.toMoney(remainingInvestment);
+        }
+        return decodedRemainingInvestment;
     }
 
     public void setRemainingInvestment(final Money remainingInvestment) {
-        this.remainingInvestment = remainingInvestment;
+        this.decodedRemainingInvestment = remainingInvestment;
+        this.remainingInvestment = null;
     }
 
     @Override
     public Money getNonReservedRemainingInvestment() {
-        return getRemainingInvestment().subtract(reservedAmount);
+        return getRemainingInvestment().subtract(getReservedAmount());
     }
 
     @Override
     public Money getReservedAmount() {
-        return reservedAmount;
+        if (decodedReservedAmount == null) {
+            decodedReservedAmount = RawValues.toMoney(reservedAmount);
+        }
+        return decodedReservedAmount;
     }
 
     public void setReservedAmount(final Money reservedAmount) {
-        this.reservedAmount = reservedAmount;
+        this.decodedReservedAmount = reservedAmount;
+        this.reservedAmount = null;
     }
 
     @Override
     public Money getZonkyPlusAmount() {
-        return zonkyPlusAmount;
+        if (decodedZonkyPlusAmount == null) {
+            decodedZonkyPlusAmount = RawValues.toMoney(zonkyPlusAmount);
+        }
+        return decodedZonkyPlusAmount;
     }
 
     public void setZonkyPlusAmount(final Money zonkyPlusAmount) {
-        this.zonkyPlusAmount = zonkyPlusAmount;
+        this.decodedZonkyPlusAmount = zonkyPlusAmount;
+        this.zonkyPlusAmount = null;
     }
 
     @Override
     public Money getAnnuity() {
-        return annuity;
+        if (decodedAnnuity == null) {
+            decodedAnnuity = RawValues.toMoney(annuity);
+        }
+        return decodedAnnuity;
     }
 
     public void setAnnuity(final Money annuity) {
-        this.annuity = annuity;
+        this.decodedAnnuity = annuity;
+        this.annuity = null;
     }
 
     @Override
     public Money getPremium() {
-        return premium;
+        if (decodedPremium == null) {
+            decodedPremium = RawValues.toMoney(premium);
+        }
+        return decodedPremium;
     }
 
     public void setPremium(final Money premium) {
-        this.premium = premium;
+        this.decodedPremium = premium;
+        this.premium = null;
     }
 
     @Override
     public Money getAnnuityWithInsurance() {
-        return annuityWithInsurance;
+        if (decodedAnnuityWithInsurance == null) {
+            decodedAnnuityWithInsurance = RawValues.toMoney(annuityWithInsurance);
+        }
+        return decodedAnnuityWithInsurance;
     }
 
     public void setAnnuityWithInsurance(final Money annuityWithInsurance) {
-        this.annuityWithInsurance = annuityWithInsurance;
+        this.decodedAnnuityWithInsurance = annuityWithInsurance;
+        this.annuityWithInsurance = null;
     }
 
     @Override
     public String toString() {
         return new StringJoiner(", ", BaseLoanImpl.class.getSimpleName() + "[", "]")
             .add("id=" + id)
-            .add("amount='" + amount + "'")
-            .add("annuity='" + annuity + "'")
-            .add("annuityWithInsurance='" + annuityWithInsurance + "'")
+            .add("amount='" + getAmount() + "'")
+            .add("annuity='" + getAnnuity() + "'")
+            .add("annuityWithInsurance='" + getAnnuityWithInsurance() + "'")
             .add("datePublished='" + DateUtil.toString(getDatePublished()) + "'")
             .add("insuranceActive=" + insuranceActive)
-            .add("interestRate=" + interestRate)
+            .add("interestRate=" + getInterestRate())
             .add("mainIncomeType=" + mainIncomeType)
             .add("mainIncomeIndustry=" + mainIncomeIndustry)
             .add("name='" + name + "'")
-            .add("premium='" + premium + "'")
+            .add("premium='" + getPremium() + "'")
             .add("purpose=" + purpose)
             .add("region=" + region)
-            .add("remainingInvestment='" + remainingInvestment + "'")
-            .add("reservedAmount='" + reservedAmount + "'")
-            .add("revenueRate=" + revenueRate)
+            .add("remainingInvestment='" + getRemainingInvestment() + "'")
+            .add("reservedAmount='" + getReservedAmount() + "'")
+            .add("revenueRate=" + getRevenueRate().orElse(null))
             .add("termInMonths=" + termInMonths)
-            .add("zonkyPlusAmount='" + zonkyPlusAmount + "'")
+            .add("zonkyPlusAmount='" + getZonkyPlusAmount() + "'")
             .toString();
     }
 }
@@ -20,10 +20,13 @@ import java.util.Optional;
 import java.util.StringJoiner;
 
 import javax.json.bind.annotation.JsonbProperty;
+import javax.json.bind.annotation.JsonbVisibility;
 
 import com.github.robozonky.api.remote.entities.Loan;
 import com.github.robozonky.api.remote.entities.LoanInvestmentData;
+import com.github.robozonky.internal.util.json.FieldVisibilityStrategy;
 
+@JsonbVisibility(FieldVisibilityStrategy.class)
 public class LoanImpl extends BaseLoanImpl implements Loan {
 
     protected String url;
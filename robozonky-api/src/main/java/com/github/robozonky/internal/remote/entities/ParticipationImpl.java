@@ -18,6 +18,9 @@ package com.github.robozonky.internal.remote.entities;
 
 import java.util.StringJoiner;
 
+import javax.json.bind.annotation.JsonbTransient;
+import javax.json.bind.annotation.JsonbVisibility;
+
 import com.github.robozonky.api.Money;
 import com.github.robozonky.api.Ratio;
 import com.github.robozonky.api.remote.entities.Loan;
@@ -26,7 +29,9 @@ import com.github.robozonky.api.remote.enums.LoanHealth;
 import com.github.robozonky.api.remote.enums.MainIncomeIndustry;
 import com.github.robozonky.api.remote.enums.MainIncomeType;
 import com.github.robozonky.api.remote.enums.Purpose;
+import com.github.robozonky.internal.util.json.FieldVisibilityStrategy;
 
+@JsonbVisibility(FieldVisibilityStrategy.class)
 public class ParticipationImpl implements Participation {
 
     protected int loanId;
@@ -36,16 +41,25 @@ public class ParticipationImpl implements Participation {
     protected long investmentId;
     protected MainIncomeType incomeType;
     protected MainIncomeIndustry mainIncomeIndustry;
-    protected Ratio interestRate;
     protected LoanHealth loanHealthInfo;
     protected String loanName;
     protected Purpose purpose;
     protected boolean willExceedLoanInvestmentLimit;
     protected boolean insuranceActive;
 
-    protected Money remainingPrincipal;
-    protected Ratio discount;
-    protected Money price;
+    // Participations are on the hot path. Raw values come from JSON, decoded ones are cached on first access.
+    protected String interestRate;
+    protected String remainingPrincipal;
+    protected String discount;
+    protected String price;
+    @JsonbTransient
+    private Ratio decodedInterestRate;
+    @JsonbTransient
+    private Money decodedRemainingPrincipal;
+    @JsonbTransient
+    private Ratio decodedDiscount;
+    @JsonbTransient
+    private Money decodedPrice;
 
     public ParticipationImpl() {
         // For JSON-B.
@@ -54,12 +68,12 @@ public class ParticipationImpl implements Participation {
     public ParticipationImpl(final Loan loan, final Money remainingPrincipal, final int remainingInstalmentCount) {
         this.loanId = loan.getId();
         this.incomeType = loan.getMainIncomeType();
-        this.interestRate = loan.getInterestRate();
+        this.decodedInterestRate = loan.getInterestRate();
         this.loanName = loan.getName();
         this.originalInstalmentCount = loan.getTermInMonths();
         this.purpose = loan.getPurpose();
         this.insuranceActive = loan.isInsuranceActive();
-        this.remainingPrincipal = remainingPrincipal;
+        this.decodedRemainingPrincipal = remainingPrincipal;
         this.remainingInstalmentCount = remainingInstalmentCount;
     }
 
@@ -124,11 +138,15 @@ public class ParticipationImpl implements Participation {
 
     @Override
     public Ratio getInterestRate() {
-        return interestRate;
+        if (decodedInterestRate == null) {
+            decodedInterestRate = RawValues.toRatio(interestRate);
+        }
+        return decodedInterestRate;
     }
 
     public void setInterestRate(final Ratio interestRate) {
-        this.interestRate = interestRate;
+        this.decodedInterestRate = interestRate;
+        this.interestRate = null;
     }
 
     @Override
@@ -178,29 +196,41 @@ public class ParticipationImpl implements Participation {
 
     @Override
     public Money getRemainingPrincipal() {
-        return remainingPrincipal;
+        if (decodedRemainingPrincipal == null) {
+            decodedRemainingPrincipal = RawValues.toMoney(remainingPrincipal);
+        }
+        return decodedRemainingPrincipal;
     }
 
     public void setRemainingPrincipal(final Money remainingPrincipal) {
-        this.remainingPrincipal = remainingPrincipal;
+        this.decodedRemainingPrincipal = remainingPrincipal;
+        this.remainingPrincipal = null;
     }
 
     @Override
     public Ratio getDiscount() {
-        return discount;
+        if (decodedDiscount == null) {
+            decodedDiscount = RawValues.toRatio(discount);
+        }
+        return decodedDiscount;
     }
 
     public void setDiscount(final Ratio discount) {
-        this.discount = discount;
+        this.decodedDiscount = discount;
+        this.discount = null;
     }
 
     @Override
     public Money getPrice() {
-        return price;
+        if (decodedPrice == null) {
+            decodedPrice = RawValues.toMoney(price);
+        }
+        return decodedPrice;
     }
 
     public void setPrice(final Money price) {
-        this.price = price;
+        this.decodedPrice = price;
+        this.price = null;
     }
 
     @Override
@@ -208,19 +238,19 @@ public class ParticipationImpl implements Participation {
         return new StringJoiner(", ", ParticipationImpl.class.getSimpleName() + "[", "]")
             .add("id=" + id)
             .add("loanId=" + loanId)
-            .add("discount='" + discount + "'")
+            .add("discount='" + getDiscount() + "'")
             .add("incomeType=" + incomeType)
             .add("mainIncomeIndustry=" + mainIncomeIndustry)
             .add("insuranceActive=" + insuranceActive)
-            .add("interestRate=" + interestRate)
+            .add("interestRate=" + getInterestRate())
             .add("investmentId=" + investmentId)
             .add("loanHealthInfo=" + loanHealthInfo)
             .add("loanName='" + loanName + "'")
             .add("originalInstalmentCount=" + originalInstalmentCount)
-            .add("price='" + price + "'")
+            .add("price='" + getPrice() + "'")
             .add("purpose=" + purpose)
             .add("remainingInstalmentCount=" + remainingInstalmentCount)
-            .add("remainingPrincipal='" + remainingPrincipal + "'")
+            .add("remainingPrincipal='" + getRemainingPrincipal() + "'")
             .add("willExceedLoanInvestmentLimit=" + willExceedLoanInvestmentLimit)
             .toString();
     }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote.entities;
+
+import com.github.robozonky.api.Money;
+import com.github.robozonky.api.Ratio;
+import com.github.robozonky.internal.util.json.MoneyAdapter;
+import com.github.robozonky.internal.util.json.RatioAdapter;
+
+/**
+ * Decodes raw JSON values which entities on the hot path keep undecoded until they are first requested. Uses the same
+ * adapters that JSON-B would have used, had the values been decoded eagerly.
+ */
+final class RawValues {
+
+    private static final MoneyAdapter MONEY_ADAPTER = new MoneyAdapter();
+    private static final RatioAdapter RATIO_ADAPTER = new RatioAdapter();
+
+    private RawValues() {
+        // no instances
+    }
+
+    static Money toMoney(final String raw) {
+        return raw == null ? null : MONEY_ADAPTER.adaptFromJson(raw);
+    }
+
+    static Ratio toRatio(final String raw) {
+        return raw == null ? null : RATIO_ADAPTER.adaptFromJson(raw);
+    }
+}
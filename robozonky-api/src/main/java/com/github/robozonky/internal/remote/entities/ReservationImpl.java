@@ -18,9 +18,13 @@ package com.github.robozonky.internal.remote.entities;
 
 import java.util.StringJoiner;
 
+import javax.json.bind.annotation.JsonbVisibility;
+
 import com.github.robozonky.api.remote.entities.MyReservation;
 import com.github.robozonky.api.remote.entities.Reservation;
+import com.github.robozonky.internal.util.json.FieldVisibilityStrategy;
 
+@JsonbVisibility(FieldVisibilityStrategy.class)
 public class ReservationImpl extends BaseLoanImpl implements Reservation {
 
     private MyReservationImpl myReservation;
@@ -25,7 +25,15 @@ import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.SecretKey;
@@ -38,20 +46,36 @@ import org.apache.logging.log4j.Logger;
 import com.github.robozonky.internal.util.FileUtil;
 
 /**
- * Simple abstraction for dealing with the overly complicated {@link KeyStore} API. Always call {@link #save()} to
- * persist changes made.
+ * Simple abstraction for dealing with the overly complicated {@link KeyStore} API. Always call {@link #save()} or
+ * {@link #requestSave()} to persist changes made.
+ * <p>
+ * Saving re-encrypts and rewrites the whole key store, which is deliberately expensive. With
+ * {@link #enableWriteBehind(Duration)}, {@link #requestSave()} only marks the key store for saving, and all the
+ * changes that arrive within the save window are then saved at once on a background thread. That thread is shared by
+ * all key stores, so that many of them being changed at the same time does not result in many of them being encrypted
+ * at the same time. Pending saves are written by {@link #flushAll()}, which is to be called on shutdown. From then
+ * on, {@link #requestSave()} saves immediately, so that changes made during shutdown, such as a refreshed token, are
+ * not lost.
  */
 public class KeyStoreHandler {
 
     private static final Logger LOGGER = LogManager.getLogger(KeyStoreHandler.class);
     private static final String KEYSTORE_TYPE = "JCEKS";
     private static final String KEY_TYPE = "PBE";
+    private static final Set<KeyStoreHandler> WRITE_BEHIND = ConcurrentHashMap.newKeySet();
+    private static final Executor SAVER = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "robozonky-keystore-save");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final AtomicBoolean dirty;
     private final File keyStoreFile;
     private final KeyStore keyStore;
     private final KeyStore.ProtectionParameter protectionParameter;
     private final SecretKeyFactory keyFactory;
     private char[] password;
+    private Duration saveWindow = Duration.ZERO;
+    private boolean savePending = false;
 
     /**
      * Create a new instance, where {@link #isDirty()} will be false.
@@ -149,7 +173,7 @@ public class KeyStoreHandler {
      * @param value The value to be stored.
      * @return True if stored in the key store.
      */
-    public boolean set(final String alias, final char... value) {
+    public synchronized boolean set(final String alias, final char... value) {
         try {
             var secret = this.keyFactory.generateSecret(new PBEKeySpec(value));
             var entry = new KeyStore.SecretKeyEntry(secret);
@@ -168,7 +192,7 @@ public class KeyStoreHandler {
      * @param alias The alias under which the key will be looked up.
      * @return Present if the alias is present in the key store.
      */
-    public Optional<char[]> get(final String alias) {
+    public synchronized Optional<char[]> get(final String alias) {
         try {
             var skEntry = (KeyStore.SecretKeyEntry) this.keyStore.getEntry(alias, this.protectionParameter);
             if (skEntry == null) {
@@ -188,7 +212,7 @@ public class KeyStoreHandler {
      * @param alias The alias to locate the entry.
      * @return True if there is now no entry with a given key.
      */
-    public boolean delete(final String alias) {
+    public synchronized boolean delete(final String alias) {
         try {
             this.keyStore.deleteEntry(alias);
             this.dirty.set(true);
@@ -202,7 +226,7 @@ public class KeyStoreHandler {
     /**
      * Whether or not there are unsaved changes.
      * 
-     * @return Whether a {@link #set(String, char[])} occurred after last {@link #save()}.
+     * @return Whether a {@link #set(String, char[])} or {@link #delete(String)} occurred after last {@link #save()}.
      */
     public boolean isDirty() {
         return this.dirty.get();
@@ -222,7 +246,7 @@ public class KeyStoreHandler {
      * 
      * @param secret Password to persist the changes with.
      */
-    public void save(final char... secret) {
+    public synchronized void save(final char... secret) {
         this.password = secret.clone();
         try (var outputStream = new BufferedOutputStream(new FileOutputStream(this.keyStoreFile))) {
             FileUtil.configurePermissions(this.keyStoreFile, false);
@@ -232,4 +256,67 @@ public class KeyStoreHandler {
             throw new IllegalStateException(ex);
         }
     }
+
+    /**
+     * Make {@link #requestSave()} save on the background, coalescing all the requests that arrive within the window.
+     *
+     * @param saveWindow Zero or negative to have {@link #requestSave()} save immediately, which is the default.
+     */
+    public synchronized void enableWriteBehind(final Duration saveWindow) {
+        this.saveWindow = saveWindow;
+        WRITE_BEHIND.add(this);
+    }
+
+    /**
+     * Persist the changes made so far, either immediately or, with {@link #enableWriteBehind(Duration)}, once the
+     * save window expires, together with all the other changes made within that window.
+     */
+    public synchronized void requestSave() {
+        if (saveWindow.isZero() || saveWindow.isNegative()) {
+            save();
+        } else if (!savePending) {
+            savePending = true;
+            CompletableFuture.runAsync(this::flush,
+                    CompletableFuture.delayedExecutor(saveWindow.toMillis(), TimeUnit.MILLISECONDS, SAVER))
+                .whenComplete((r, ex) -> {
+                    if (ex != null) {
+                        LOGGER.warn("Failed saving keystore {}.", keyStoreFile, ex);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Immediately persist changes requested through {@link #requestSave()}, if they have not been persisted yet.
+     */
+    public synchronized void flush() {
+        if (!savePending) {
+            return;
+        }
+        savePending = false;
+        if (isDirty()) {
+            LOGGER.trace("Saving keystore {}.", keyStoreFile);
+            save();
+        }
+    }
+
+    private synchronized void disableWriteBehind() {
+        saveWindow = Duration.ZERO;
+        WRITE_BEHIND.remove(this);
+        flush();
+    }
+
+    /**
+     * Immediately persist all pending changes of all key stores, and have every later {@link #requestSave()} save
+     * immediately. To be called when the application is shutting down.
+     */
+    public static void flushAll() {
+        new ArrayList<>(WRITE_BEHIND).forEach(ksh -> {
+            try {
+                ksh.disableWriteBehind();
+            } catch (final Exception ex) {
+                LOGGER.warn("Failed saving keystore {}.", ksh.keyStoreFile, ex);
+            }
+        });
+    }
 }
@@ -26,7 +26,7 @@ import com.github.robozonky.api.remote.entities.ZonkyApiToken;
 import com.github.robozonky.internal.remote.entities.ZonkyApiTokenImpl;
 
 /**
- * Every set*() operation must result in a {@link KeyStoreHandler#save()} call.
+ * Every set*() operation must result in a {@link KeyStoreHandler#requestSave()} call.
  */
 final class KeyStoreSecretProvider implements SecretProvider {
 
@@ -54,7 +54,7 @@ final class KeyStoreSecretProvider implements SecretProvider {
     private boolean set(final String alias, final Supplier<char[]> value) {
         try {
             var isSet = this.ksh.set(alias, value.get());
-            this.ksh.save();
+            this.ksh.requestSave();
             return isSet;
         } catch (final Exception ex) {
             LOGGER.warn("Failed saving keystore.", ex);
@@ -93,7 +93,7 @@ final class KeyStoreSecretProvider implements SecretProvider {
         try {
             if (apiToken == null) {
                 this.ksh.delete(ALIAS_TOKEN);
-                this.ksh.save();
+                this.ksh.requestSave();
                 return true;
             } else {
                 return this.set(ALIAS_TOKEN, () -> ZonkyApiTokenImpl.marshal(apiToken)
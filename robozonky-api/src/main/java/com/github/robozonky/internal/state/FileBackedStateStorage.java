@@ -20,11 +20,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Function;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.json.bind.Jsonb;
@@ -36,46 +39,114 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.Defaults;
 
+/**
+ * Every section is kept as a mutable map, changed in place under one of the section locks, so that changes to
+ * unrelated sections rarely contend and a batch of changes does not copy the section over and over. Readers get an
+ * immutable snapshot of the section, which is only taken on the first read after a change; until the next change,
+ * reads do not lock at all. Reading and writing the file is serialized separately.
+ * <p>
+ * Locks are always taken in the same order, so that they can not deadlock: the store lock first, then a section lock,
+ * then the file lock. Sections are therefore snapshotted before the file lock is taken, never while holding it.
+ */
 class FileBackedStateStorage implements StateStorage {
 
     private static final Logger LOGGER = LogManager.getLogger(FileBackedStateStorage.class);
+    /**
+     * Jsonb instances are thread-safe and expensive to create, therefore we share one across all the storages.
+     */
+    private static final Jsonb JSONB = JsonbBuilder.create(new JsonbConfig().withFormatting(true));
+    private static final int SECTION_LOCK_COUNT = 16;
 
-    private final JsonbConfig jsonbConfig = new JsonbConfig().withFormatting(true);
     private final File stateLocation;
-    private final AtomicReference<Map<String, Map<String, String>>> state = new AtomicReference<>();
+    private final AtomicReference<Map<String, Section>> state = new AtomicReference<>();
+    private final ReentrantLock[] sectionLocks = new ReentrantLock[SECTION_LOCK_COUNT];
+    private final Object fileLock = new Object();
+    private final Object storeLock = new Object();
 
     public FileBackedStateStorage(final File file) {
         this.stateLocation = file;
+        for (int i = 0; i < SECTION_LOCK_COUNT; i++) {
+            sectionLocks[i] = new ReentrantLock();
+        }
+    }
+
+    File getStateLocation() {
+        return stateLocation;
+    }
+
+    /**
+     *
+     * @return Lock held whenever the file is being read, written or deleted.
+     */
+    Object getFileLock() {
+        return fileLock;
+    }
+
+    /**
+     *
+     * @return Lock held while storing the state, so that an older snapshot never overwrites a newer one. Must be taken
+     *         before any other lock.
+     */
+    Object getStoreLock() {
+        return storeLock;
     }
 
-    private <T> T applyJsonb(Function<Jsonb, T> operation) throws Exception {
-        try (Jsonb jsonb = JsonbBuilder.create(jsonbConfig)) {
-            return operation.apply(jsonb);
+    /**
+     * Called whenever the state is read from the file, before anyone else can access it.
+     *
+     * @param state Freshly read state, may be modified in place.
+     */
+    void onRead(final Map<String, Map<String, String>> state) {
+        // no-op by default
+    }
+
+    void destroy() {
+        synchronized (storeLock) {
+            synchronized (fileLock) {
+                try {
+                    Files.deleteIfExists(stateLocation.toPath());
+                    LOGGER.debug("State destroyed.");
+                } catch (final IOException ex) {
+                    LOGGER.debug("Failed deleting state file.", ex);
+                } finally {
+                    state.set(null);
+                }
+            }
         }
     }
 
-    synchronized void destroy() {
-        try {
-            Files.deleteIfExists(stateLocation.toPath());
-            LOGGER.debug("State destroyed.");
-        } catch (final IOException ex) {
-            LOGGER.debug("Failed deleting state file.", ex);
-        } finally {
-            state.set(null);
+    private static Map<String, Section> publish(final Map<String, Map<String, String>> read) {
+        final Map<String, Section> result = new ConcurrentHashMap<>(Math.max(1, read.size()));
+        read.forEach((section, values) -> result.put(section, new Section(values)));
+        return result;
+    }
+
+    private Map<String, Section> getState() {
+        final Map<String, Section> current = state.get();
+        if (current != null) { // Fast path, no locking once the state was read.
+            return current;
+        }
+        synchronized (fileLock) {
+            return readState();
         }
     }
 
-    private synchronized Map<String, Map<String, String>> getState() {
+    private Map<String, Section> readState() {
         if (state.get() == null) {
             if (!stateLocation.exists()) {
-                state.set(new ConcurrentHashMap<>(0));
+                final Map<String, Map<String, String>> empty = new HashMap<>(0);
+                onRead(empty);
+                state.set(publish(empty));
                 return state.get();
             }
             try {
                 LOGGER.trace("Reading state: '{}'.", stateLocation.getAbsolutePath());
-                String json = new String(Files.readAllBytes(stateLocation.toPath()));
-                Map<String, Map<String, String>> deserialized = applyJsonb(jsonb -> jsonb.fromJson(json, Map.class));
-                state.set(new ConcurrentHashMap<>(deserialized));
+                String json = new String(Files.readAllBytes(stateLocation.toPath()), Defaults.CHARSET);
+                Map<String, Map<String, String>> deserialized = JSONB.fromJson(json, Map.class);
+                final Map<String, Map<String, String>> read = new HashMap<>(deserialized.size());
+                deserialized.forEach((section, values) -> read.put(section, new HashMap<>(values)));
+                onRead(read);
+                state.set(publish(read));
             } catch (final Exception ex) {
                 Path oldStateLocation = stateLocation.toPath();
                 Path corruptedStateLocation = Path.of(oldStateLocation.toAbsolutePath() + ".corrupted");
@@ -84,7 +155,7 @@ class FileBackedStateStorage implements StateStorage {
                     Files.move(oldStateLocation, corruptedStateLocation);
                     LOGGER.warn("Using clean state, old state moved to {}.",
                             corruptedStateLocation.toAbsolutePath());
-                    return getState();
+                    return readState();
                 } catch (final IOException ex2) {
                     throw new IllegalStateException(
                             "State file corrupted and could not be fixed: " + oldStateLocation.toAbsolutePath(), ex2);
@@ -94,37 +165,79 @@ class FileBackedStateStorage implements StateStorage {
         return state.get();
     }
 
-    private boolean containskey(final String section, final String key) {
-        final boolean hasSection = getState()
-            .containsKey(section);
-        return hasSection && getState().get(section)
-            .containsKey(key);
+    private ReentrantLock getSectionLock(final String section) {
+        return sectionLocks[Math.floorMod(section.hashCode(), SECTION_LOCK_COUNT)];
+    }
+
+    /**
+     * Perform a modification of a section, so that no other thread may modify the same section at the same time.
+     * Changes to other sections may happen in parallel. Reads are not blocked at all.
+     *
+     * @param section      Section to lock.
+     * @param modification Modification to perform while holding the lock.
+     */
+    @Override
+    public void modify(final String section, final Runnable modification) {
+        final ReentrantLock lock = getSectionLock(section);
+        lock.lock();
+        try {
+            modification.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, String> getValues(final String section) {
+        final Section values = getState().get(section);
+        if (values == null) {
+            return null;
+        }
+        final Map<String, String> snapshot = values.snapshot;
+        if (snapshot != null) { // Fast path, no locking until the section changes.
+            return snapshot;
+        }
+        final ReentrantLock lock = getSectionLock(section);
+        lock.lock();
+        try {
+            return values.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void modifyValues(final String section, final Consumer<Map<String, String>> modification) {
+        modify(section, () -> {
+            final Section values = getState().computeIfAbsent(section, s -> new Section(Map.of()));
+            modification.accept(values.values);
+            values.snapshot = null;
+        });
     }
 
     @Override
     public Optional<String> getValue(final String section, final String key) {
-        if (this.containskey(section, key)) {
-            final String value = getState().get(section)
-                .get(key)
-                .trim();
-            if (value.length() == 0) {
-                return Optional.empty();
-            }
-            return Optional.of(value);
-        } else {
+        final Map<String, String> values = getValues(section);
+        if (values == null) {
+            return Optional.empty();
+        }
+        final String value = values.get(key);
+        if (value == null) {
+            return Optional.empty();
+        }
+        final String trimmed = value.trim();
+        if (trimmed.length() == 0) {
             return Optional.empty();
         }
+        return Optional.of(trimmed);
     }
 
     @Override
     public Stream<String> getKeys(final String section) {
-        var internalState = getState();
-        if (internalState.containsKey(section)) {
-            return internalState.get(section)
-                .keySet()
-                .stream();
-        } else {
+        final Map<String, String> values = getValues(section);
+        if (values == null) {
             return Stream.empty();
+        } else {
+            return values.keySet()
+                .stream();
         }
     }
 
@@ -137,37 +250,94 @@ class FileBackedStateStorage implements StateStorage {
     @Override
     public void setValue(final String section, final String key, final String value) {
         LOGGER.trace("Setting '{}' in '{}' to '{}'.", key, section, value);
-        getState().computeIfAbsent(section, __ -> new ConcurrentHashMap<>(1))
-            .put(key, value);
+        modifyValues(section, values -> values.put(key, value));
     }
 
     @Override
     public void unsetValue(final String section, final String key) {
-        if (this.containskey(section, key)) {
-            LOGGER.trace("Unsetting '{}' in '{}'.", key, section);
-            getState().get(section)
-                .remove(key);
-        } else {
-            LOGGER.trace("Unsetting non-existent '{}' in '{}'.", key, section);
-        }
+        modify(section, () -> {
+            final Section values = getState().get(section);
+            if (values != null && values.values.containsKey(key)) {
+                LOGGER.trace("Unsetting '{}' in '{}'.", key, section);
+                modifyValues(section, v -> v.remove(key));
+            } else {
+                LOGGER.trace("Unsetting non-existent '{}' in '{}'.", key, section);
+            }
+        });
     }
 
     @Override
     public void unsetValues(final String section) {
         LOGGER.trace("Unsetting values in '{}'.", section);
-        getState().remove(section);
+        modify(section, () -> getState().remove(section));
+    }
+
+    /**
+     * Snapshot the entire state. Each section is snapshotted under its lock, therefore each of them is consistent, but
+     * changes to other sections may be happening in parallel. Must not be called while holding the file lock.
+     *
+     * @return Snapshot of all the sections.
+     */
+    Map<String, Map<String, String>> snapshot() {
+        final Map<String, Map<String, String>> snapshot = new HashMap<>();
+        getState().keySet()
+            .forEach(section -> {
+                final Map<String, String> values = getValues(section);
+                if (values != null) { // May have been removed in the meantime.
+                    snapshot.put(section, values);
+                }
+            });
+        return snapshot;
+    }
+
+    /**
+     * Write a snapshot of the state into a given file.
+     *
+     * @param snapshot Result of {@link #snapshot()}.
+     * @param target   File to write to.
+     * @throws IOException When the file could not be written.
+     */
+    void write(final Map<String, Map<String, String>> snapshot, final Path target) throws IOException {
+        final String json = JSONB.toJson(snapshot);
+        synchronized (fileLock) {
+            Files.write(target, json.getBytes(Defaults.CHARSET));
+        }
     }
 
     @Override
-    public synchronized boolean store() {
-        try {
-            String json = applyJsonb(jsonb -> jsonb.toJson(this.getState()));
-            Files.write(stateLocation.toPath(), json.getBytes(Defaults.CHARSET));
-            LOGGER.debug("Stored state: '{}'.", stateLocation.getAbsolutePath());
-            return true;
-        } catch (final Exception e) {
-            LOGGER.warn("Failed storing state.", e);
-            return false;
+    public boolean store() {
+        synchronized (storeLock) {
+            try {
+                write(snapshot(), stateLocation.toPath());
+                LOGGER.debug("Stored state: '{}'.", stateLocation.getAbsolutePath());
+                return true;
+            } catch (final Exception e) {
+                LOGGER.warn("Failed storing state.", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Values of a section. {@link #values} may only be accessed while holding the section lock; {@link #snapshot} is
+     * an immutable copy of them, or null if the values changed since the copy was taken.
+     */
+    private static final class Section {
+
+        private final Map<String, String> values;
+        private volatile Map<String, String> snapshot;
+
+        Section(final Map<String, String> values) {
+            this.values = new HashMap<>(values);
+        }
+
+        Map<String, String> snapshot() {
+            Map<String, String> result = snapshot;
+            if (result == null) {
+                result = Collections.unmodifiableMap(new HashMap<>(values)); // Unlike Map.copyOf(), allows nulls.
+                snapshot = result;
+            }
+            return result;
         }
     }
 }
@@ -51,6 +51,12 @@ public interface InstanceState<T> extends StateReader {
         });
     }
 
+    /**
+     * Block until all the updates made so far are written to the underlying storage. Updates are otherwise stored in
+     * batches, some time after they were made, so that a burst of updates only results in a single write.
+     */
+    void flush();
+
     default boolean isInitialized() {
         return getLastUpdated().isPresent();
     }
@@ -34,9 +34,8 @@ final class InstanceStateImpl<T> implements InstanceState<T> {
     }
 
     private void execute(final StateModifierImpl<T> modifier) {
-        synchronized (parent) {
-            modifier.run();
-        }
+        current.modify(sectionName, modifier); // Only one modification of a section at a time.
+        parent.requestStore(); // Outside of the lock, as storing may be waiting for the lock in another thread.
     }
 
     private void execute(final Consumer<StateModifier<T>> modifier, final boolean fresh) {
@@ -55,6 +54,11 @@ final class InstanceStateImpl<T> implements InstanceState<T> {
         execute(modifier, true);
     }
 
+    @Override
+    public void flush() {
+        parent.flush();
+    }
+
     String getSectionName() {
         return sectionName;
     }
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+/**
+ * Keeps the state file as a snapshot and only appends the changes to a journal next to it. Every {@link #store()}
+ * appends all the changes made since the previous call in one write, followed by a single fsync. Once the journal
+ * grows over a threshold, it is compacted into a new snapshot.
+ * <p>
+ * Every journal record is a length, a CRC32 checksum and a binary payload. When the state is read, the journal is
+ * replayed on top of the snapshot, up to the first incomplete or corrupted record; that one and everything after it
+ * are the result of a crash while writing and are discarded. Replaying the journal is idempotent, therefore a crash
+ * between writing a new snapshot and truncating the journal is harmless.
+ */
+final class JournaledStateStorage extends FileBackedStateStorage {
+
+    private static final Logger LOGGER = LogManager.getLogger(JournaledStateStorage.class);
+    static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+    private static final byte SET_VALUE = 1;
+    private static final byte UNSET_VALUE = 2;
+    private static final byte UNSET_VALUES = 3;
+
+    private final Path journalLocation;
+    private final long compactionThreshold;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel journal;
+
+    public JournaledStateStorage(final File file) {
+        this(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    JournaledStateStorage(final File file, final long compactionThreshold) {
+        super(file);
+        this.journalLocation = Path.of(file.getAbsolutePath() + ".journal");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    Path getJournalLocation() {
+        return journalLocation;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(Defaults.CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, Defaults.CHARSET);
+    }
+
+    private static long checksum(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private void record(final byte operation, final String section, final String key, final String value) {
+        try {
+            final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            try (DataOutputStream payload = new DataOutputStream(payloadBytes)) {
+                payload.writeByte(operation);
+                writeString(payload, section);
+                if (operation != UNSET_VALUES) {
+                    writeString(payload, key);
+                }
+                if (operation == SET_VALUE) {
+                    writeString(payload, value);
+                }
+            }
+            final byte[] bytes = payloadBytes.toByteArray();
+            synchronized (pending) {
+                final DataOutputStream out = new DataOutputStream(pending);
+                out.writeInt(bytes.length);
+                out.writeInt((int) checksum(bytes));
+                out.write(bytes);
+            }
+        } catch (final IOException ex) { // Never happens with in-memory streams.
+            throw new IllegalStateException("Failed recording state change.", ex);
+        }
+    }
+
+    /**
+     * Replays the journal on top of the freshly read snapshot.
+     *
+     * @param state Snapshot to apply the journal to.
+     */
+    @Override
+    void onRead(final Map<String, Map<String, String>> state) {
+        if (!Files.exists(journalLocation)) {
+            return;
+        }
+        long journalSize;
+        try {
+            journalSize = Files.size(journalLocation);
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed reading state journal, ignoring it.", ex);
+            return;
+        }
+        long validLength = 0;
+        int recordCount = 0;
+        try (InputStream stream = Files.newInputStream(journalLocation);
+                DataInputStream in = new DataInputStream(stream)) {
+            while (true) {
+                final int length = in.readInt();
+                final int expectedChecksum = in.readInt();
+                if (length < 0 || validLength + Integer.BYTES * 2 + length > journalSize) {
+                    break;
+                }
+                final byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                if ((int) checksum(bytes) != expectedChecksum) {
+                    break;
+                }
+                replay(state, bytes);
+                validLength += Integer.BYTES * 2 + length;
+                recordCount++;
+            }
+        } catch (final EOFException ex) {
+            // End of the journal or an incomplete record at its end.
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed reading state journal, ignoring the rest of it.", ex);
+        }
+        LOGGER.debug("Replayed {} state journal records.", recordCount);
+        try (FileChannel channel = FileChannel.open(journalLocation, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) {
+                LOGGER.info("Discarding {} bytes of incomplete state journal.", channel.size() - validLength);
+                channel.truncate(validLength);
+            }
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed discarding incomplete state journal.", ex);
+        }
+    }
+
+    private static void replay(final Map<String, Map<String, String>> state, final byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            final byte operation = in.readByte();
+            final String section = readString(in);
+            switch (operation) {
+                case SET_VALUE:
+                    final String key = readString(in);
+                    state.computeIfAbsent(section, __ -> new ConcurrentHashMap<>(1))
+                        .put(key, readString(in));
+                    break;
+                case UNSET_VALUE:
+                    final String removedKey = readString(in);
+                    final Map<String, String> values = state.get(section);
+                    if (values != null) {
+                        values.remove(removedKey);
+                    }
+                    break;
+                case UNSET_VALUES:
+                    state.remove(section);
+                    break;
+                default:
+                    throw new IOException("Unknown state journal operation: " + operation);
+            }
+        }
+    }
+
+    /*
+     * Changes are recorded while still holding the section lock, so that the journal has them in the same order as the
+     * memory. Order of changes to different sections does not matter.
+     */
+
+    @Override
+    public void setValue(final String section, final String key, final String value) {
+        modify(section, () -> {
+            super.setValue(section, key, value);
+            record(SET_VALUE, section, key, value);
+        });
+    }
+
+    @Override
+    public void unsetValue(final String section, final String key) {
+        modify(section, () -> {
+            super.unsetValue(section, key);
+            record(UNSET_VALUE, section, key, null);
+        });
+    }
+
+    @Override
+    public void unsetValues(final String section) {
+        modify(section, () -> {
+            super.unsetValues(section);
+            record(UNSET_VALUES, section, null, null);
+        });
+    }
+
+    private FileChannel getJournal() throws IOException {
+        if (journal == null || !journal.isOpen()) {
+            journal = FileChannel.open(journalLocation, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (final IOException ex) {
+            LOGGER.debug("Failed closing state journal.", ex);
+        } finally {
+            journal = null;
+        }
+    }
+
+    /**
+     * Write a fresh snapshot of the entire state and empty the journal.
+     *
+     * @return True if successful.
+     */
+    boolean compact() {
+        synchronized (getStoreLock()) {
+            return compactLocked();
+        }
+    }
+
+    private boolean compactLocked() {
+        final Path snapshot = getStateLocation().toPath();
+        final Path temporary = Path.of(snapshot.toAbsolutePath() + ".tmp");
+        try {
+            final Map<String, Map<String, String>> state = snapshot(); // Before the file lock, see the parent class.
+            synchronized (getFileLock()) {
+                write(state, temporary);
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                getJournal().truncate(0)
+                    .force(true);
+            }
+            LOGGER.debug("Compacted state into '{}'.", snapshot.toAbsolutePath());
+            return true;
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed compacting state, will keep using the journal.", ex);
+            return false;
+        }
+    }
+
+    private byte[] takePending() {
+        synchronized (pending) {
+            final byte[] result = pending.toByteArray();
+            pending.reset();
+            return result;
+        }
+    }
+
+    private void returnPending(final byte[] records) {
+        synchronized (pending) { // Put the records back in front of whatever arrived in the meantime.
+            final byte[] newer = pending.toByteArray();
+            pending.reset();
+            pending.writeBytes(records);
+            pending.writeBytes(newer);
+        }
+    }
+
+    @Override
+    public boolean store() {
+        synchronized (getStoreLock()) {
+            final boolean compact;
+            synchronized (getFileLock()) {
+                if (!append()) {
+                    return false;
+                }
+                compact = isOverThreshold();
+            }
+            if (compact) { // Outside of the file lock, as compaction needs to snapshot the sections first.
+                compactLocked();
+            }
+            return true;
+        }
+    }
+
+    private boolean isOverThreshold() {
+        try {
+            return journal != null && journal.size() > compactionThreshold;
+        } catch (final IOException ex) {
+            LOGGER.debug("Failed checking state journal size.", ex);
+            return false;
+        }
+    }
+
+    private boolean append() {
+        final byte[] records = takePending();
+        if (records.length == 0) {
+            return true;
+        }
+        long originalSize = -1;
+        try {
+            final FileChannel channel = getJournal();
+            originalSize = channel.size();
+            final ByteBuffer buffer = ByteBuffer.wrap(records);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false); // One fsync for all the changes since the last store.
+            LOGGER.trace("Appended to state journal: '{}'.", journalLocation.toAbsolutePath());
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed storing state.", ex);
+            discardIncompleteWrite(originalSize);
+            returnPending(records);
+            return false;
+        }
+        return true;
+    }
+
+    private void discardIncompleteWrite(final long originalSize) {
+        if (originalSize < 0) {
+            return;
+        }
+        try {
+            journal.truncate(originalSize);
+        } catch (final Exception ex) {
+            LOGGER.debug("Failed discarding incomplete state journal write.", ex);
+            closeJournal();
+        }
+    }
+
+    @Override
+    void destroy() {
+        synchronized (getStoreLock()) {
+            synchronized (getFileLock()) {
+                closeJournal();
+                takePending();
+                try {
+                    Files.deleteIfExists(journalLocation);
+                } catch (final IOException ex) {
+                    LOGGER.debug("Failed deleting state journal.", ex);
+                }
+                super.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import com.github.robozonky.internal.util.LongSet;
+
+/**
+ * {@link LongSet} kept in an {@link InstanceState}, where persisting a change only writes the values that changed.
+ * The set is kept under its key as a base, and every {@link #persist()} adds another key with just the changes since
+ * the previous one; added values are written as positive, removed ones as negative. Once there are too many of those
+ * deltas, they are compacted into a new base. Except for the occasional compaction, the cost of persisting is
+ * therefore proportional to the change and not to the size of the set.
+ * <p>
+ * Only positive values are supported. Not thread-safe.
+ */
+public final class PersistentLongSet {
+
+    static final int MAX_DELTAS = 64;
+
+    private final InstanceState<?> state;
+    private final String key;
+    private final LongSet contents;
+    private final LongSet added = new LongSet();
+    private final LongSet removed = new LongSet();
+    private boolean hasBase;
+    private int deltaCount = 0;
+
+    /**
+     * Read the set from the state.
+     *
+     * @param state Where the set is kept.
+     * @param key   Different instances with the same key operate on the same underlying storage.
+     */
+    public PersistentLongSet(final InstanceState<?> state, final String key) {
+        this.state = state;
+        this.key = key;
+        final Optional<String> base = state.getValue(key);
+        this.hasBase = base.isPresent();
+        this.contents = base.map(LongSet::decode)
+            .orElseGet(LongSet::new);
+        while (true) {
+            final Optional<String> delta = state.getValue(getDeltaKey(deltaCount + 1));
+            if (delta.isEmpty()) {
+                break;
+            }
+            deltaCount++;
+            LongSet.decode(delta.get())
+                .stream()
+                .forEach(value -> {
+                    if (value > 0) {
+                        contents.add(value);
+                    } else {
+                        contents.remove(-value);
+                    }
+                });
+        }
+    }
+
+    private String getDeltaKey(final int number) {
+        return key + "." + number;
+    }
+
+    /**
+     *
+     * @param value Value to add, will only be stored on {@link #persist()}.
+     * @return True if the value was not present before.
+     */
+    public boolean add(final long value) {
+        if (!contents.add(value)) {
+            return false;
+        }
+        if (!removed.remove(value)) {
+            added.add(value);
+        }
+        return true;
+    }
+
+    /**
+     *
+     * @param value Value to remove, will only be stored on {@link #persist()}.
+     * @return True if the value was present before.
+     */
+    public boolean remove(final long value) {
+        if (!contents.remove(value)) {
+            return false;
+        }
+        if (!added.remove(value)) {
+            removed.add(value);
+        }
+        return true;
+    }
+
+    public boolean contains(final long value) {
+        return contents.contains(value);
+    }
+
+    public boolean isEmpty() {
+        return contents.isEmpty();
+    }
+
+    /**
+     *
+     * @return Ascending stream of a snapshot of the values; later changes to the set are not reflected.
+     */
+    public LongStream stream() {
+        return contents.stream();
+    }
+
+    public long[] toArray() {
+        return contents.toArray();
+    }
+
+    /**
+     * Store the changes made since the previous call.
+     */
+    public void persist() {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        } else if (!hasBase || deltaCount >= MAX_DELTAS) {
+            compact();
+        } else {
+            final String delta = LongSet.of(LongStream.concat(added.stream(), removed.stream()
+                .map(value -> -value)))
+                .encode();
+            final String deltaKey = getDeltaKey(++deltaCount);
+            state.update(m -> m.put(deltaKey, delta));
+        }
+        added.clear();
+        removed.clear();
+    }
+
+    private void compact() {
+        final String base = contents.isEmpty() ? null : contents.encode();
+        final int obsoleteDeltaCount = deltaCount;
+        state.update(m -> {
+            if (base == null) {
+                m.remove(key);
+            } else {
+                m.put(key, base);
+            }
+            for (int i = 1; i <= obsoleteDeltaCount; i++) {
+                m.remove(getDeltaKey(i));
+            }
+        });
+        hasBase = base != null;
+        deltaCount = 0;
+    }
+
+    /**
+     * Remove all the values and store that immediately.
+     */
+    public void clear() {
+        contents.clear();
+        added.clear();
+        removed.clear();
+        compact();
+    }
+
+    @Override
+    public String toString() {
+        return contents.toString();
+    }
+}
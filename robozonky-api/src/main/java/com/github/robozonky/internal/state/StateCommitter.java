@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Coalesces all the updates to a {@link FileBackedStateStorage} that arrive within a commit window into a single
+ * {@link StateStorage#store()}. A burst of updates therefore only results in a single write. There is one instance
+ * per state file, shared by all the {@link TenantState}s which use that file.
+ */
+final class StateCommitter {
+
+    private static final Logger LOGGER = LogManager.getLogger(StateCommitter.class);
+
+    private final FileBackedStateStorage storage;
+    private final Duration commitWindow;
+    private boolean storePending = false;
+
+    public StateCommitter(final FileBackedStateStorage storage, final Duration commitWindow) {
+        this.storage = storage;
+        this.commitWindow = commitWindow;
+    }
+
+    FileBackedStateStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Called after every update to the state. Unless the commit window is zero, the update will only be stored once
+     * the window expires, together with all the other updates that arrived within that window.
+     */
+    public synchronized void requestStore() {
+        if (commitWindow.isZero() || commitWindow.isNegative()) {
+            storage.store();
+        } else if (!storePending) {
+            storePending = true;
+            CompletableFuture.runAsync(this::flush,
+                    CompletableFuture.delayedExecutor(commitWindow.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Immediately write all pending updates to the underlying storage.
+     */
+    public synchronized void flush() {
+        if (storePending) {
+            storePending = false;
+            LOGGER.trace("Storing state.");
+            storage.store();
+        }
+    }
+
+    /**
+     * Throw away all pending updates and delete the underlying storage.
+     */
+    public synchronized void destroy() {
+        storePending = false;
+        storage.destroy();
+    }
+}
@@ -66,6 +66,5 @@ final class StateModifierImpl<T> implements StateModifier<T>,
         backend.setValue(sectionName, Constants.LAST_UPDATED_KEY.getValue(), DateUtil.zonedNow()
             .toOffsetDateTime()
             .toString());
-        backend.store();
     }
 }
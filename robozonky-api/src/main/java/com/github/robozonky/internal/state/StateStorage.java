@@ -33,5 +33,17 @@ interface StateStorage {
 
     void unsetValues(final String section);
 
+    /**
+     * Perform a modification of a section, so that no other thread may modify the same section at the same time.
+     *
+     * @param section      Section to be modified.
+     * @param modification Modification to perform.
+     */
+    default void modify(final String section, final Runnable modification) {
+        synchronized (this) {
+            modification.run();
+        }
+    }
+
     boolean store();
 }
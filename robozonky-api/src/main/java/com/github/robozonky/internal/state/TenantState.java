@@ -28,18 +28,31 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
 
 public final class TenantState {
 
     private static final Logger LOGGER = LogManager.getLogger(TenantState.class);
     private static final Map<SessionInfo, TenantState> TENANT_STATE_MAP = new ConcurrentHashMap<>(0);
-    private final FileBackedStateStorage stateStorage;
+    /**
+     * Different sessions of the same user share the same state file, and therefore must share the same storage.
+     */
+    private static final Map<File, StateCommitter> COMMITTER_MAP = new ConcurrentHashMap<>(0);
+    private final StateCommitter committer;
 
     TenantState(final SessionInfo sessionInfo) { // no external instances
-        this.stateStorage = new FileBackedStateStorage(getFile(sessionInfo.getUsername()));
+        this.committer = COMMITTER_MAP.computeIfAbsent(getFile(sessionInfo.getUsername()),
+                TenantState::newCommitter);
         LOGGER.debug("Created new tenant state for {}: {}.", sessionInfo, this);
     }
 
+    private static StateCommitter newCommitter(final File file) {
+        final FileBackedStateStorage storage = Settings.INSTANCE.isStateJournalEnabled()
+                ? new JournaledStateStorage(file)
+                : new FileBackedStateStorage(file);
+        return new StateCommitter(storage, Settings.INSTANCE.getStateCommitWindow());
+    }
+
     public static TenantState of(final SessionInfo session) {
         return TENANT_STATE_MAP.computeIfAbsent(session, TenantState::new);
     }
@@ -65,19 +78,40 @@ public final class TenantState {
         return new File(filename);
     }
 
+    /**
+     * Write all pending updates of all tenants to the underlying storage. To be called when the application is
+     * shutting down.
+     */
+    public static void flushAll() {
+        COMMITTER_MAP.values()
+            .forEach(StateCommitter::flush);
+    }
+
     /**
      * For testing purposes only.
      */
     public static void destroyAll() {
-        getKnownTenants().map(TenantState::of)
-            .forEach(t -> {
-                LOGGER.debug("Destroying state for {}.", t);
-                t.stateStorage.destroy();
+        COMMITTER_MAP.values()
+            .forEach(c -> {
+                LOGGER.debug("Destroying state {}.", c);
+                c.destroy();
             });
+        COMMITTER_MAP.clear();
         TENANT_STATE_MAP.clear();
     }
 
+    void requestStore() {
+        committer.requestStore();
+    }
+
+    /**
+     * Immediately write all pending updates to the underlying storage.
+     */
+    public void flush() {
+        committer.flush();
+    }
+
     public <T> InstanceState<T> in(final Class<T> cls) {
-        return new InstanceStateImpl<>(this, cls.getName(), stateStorage);
+        return new InstanceStateImpl<>(this, cls.getName(), committer.getStorage());
     }
 }
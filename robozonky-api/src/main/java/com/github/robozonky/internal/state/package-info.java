@@ -32,6 +32,15 @@
  * ({@link com.github.robozonky.internal.state.FileBackedStateStorage}, implementing the INI file format.) Every tenant
  * gets a single file, every instance then is a section in this file. Each such section is a fairly standard property
  * file.
+ * <p>
+ * When enabled in {@link com.github.robozonky.internal.Settings}, the file is only rewritten occasionally and the
+ * changes in between are appended to a journal instead.
+ * ({@link com.github.robozonky.internal.state.JournaledStateStorage}.)
+ * <p>
+ * By default, every update is written immediately. When a commit window is set in
+ * {@link com.github.robozonky.internal.Settings}, updates arriving within that window are written together
+ * ({@link com.github.robozonky.internal.state.StateCommitter}); a crash within the window then loses those updates.
+ * Use {@link com.github.robozonky.internal.state.InstanceState#flush()} when they need to be written immediately.
  */
 package com.github.robozonky.internal.state;
 
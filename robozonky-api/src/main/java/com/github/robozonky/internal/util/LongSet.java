@@ -0,0 +1,254 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Set of primitive longs, kept sorted in a single array. Much smaller than a {@link java.util.Set} of boxed
+ * {@link Long}s, and {@link #contains(long)} does not allocate. Insertions and removals are linear in the size of the
+ * set, which is fine for the sets of IDs that RoboZonky keeps, as those are read far more often than they change.
+ * <p>
+ * Not thread-safe.
+ */
+public final class LongSet {
+
+    /**
+     * Marks the compact format produced by {@link #encode()}, so that it can be told apart from the legacy format of
+     * decimal numbers separated by ";".
+     */
+    private static final String ENCODED_PREFIX = "~";
+    private static final String LEGACY_SEPARATOR = ";";
+    private static final long[] NO_LONGS = new long[0];
+
+    private long[] values;
+    private int size;
+
+    public LongSet() {
+        this.values = NO_LONGS;
+        this.size = 0;
+    }
+
+    private LongSet(final long[] sortedDistinct) {
+        this.values = sortedDistinct;
+        this.size = sortedDistinct.length;
+    }
+
+    public static LongSet of(final long... values) {
+        return new LongSet(LongStream.of(values)
+            .sorted()
+            .distinct()
+            .toArray());
+    }
+
+    public static LongSet of(final LongStream values) {
+        return new LongSet(values.sorted()
+            .distinct()
+            .toArray());
+    }
+
+    /**
+     * Reads a set previously written by {@link #encode()}. Also reads the legacy format, where the numbers were
+     * written in decimal and separated by ";".
+     *
+     * @param encoded Never null.
+     * @return New instance.
+     */
+    public static LongSet decode(final String encoded) {
+        final String trimmed = encoded.trim();
+        if (trimmed.isEmpty()) {
+            return new LongSet();
+        } else if (!trimmed.startsWith(ENCODED_PREFIX)) {
+            return of(Arrays.stream(trimmed.split(LEGACY_SEPARATOR))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToLong(Long::parseLong));
+        }
+        final byte[] bytes = Base64.getUrlDecoder()
+            .decode(trimmed.substring(ENCODED_PREFIX.length()));
+        final LongStream.Builder builder = LongStream.builder();
+        long previous = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            long zigZag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigZag |= (long) (b
+                        & 0x7F) << shift;
+                shift += 7;
+            } while ((b
+                    & 0x80) != 0);
+            final long delta = (zigZag >>> 1)
+                    ^ -(zigZag
+                            & 1);
+            previous += delta;
+            builder.add(previous);
+        }
+        return of(builder.build());
+    }
+
+    private int indexOf(final long value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    public boolean contains(final long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     *
+     * @param value Value to add.
+     * @return True if the value was not present before.
+     */
+    public boolean add(final long value) {
+        final int index = indexOf(value);
+        if (index >= 0) {
+            return false;
+        }
+        final int insertionPoint = -(index + 1);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(8, size + (size >> 1)));
+        }
+        System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+        values[insertionPoint] = value;
+        size++;
+        return true;
+    }
+
+    public void addAll(final LongSet other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        final long[] merged = LongStream.concat(stream(), other.stream())
+            .sorted()
+            .distinct()
+            .toArray();
+        values = merged;
+        size = merged.length;
+    }
+
+    /**
+     *
+     * @param value Value to remove.
+     * @return True if the value was present before.
+     */
+    public boolean remove(final long value) {
+        final int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public void removeAll(final LongSet other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            final long value = values[i];
+            if (!other.contains(value)) {
+                values[kept++] = value;
+            }
+        }
+        size = kept;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     *
+     * @return Ascending stream of a snapshot of the values; later changes to the set are not reflected.
+     */
+    public LongStream stream() {
+        return LongStream.of(toArray());
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Writes the set in a compact format, suitable for {@link #decode(String)}. The values are written as
+     * zig-zag-encoded variable-length deltas from their predecessors; for sets of similar IDs, that is usually 2 to 4
+     * bytes per value, instead of 8 to 10 characters in decimal.
+     *
+     * @return Never null.
+     */
+    public String encode() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * 3);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            final long delta = values[i] - previous;
+            long zigZag = (delta << 1)
+                    ^ (delta >> 63);
+            while ((zigZag
+                    & ~0x7FL) != 0) {
+                bytes.write((int) ((zigZag
+                        & 0x7F)
+                        | 0x80));
+                zigZag >>>= 7;
+            }
+            bytes.write((int) zigZag);
+            previous = values[i];
+        }
+        return ENCODED_PREFIX + Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(bytes.toByteArray());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LongSet longSet = (LongSet) o;
+        return Arrays.equals(values, 0, size, longSet.values, 0, longSet.size);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return stream().mapToObj(String::valueOf)
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -17,8 +17,9 @@
 package com.github.robozonky.internal.util.json;
 
 import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 
 import javax.json.bind.serializer.DeserializationContext;
 import javax.json.bind.serializer.JsonbDeserializer;
@@ -27,28 +28,53 @@ import javax.json.stream.JsonParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Deserializers run once per field of every entity on every page, so they must be cheap. Therefore all the values
+ * that Zonky may send are resolved into their enum constants up front, and deserialization is a single lookup.
+ *
+ * @param <T> Type of the enum to deserialize.
+ */
 abstract class AbstractDeserializer<T extends Enum<T>> implements JsonbDeserializer<T> {
 
     protected final Logger logger;
-    private final Function<String, T> converter;
+    private final Map<String, T> lookup;
     private final T defaultValue;
 
-    protected AbstractDeserializer(final Function<String, T> converter, final T defaultValue) {
-        this.converter = Objects.requireNonNull(converter);
+    protected AbstractDeserializer(final Map<String, T> lookup, final T defaultValue) {
+        this.lookup = Objects.requireNonNull(lookup);
         this.defaultValue = Objects.requireNonNull(defaultValue);
         this.logger = LogManager.getLogger(defaultValue.getClass());
     }
 
+    /**
+     *
+     * @param enumClass Enum to index.
+     * @param aliases   Additional values to recognize, on top of {@link Enum#name()}.
+     * @param <T>       Type of the enum.
+     * @return Immutable map of every recognized value to the enum constant it represents.
+     */
+    static <T extends Enum<T>> Map<String, T> indexByName(final Class<T> enumClass, final Map<String, T> aliases) {
+        final T[] values = enumClass.getEnumConstants();
+        final Map<String, T> result = new HashMap<>(aliases);
+        for (final T value : values) {
+            result.put(value.name(), value);
+        }
+        return Map.copyOf(result);
+    }
+
+    static <T extends Enum<T>> Map<String, T> indexByName(final Class<T> enumClass) {
+        return indexByName(enumClass, Map.of());
+    }
+
     @Override
     public T deserialize(JsonParser parser, DeserializationContext ctx, Type rtType) {
-        try {
-            var id = parser.getString();
-            return converter.apply(id);
-        } catch (final Exception ex) {
-            logger.warn("Received unknown value from Zonky: '{}'. This may be a problem, but we continue.",
-                    parser.getString());
+        var id = parser.getString();
+        var result = lookup.get(id);
+        if (result == null) {
+            logger.warn("Received unknown value from Zonky: '{}'. This may be a problem, but we continue.", id);
             return defaultValue;
         }
+        return result;
     }
 
 }
@@ -16,11 +16,15 @@
 
 package com.github.robozonky.internal.util.json;
 
+import java.util.Map;
+
 import com.github.robozonky.api.remote.enums.DetailLabel;
 
 public final class DetailLabelDeserializer extends AbstractDeserializer<DetailLabel> {
 
+    private static final Map<String, DetailLabel> LOOKUP = indexByName(DetailLabel.class);
+
     public DetailLabelDeserializer() {
-        super(DetailLabel::valueOf, DetailLabel.UNKNOWN);
+        super(LOOKUP, DetailLabel.UNKNOWN);
     }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util.json;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import javax.json.bind.config.PropertyVisibilityStrategy;
+
+/**
+ * Makes JSON-B read and write fields directly, regardless of their visibility, and ignore getters and setters. This
+ * allows entities to keep raw JSON values in their fields and only decode them in their getters, when actually
+ * requested.
+ */
+public final class FieldVisibilityStrategy implements PropertyVisibilityStrategy {
+
+    @Override
+    public boolean isVisible(final Field field) {
+        return !Modifier.isStatic(field.getModifiers());
+    }
+
+    @Override
+    public boolean isVisible(final Method method) {
+        return false;
+    }
+}
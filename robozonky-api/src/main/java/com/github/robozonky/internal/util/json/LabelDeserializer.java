@@ -16,11 +16,15 @@
 
 package com.github.robozonky.internal.util.json;
 
+import java.util.Map;
+
 import com.github.robozonky.api.remote.enums.Label;
 
 public final class LabelDeserializer extends AbstractDeserializer<Label> {
 
+    private static final Map<String, Label> LOOKUP = indexByName(Label.class);
+
     public LabelDeserializer() {
-        super(Label::valueOf, Label.UNKNOWN);
+        super(LOOKUP, Label.UNKNOWN);
     }
 }
@@ -16,11 +16,15 @@
 
 package com.github.robozonky.internal.util.json;
 
+import java.util.Map;
+
 import com.github.robozonky.api.remote.enums.LoanHealth;
 
 public final class LoanHealthInfoDeserializer extends AbstractDeserializer<LoanHealth> {
 
+    private static final Map<String, LoanHealth> LOOKUP = indexByName(LoanHealth.class);
+
     public LoanHealthInfoDeserializer() {
-        super(LoanHealth::valueOf, LoanHealth.UNKNOWN);
+        super(LOOKUP, LoanHealth.UNKNOWN);
     }
 }
@@ -16,12 +16,15 @@
 
 package com.github.robozonky.internal.util.json;
 
+import java.util.Map;
+
 import com.github.robozonky.api.remote.enums.MainIncomeIndustry;
 
 public final class MainIncomeIndustryDeserializer extends AbstractDeserializer<MainIncomeIndustry> {
 
+    private static final Map<String, MainIncomeIndustry> LOOKUP = indexByName(MainIncomeIndustry.class);
+
     public MainIncomeIndustryDeserializer() {
-        super(MainIncomeIndustry::valueOf, MainIncomeIndustry.UNKNOWN);
+        super(LOOKUP, MainIncomeIndustry.UNKNOWN);
     }
-
 }
@@ -22,6 +22,8 @@ import com.github.robozonky.api.Money;
 
 public final class MoneyAdapter implements JsonbAdapter<Money, String> {
 
+    private static final ValueInterner<Money> INTERNER = new ValueInterner<>(Money::from, 1_000);
+
     @Override
     public String adaptToJson(Money obj) {
         return obj.getValue()
@@ -31,6 +33,6 @@ public final class MoneyAdapter implements JsonbAdapter<Money, String> {
 
     @Override
     public Money adaptFromJson(String obj) {
-        return Money.from(obj);
+        return INTERNER.intern(obj);
     }
 }
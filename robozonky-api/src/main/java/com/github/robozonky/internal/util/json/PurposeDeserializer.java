@@ -16,11 +16,15 @@
 
 package com.github.robozonky.internal.util.json;
 
+import java.util.Map;
+
 import com.github.robozonky.api.remote.enums.Purpose;
 
 public final class PurposeDeserializer extends AbstractDeserializer<Purpose> {
 
+    private static final Map<String, Purpose> LOOKUP = indexByName(Purpose.class);
+
     public PurposeDeserializer() {
-        super(Purpose::valueOf, Purpose.OTHER);
+        super(LOOKUP, Purpose.OTHER);
     }
 }
@@ -22,6 +22,8 @@ import com.github.robozonky.api.Ratio;
 
 public final class RatioAdapter implements JsonbAdapter<Ratio, String> {
 
+    private static final ValueInterner<Ratio> INTERNER = new ValueInterner<>(Ratio::fromRaw, 1_000);
+
     @Override
     public String adaptToJson(Ratio obj) {
         return obj.bigDecimalValue()
@@ -30,6 +32,6 @@ public final class RatioAdapter implements JsonbAdapter<Ratio, String> {
 
     @Override
     public Ratio adaptFromJson(String obj) {
-        return Ratio.fromRaw(obj);
+        return INTERNER.intern(obj);
     }
 }
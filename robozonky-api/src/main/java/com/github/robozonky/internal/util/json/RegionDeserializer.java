@@ -16,19 +16,25 @@
 
 package com.github.robozonky.internal.util.json;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.github.robozonky.api.remote.enums.Region;
 
 public final class RegionDeserializer extends AbstractDeserializer<Region> {
 
+    private static final Map<String, Region> LOOKUP = indexByName(Region.class, getNumericIds());
+
     public RegionDeserializer() {
-        super(s -> Arrays.stream(Region.values())
-            .filter(x -> s.equals(x.name())) // Regions in Investment API use their name.
-            .findAny()
-            .orElseGet(() -> {
-                final int actualId = Integer.parseInt(s) - 1; // Regions in Loan API are indexed from 1.
-                return Region.values()[actualId];
-            }), Region.UNKNOWN);
+        super(LOOKUP, Region.UNKNOWN); // Regions in Investment API use their name.
+    }
+
+    private static Map<String, Region> getNumericIds() {
+        final Region[] values = Region.values();
+        final Map<String, Region> result = new HashMap<>(values.length);
+        for (final Region region : values) {
+            result.put(Integer.toString(region.ordinal() + 1), region); // Regions in Loan API are indexed from 1.
+        }
+        return result;
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util.json;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Values such as interest rates or typical investment amounts repeat over and over in the entities coming from Zonky.
+ * This makes sure that a recently seen raw JSON value is not converted again, and that all the resulting objects share
+ * the same instance.
+ * <p>
+ * Lookups do not lock, so that many threads deserializing at the same time do not wait for each other. The number of
+ * interned values is capped. Once the cap is exceeded, values are evicted in the "second chance" manner: values used
+ * since the eviction last looked at them are spared once, so that the interned values follow what Zonky is currently
+ * sending. Only one thread evicts at a time; the others do not wait for it.
+ *
+ * @param <T> Type of the value to intern. Must be immutable.
+ */
+final class ValueInterner<T> {
+
+    private final Map<String, Entry<T>> interned = new ConcurrentHashMap<>(0);
+    private final Function<String, T> converter;
+    private final int maxSize;
+    private final Lock evictionLock = new ReentrantLock();
+    private Iterator<Entry<T>> hand = Collections.emptyIterator(); // Only accessed while holding the eviction lock.
+
+    public ValueInterner(final Function<String, T> converter, final int maxSize) {
+        this.converter = Objects.requireNonNull(converter);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public T intern(final String raw) {
+        final Entry<T> existing = interned.get(raw);
+        if (existing != null) {
+            return existing.use();
+        }
+        final Entry<T> created = new Entry<>(converter.apply(raw));
+        final Entry<T> previous = interned.putIfAbsent(raw, created);
+        if (previous != null) { // Another thread was faster.
+            return previous.use();
+        }
+        if (interned.size() > maxSize) {
+            evict();
+        }
+        return created.value;
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) { // Someone else is already evicting.
+            return;
+        }
+        try {
+            while (interned.size() > maxSize) {
+                if (!hand.hasNext()) {
+                    hand = interned.values()
+                        .iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                final Entry<T> entry = hand.next();
+                if (entry.used) {
+                    entry.used = false;
+                } else {
+                    hand.remove();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    int size() {
+        return interned.size();
+    }
+
+    private static final class Entry<T> {
+
+        private final T value;
+        private volatile boolean used = true; // New values get their second chance, too.
+
+        Entry(final T value) {
+            this.value = value;
+        }
+
+        T use() {
+            if (!used) { // Avoid needless writes to shared memory.
+                used = true;
+            }
+            return value;
+        }
+    }
+}
@@ -68,6 +68,18 @@ class SerializationTest {
             final String serialized = escape(toSerialize.ordinal() + 1);
             tests.add(dynamicTest(deserializeTestName(toSerialize), () -> deserialize(serialized, toSerialize)));
         }
+        // test deserialization of regions by their name, as used in Investment API
+        for (final Region toSerialize : Region.values()) {
+            final String serialized = escape(toSerialize.name());
+            tests.add(dynamicTest(deserializeTestName(toSerialize) + "ByName",
+                    () -> deserialize(serialized, toSerialize)));
+        }
+        // test deserialization of faulty and unknown values
+        tests.add(dynamicTest("MainIncomeType.OTHERS_MAIN",
+                () -> deserialize(escape("OTHERS_MAIN"), MainIncomeType.OTHER)));
+        tests.add(dynamicTest("MainIncomeType.unknown", () -> deserialize(escape("UNKNOWN"), MainIncomeType.OTHER)));
+        tests.add(dynamicTest("Purpose.unknown", () -> deserialize(escape("UNKNOWN"), Purpose.OTHER)));
+        tests.add(dynamicTest("Region.unknown", () -> deserialize(escape(0), Region.UNKNOWN)));
         return tests;
     }
 }
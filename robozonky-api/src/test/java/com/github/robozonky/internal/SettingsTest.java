@@ -21,6 +21,7 @@ import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAmount;
 import java.util.Properties;
@@ -67,6 +68,18 @@ class SettingsTest {
                 .isEmpty();
             softly.assertThat(Settings.INSTANCE.isDebugHttpResponseLoggingEnabled())
                 .isFalse();
+            softly.assertThat(Settings.INSTANCE.isStateJournalEnabled())
+                .isFalse();
+            softly.assertThat(Settings.INSTANCE.isTimerBasedSchedulerEnabled())
+                .isFalse();
+            softly.assertThat(Settings.INSTANCE.getSchedulerMaxJitter())
+                .isZero();
+            softly.assertThat(Settings.INSTANCE.getEventDispatchThreads())
+                .isGreaterThanOrEqualTo(2);
+            softly.assertThat(Settings.INSTANCE.getEventDispatchQueueCapacity())
+                .isEqualTo(1000);
+            softly.assertThat(Settings.INSTANCE.getEventCoalescingWindow())
+                .isZero();
         });
     }
 
@@ -76,6 +89,8 @@ class SettingsTest {
         Stream.of(Settings.Key.values())
             .forEach(v -> p.setProperty(v.getName(), "2000"));
         p.setProperty(Settings.Key.DEBUG_ENABLE_HTTP_RESPONSE_LOGGING.getName(), "true");
+        p.setProperty(Settings.Key.STATE_JOURNAL_ENABLED.getName(), "true");
+        p.setProperty(Settings.Key.SCHEDULER_TIMER_BASED.getName(), "true");
         final File f = File.createTempFile("robozonky-", ".properties");
         p.store(new FileWriter(f), "Testing properties");
         System.setProperty(Settings.FILE_LOCATION_PROPERTY, f.getAbsolutePath());
@@ -87,6 +102,18 @@ class SettingsTest {
                 .isEqualTo("");
             softly.assertThat(Settings.INSTANCE.isDebugHttpResponseLoggingEnabled())
                 .isTrue();
+            softly.assertThat(Settings.INSTANCE.isStateJournalEnabled())
+                .isTrue();
+            softly.assertThat(Settings.INSTANCE.isTimerBasedSchedulerEnabled())
+                .isTrue();
+            softly.assertThat(Settings.INSTANCE.getSchedulerMaxJitter())
+                .isEqualTo(Duration.ofMillis(2000));
+            softly.assertThat(Settings.INSTANCE.getEventDispatchThreads())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getEventDispatchQueueCapacity())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getEventCoalescingWindow())
+                .isEqualTo(Duration.ofMillis(2000));
             softly.assertThat(Settings.INSTANCE.getRemoteResourceRefreshInterval())
                 .matches(new SettingsTest.TemporalPredicate(2000 * 60));
             softly.assertThat(Settings.INSTANCE.getDryRunBalanceMinimum())
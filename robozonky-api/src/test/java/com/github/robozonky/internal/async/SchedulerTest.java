@@ -17,14 +17,80 @@
 package com.github.robozonky.internal.async;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import static org.assertj.core.api.Assertions.*;
 
 class SchedulerTest {
 
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void addRegistry() {
+        Defaults.METER_REGISTRY.add(registry);
+    }
+
+    @AfterEach
+    void removeRegistry() {
+        Defaults.METER_REGISTRY.remove(registry);
+    }
+
+    private static void fixedRateSkipsOverruns(final Scheduler scheduler, final String type,
+            final SimpleMeterRegistry registry) throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        try (scheduler) {
+            TaskDescriptor task = scheduler.submitAtFixedRate(type, () -> {
+                if (runs.incrementAndGet() == 2) { // Overrun the period considerably.
+                    try {
+                        Thread.sleep(100);
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }, Duration.ofMillis(20), Duration.ZERO, Duration.ZERO, Duration.ofMillis(1));
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                while (task.getSuccessCount() < 5) {
+                    Thread.sleep(1);
+                }
+            }, "Timed out while waiting for operation to complete.");
+        }
+        assertThat(registry.get("robozonky.task.overruns")
+            .tag("type", type)
+            .counter()
+            .count()).isGreaterThanOrEqualTo(1);
+        assertThat(registry.get("robozonky.task.skipped")
+            .tag("type", type)
+            .counter()
+            .count()).isGreaterThanOrEqualTo(4); // Missed runs were skipped, not run back to back to catch up.
+        assertThat(registry.get("robozonky.task.duration")
+            .tag("type", type)
+            .timer()
+            .count()).isGreaterThanOrEqualTo(5);
+        assertThat(registry.get("robozonky.task.lag")
+            .tag("type", type)
+            .timer()
+            .count()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void fixedRate() throws Exception {
+        fixedRateSkipsOverruns(new CachedThreadPoolBasedScheduler(), "fixedRate", registry);
+    }
+
+    @Test
+    void timerBasedFixedRate() throws Exception {
+        fixedRateSkipsOverruns(new TimerBasedScheduler(), "timerBasedFixedRate", registry);
+    }
+
     @Test
     void simple() throws Exception {
         Scheduler scheduler = Scheduler.create();
@@ -42,4 +108,109 @@ class SchedulerTest {
         assertThat(scheduler.isClosed()).isTrue();
     }
 
+    @Test
+    void timerBased() throws Exception {
+        Scheduler scheduler = new TimerBasedScheduler();
+        assertThat(scheduler.isClosed()).isFalse();
+        try (scheduler) {
+            TaskDescriptor task = scheduler.submit(() -> {
+                // NOOP
+            }, Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(10));
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                while (task.getSuccessCount() < 2) {
+                    Thread.sleep(1);
+                }
+            }, "Timed out while waiting for operation to complete.");
+            assertThat(registry.get("robozonky.task.duration")
+                .tag("type", "other")
+                .timer()
+                .count()).isPositive();
+            task.cancel();
+            final long successCount = task.getSuccessCount();
+            Thread.sleep(50);
+            assertThat(task.getSuccessCount()).isBetween(successCount, successCount + 1); // One may have been running.
+        }
+        assertThat(scheduler.isClosed()).isTrue();
+    }
+
+    @Test
+    void timerBasedInterruptsOnTimeoutAndReschedules() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        try (Scheduler scheduler = new TimerBasedScheduler()) {
+            TaskDescriptor task = scheduler.submit(() -> {
+                if (runs.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }, Duration.ofMillis(1), Duration.ZERO, Duration.ofMillis(10));
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                while (task.getSuccessCount() < 1) {
+                    Thread.sleep(1);
+                }
+            }, "Timed out task was not rescheduled.");
+        }
+    }
+
+    @Test
+    void timerBasedStopsOnFailure() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        try (Scheduler scheduler = new TimerBasedScheduler()) {
+            scheduler.submit(() -> {
+                runs.incrementAndGet();
+                throw new IllegalStateException("Testing.");
+            }, Duration.ofMillis(1), Duration.ZERO, Duration.ZERO);
+            Thread.sleep(50);
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void tenantView() throws Exception {
+        try (Scheduler scheduler = new TimerBasedScheduler()) {
+            final Scheduler first = scheduler.forTenant("first", 0, 2);
+            final Scheduler second = scheduler.forTenant("second", 1, 2);
+            assertThat(first.getExecutor()).isSameAs(scheduler.getExecutor()); // Forks run on the shared threads.
+            final TaskDescriptor firstTask = first.submit("tenantView", () -> {
+                // NOOP
+            }, Duration.ofMillis(1), Duration.ZERO, Duration.ZERO);
+            final TaskDescriptor secondTask = second.submit("tenantView", () -> {
+                // NOOP
+            }, Duration.ofMillis(1), Duration.ZERO, Duration.ZERO);
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                while (firstTask.getSuccessCount() < 1 || secondTask.getSuccessCount() < 1) {
+                    Thread.sleep(1);
+                }
+            }, "Timed out while waiting for operation to complete.");
+            assertThat(registry.get("robozonky.task.duration")
+                .tags("type", "tenantView", "tenant", "second")
+                .timer()
+                .count()).isPositive();
+            first.close(); // Only cancels the tenant's own tasks.
+            assertThat(first.isClosed()).isTrue();
+            assertThat(second.isClosed()).isFalse();
+            assertThat(scheduler.isClosed()).isFalse();
+            assertThatThrownBy(() -> first.submit(() -> {
+                // NOOP
+            }, Duration.ofMillis(1), Duration.ZERO, Duration.ZERO)).isInstanceOf(IllegalStateException.class);
+            final long firstCount = firstTask.getSuccessCount();
+            final long secondCount = secondTask.getSuccessCount();
+            Thread.sleep(50);
+            assertThat(firstTask.getSuccessCount()).isBetween(firstCount, firstCount + 1); // One may have been running.
+            assertThat(secondTask.getSuccessCount()).isGreaterThan(secondCount);
+        }
+    }
+
+    @Test
+    void tenantsTakeTurns() {
+        final AbstractScheduler scheduler = new CachedThreadPoolBasedScheduler();
+        final Duration period = Duration.ofMillis(500);
+        assertThat(new TenantScheduler(scheduler, "a", 0, 4).getOffset(period)).isEqualTo(Duration.ZERO);
+        assertThat(new TenantScheduler(scheduler, "b", 1, 4).getOffset(period)).isEqualTo(Duration.ofMillis(125));
+        assertThat(new TenantScheduler(scheduler, "c", 3, 4).getOffset(period)).isEqualTo(Duration.ofMillis(375));
+        assertThatThrownBy(() -> scheduler.forTenant("d", 4, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
 }
@@ -90,6 +90,17 @@ class ListenerServiceLoaderTest {
                 .isEmpty(), "Does not exist"));
     }
 
+    @Test
+    void flushesAllDespiteFailure() {
+        final ListenerService s1 = mock(ListenerService.class);
+        doThrow(IllegalStateException.class).when(s1)
+            .flush();
+        final ListenerService s2 = mock(ListenerService.class);
+        ListenerServiceLoader.flushAll(Arrays.asList(s1, s2));
+        verify(s1).flush();
+        verify(s2).flush();
+    }
+
     @Test
     void empty() {
         final List<EventListenerSupplier<RoboZonkyTestingEvent>> r = ListenerServiceLoader.load(sessionInfo,
@@ -101,9 +112,13 @@ class ListenerServiceLoaderTest {
     void configuration() throws MalformedURLException {
         final String url = "http://localhost";
         assertThat(ListenerServiceLoader.getNotificationConfiguration(sessionInfo)).isEmpty();
+        final long generation = ListenerServiceLoader.getGeneration();
         ListenerServiceLoader.registerConfiguration(sessionInfo, new URL(url));
         assertThat(ListenerServiceLoader.getNotificationConfiguration(sessionInfo)).contains(url);
+        final long registeredGeneration = ListenerServiceLoader.getGeneration();
+        assertThat(registeredGeneration).isGreaterThan(generation);
         ListenerServiceLoader.unregisterConfiguration(sessionInfo);
         assertThat(ListenerServiceLoader.getNotificationConfiguration(sessionInfo)).isEmpty();
+        assertThat(ListenerServiceLoader.getGeneration()).isGreaterThan(registeredGeneration);
     }
 }
@@ -61,4 +61,18 @@ class ApiProviderTest {
         assertThat(p.isClosed()).isTrue();
     }
 
+    @Test
+    void sharedClientOutlivesProviders() {
+        final SharedHttpClient shared = new SharedHttpClient(2);
+        final ApiProvider first = shared.newApiProvider("first");
+        final ApiProvider second = shared.newApiProvider("second");
+        assertThat(first.oauth(Function.identity())).isNotNull();
+        first.close();
+        assertThat(first.isClosed()).isTrue();
+        assertThat(second.isClosed()).isFalse(); // The client was not closed with the first provider.
+        assertThat(second.call(Function.identity(), ApiProviderTest::mockToken)).isNotNull();
+        shared.close();
+        assertThat(second.isClosed()).isTrue();
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.remote;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
@@ -61,6 +62,18 @@ class AuthenticatedFilterTest extends AbstractCommonFilterTest {
         verify(crc.getHeaders()).putSingle(eq("Authorization"), eq("Bearer " + String.valueOf(TOKEN.getAccessToken())));
     }
 
+    @Test
+    void wrapsTokenFailure() throws URISyntaxException {
+        final ClientRequestContext crc = mockClientRequestContext();
+        final IllegalStateException ex = new IllegalStateException("No token.");
+        final RoboZonkyFilter filter = new AuthenticatedFilter(() -> {
+            throw ex;
+        });
+        assertThatThrownBy(() -> filter.filter(crc))
+            .isInstanceOf(TokenUnavailableException.class)
+            .hasCause(ex);
+    }
+
     @Test
     void changes400to401() throws IOException, URISyntaxException {
         final int expectedCode = 400;
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.json.bind.JsonbException;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServerErrorException;
+import javax.ws.rs.core.Response;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong(0);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", nanos::get);
+
+    private void fail() {
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw new ServerErrorException(503);
+        })).isInstanceOf(ServerErrorException.class);
+    }
+
+    private void advance(final Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void opensAfterFailuresInRow() {
+        fail();
+        fail();
+        assertThat(circuitBreaker.call(() -> 1)).isEqualTo(1); // Resets the failure count.
+        fail();
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.call(() -> 1)).isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    void clientErrorsAreNotFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD * 2; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new BadRequestException();
+            })).isInstanceOf(BadRequestException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void wrappedClientErrorsAreNotFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD * 2; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new ProcessingException(new NotAuthorizedException(Response.status(401)
+                    .build()));
+            })).isInstanceOf(ProcessingException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void tokenFailuresAreNotFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD * 2; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new ProcessingException(new TokenUnavailableException(new IllegalStateException()));
+            })).isInstanceOf(ProcessingException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void wrappedServerErrorsAreFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new ProcessingException(new ServerErrorException(503));
+            })).isInstanceOf(ProcessingException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void onlyTransportFailuresAreFailures() {
+        assertSoftly(softly -> {
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new ProcessingException("Connection refused.")))
+                .isTrue();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new ProcessingException(new SocketTimeoutException())))
+                .isTrue();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new IOException()))
+                .isTrue();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new ProcessingException(new JsonbException("Bad."))))
+                .isTrue();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new NullPointerException()))
+                .isFalse();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new IllegalStateException(new RuntimeException())))
+                .isFalse();
+            softly.assertThat(CircuitBreaker.isEndpointFailure(new ProcessingException(new NullPointerException())))
+                .isFalse();
+        });
+    }
+
+    @Test
+    void bugsAreNotFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD * 2; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new IllegalStateException();
+            })).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbing() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            fail();
+        }
+        advance(Duration.ofSeconds(CircuitBreaker.MANDATORY_OPEN_SECONDS + 1));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        fail(); // Failed probe opens again, for longer.
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        advance(Duration.ofSeconds(CircuitBreaker.MANDATORY_OPEN_SECONDS + 1));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        advance(Duration.ofSeconds(1));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // Only one probe at a time.
+        assertThat(circuitBreaker.call(() -> {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> 1)).isInstanceOf(CircuitBreakerOpenException.class);
+            return 2;
+        })).isEqualTo(2);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void slowCallsAreFailures() {
+        for (int i = 0; i < CircuitBreaker.MIN_LATENCY_SAMPLES; i++) {
+            circuitBreaker.call(() -> {
+                advance(Duration.ofMillis(100));
+                return 0;
+            });
+        }
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(circuitBreaker.call(() -> { // The result is still returned.
+                advance(Duration.ofSeconds(10));
+                return 1;
+            })).isEqualTo(1);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void listingsHaveSeparateLatency() {
+        for (int i = 0; i < CircuitBreaker.MIN_LATENCY_SAMPLES; i++) {
+            circuitBreaker.call(() -> {
+                advance(Duration.ofMillis(100));
+                return 0;
+            });
+        }
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) { // Long, but not for a listing.
+            circuitBreaker.callListing(() -> {
+                advance(Duration.ofSeconds(10));
+                return 1;
+            });
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void remembersLastFailure() {
+        final ServerErrorException ex = new ServerErrorException(500);
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw ex;
+        })).isSameAs(ex);
+        assertThat(circuitBreaker.isLastFailure(ex)).isTrue();
+        assertThat(circuitBreaker.isLastFailure(new ServerErrorException(500))).isFalse();
+        assertThat(circuitBreaker.isLastFailure(null)).isFalse();
+    }
+}
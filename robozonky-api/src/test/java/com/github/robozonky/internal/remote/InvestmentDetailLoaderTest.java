@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.api.remote.entities.SellInfo;
+import com.github.robozonky.api.remote.enums.SellStatus;
+
+class InvestmentDetailLoaderTest {
+
+    private static Investment mockInvestment(final long id, final SellStatus sellStatus, final SellInfo sellInfo) {
+        final Investment investment = mock(Investment.class);
+        when(investment.getId()).thenReturn(id);
+        when(investment.getSellStatus()).thenReturn(sellStatus);
+        when(investment.getSmpSellInfo()).thenReturn(Optional.ofNullable(sellInfo));
+        return investment;
+    }
+
+    @Test
+    void retrievesOnlyOnce() {
+        final Investment detail = mock(Investment.class);
+        final LongFunction<Investment> retriever = mock(LongFunction.class);
+        when(retriever.apply(anyLong())).thenReturn(detail);
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(retriever, Duration.ofMinutes(5));
+        loader.prefetch(mockInvestment(1, SellStatus.SELLABLE_WITH_FEE, null));
+        assertThat(loader.get(1)).isSameAs(detail);
+        assertThat(loader.get(1)).isSameAs(detail);
+        verify(retriever, times(1)).apply(1);
+    }
+
+    @Test
+    void prefetchesOnlyWhenNeeded() {
+        final LongFunction<Investment> retriever = mock(LongFunction.class);
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(retriever, Duration.ofMinutes(5));
+        loader.prefetch(mockInvestment(1, SellStatus.SELLABLE_WITHOUT_FEE, null));
+        loader.prefetch(mockInvestment(2, SellStatus.SELLABLE_WITH_FEE, mock(SellInfo.class)));
+        verify(retriever, after(100).never()).apply(anyLong());
+    }
+
+    @Test
+    void expires() {
+        final LongFunction<Investment> retriever = mock(LongFunction.class);
+        when(retriever.apply(anyLong())).thenAnswer(i -> mock(Investment.class));
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(retriever, Duration.ZERO);
+        assertThat(loader.get(1)).isNotSameAs(loader.get(1));
+        verify(retriever, times(2)).apply(1);
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        final AtomicInteger attempts = new AtomicInteger(0);
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(id -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("First attempt fails.");
+            }
+            return mock(Investment.class);
+        }, Duration.ofMinutes(5));
+        assertThatThrownBy(() -> loader.get(1)).isInstanceOf(IllegalStateException.class);
+        assertThat(loader.get(1)).isNotNull();
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void failsOnError() {
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(id -> {
+            throw new AssertionError("Simulated error.");
+        }, Duration.ofMinutes(5));
+        assertThatThrownBy(() -> loader.get(1)).hasCauseInstanceOf(AssertionError.class);
+    }
+
+    @Test
+    void evictsWhenFull() {
+        final LongFunction<Investment> retriever = mock(LongFunction.class);
+        when(retriever.apply(anyLong())).thenAnswer(i -> mock(Investment.class));
+        final InvestmentDetailLoader loader = new InvestmentDetailLoader(retriever, Duration.ofMinutes(5), 10);
+        for (long id = 0; id < 100; id++) {
+            loader.get(id);
+        }
+        assertThat(loader.size()).isLessThanOrEqualTo(10);
+    }
+
+}
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.core.Response;
@@ -157,6 +158,20 @@ class ZonkyTest {
         assertThat(z.getStatistics()).isNotNull();
     }
 
+    @Test
+    void investmentsByIdInChunks() {
+        final PaginatedApi<InvestmentImpl, PortfolioApi> pa = mockApi(List.of(mock(InvestmentImpl.class)));
+        final ApiProvider p = spy(new ApiProvider());
+        when(p.portfolio(any())).thenReturn(pa);
+        final Zonky z = new Zonky(p, () -> mock(ZonkyApiTokenImpl.class));
+        final long[] ids = LongStream.range(0, 250)
+            .toArray();
+        assertThat(z.getInvestmentsById(ids)).hasSize(3); // one per chunk, as that is what the mock returns
+        verify(pa, times(3)).execute(any(), any(), eq(0), eq(100));
+        assertThat(z.getInvestmentsById()).isEmpty();
+        verify(pa, times(3)).execute(any(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void participationApi() {
         final PaginatedApi<ParticipationImpl, ParticipationApi> pa = mockApi();
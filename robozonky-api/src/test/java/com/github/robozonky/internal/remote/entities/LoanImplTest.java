@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.remote.entities;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
 import javax.json.bind.Jsonb;
@@ -87,4 +88,16 @@ class LoanImplTest {
         }
     }
 
+    @Test
+    void decodesLazily() throws Exception {
+        try (Jsonb jsonb = JsonbBuilder.create()) {
+            LoanImpl loan = jsonb.fromJson(LOAN_JSON, LoanImpl.class);
+            assertThat(loan.amount).isEqualTo("360000.00");
+            assertThat(loan.getAmount()).isEqualTo(Money.from(360_000));
+            assertThat(loan.getAmount()).isSameAs(loan.getAmount()); // decoded only once
+            loan.setAmount(Money.from(1));
+            assertThat(loan.getAmount()).isEqualTo(Money.from(1));
+        }
+    }
+
 }
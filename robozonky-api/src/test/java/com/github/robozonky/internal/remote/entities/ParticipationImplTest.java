@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote.entities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.Money;
+import com.github.robozonky.api.Ratio;
+import com.github.robozonky.api.remote.enums.LoanHealth;
+import com.github.robozonky.api.remote.enums.MainIncomeType;
+import com.github.robozonky.api.remote.enums.Purpose;
+import com.github.robozonky.api.remote.enums.Rating;
+
+class ParticipationImplTest {
+
+    private static final String PARTICIPATION_JSON = "{\"id\":1234567,\"investmentId\":7654321,\"loanId\":710354," +
+            "\"loanName\":\"Ojeté auto\",\"purpose\":\"REFINANCING\",\"incomeType\":\"EMPLOYMENT\"," +
+            "\"interestRate\":0.049900,\"originalInstalmentCount\":60,\"remainingInstalmentCount\":42," +
+            "\"remainingPrincipal\":251.12,\"discount\":0.005,\"price\":249.87,\"loanHealthInfo\":\"HEALTHY\"," +
+            "\"willExceedLoanInvestmentLimit\":false,\"insuranceActive\":true}";
+
+    @Test
+    void deserialize() throws Exception {
+        try (Jsonb jsonb = JsonbBuilder.create()) {
+            ParticipationImpl participation = jsonb.fromJson(PARTICIPATION_JSON, ParticipationImpl.class);
+            assertSoftly(softly -> {
+                softly.assertThat(participation.getId())
+                    .isEqualTo(1234567);
+                softly.assertThat(participation.getInvestmentId())
+                    .isEqualTo(7654321);
+                softly.assertThat(participation.getLoanId())
+                    .isEqualTo(710354);
+                softly.assertThat(participation.getPurpose())
+                    .isEqualTo(Purpose.REFINANCING);
+                softly.assertThat(participation.getIncomeType())
+                    .isEqualTo(MainIncomeType.EMPLOYMENT);
+                softly.assertThat(participation.getInterestRate())
+                    .isEqualTo(Rating.AAAA.getInterestRate());
+                softly.assertThat(participation.getRemainingInstalmentCount())
+                    .isEqualTo(42);
+                softly.assertThat(participation.getRemainingPrincipal())
+                    .isEqualTo(Money.from("251.12"));
+                softly.assertThat(participation.getDiscount())
+                    .isEqualTo(Ratio.fromRaw("0.005"));
+                softly.assertThat(participation.getPrice())
+                    .isEqualTo(Money.from("249.87"));
+                softly.assertThat(participation.getLoanHealthInfo())
+                    .isEqualTo(LoanHealth.HEALTHY);
+                softly.assertThat(participation.isInsuranceActive())
+                    .isTrue();
+            });
+        }
+    }
+
+    @Test
+    void decodesLazily() throws Exception {
+        try (Jsonb jsonb = JsonbBuilder.create()) {
+            ParticipationImpl participation = jsonb.fromJson(PARTICIPATION_JSON, ParticipationImpl.class);
+            assertThat(participation.price).isEqualTo("249.87");
+            assertThat(participation.getPrice()).isSameAs(participation.getPrice()); // decoded only once
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.security.KeyStoreException;
+import java.time.Duration;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -97,4 +98,45 @@ class KeyStoreHandlerTest {
         assertThat(ksh2.isDirty()).isTrue();
         assertThat(ksh2.get(key)).isEmpty();
     }
+
+    @Test
+    void writeBehind() throws IOException, KeyStoreException {
+        final File f = File.createTempFile("robozonky-", ".keystore");
+        f.delete();
+        final KeyStoreHandler ksh = KeyStoreHandler.create(f, PASSWORD);
+        ksh.enableWriteBehind(Duration.ofHours(1));
+        ksh.set("abc", "def".toCharArray());
+        ksh.requestSave();
+        ksh.set("ghi", "jkl".toCharArray());
+        ksh.requestSave();
+        assertThat(ksh.isDirty()).isTrue();
+        assertThat(KeyStoreHandler.open(f, PASSWORD)
+            .get("abc")).isEmpty(); // Not yet saved.
+        KeyStoreHandler.flushAll();
+        assertThat(ksh.isDirty()).isFalse();
+        final KeyStoreHandler ksh2 = KeyStoreHandler.open(f, PASSWORD);
+        assertThat(ksh2.get("abc")).contains("def".toCharArray());
+        assertThat(ksh2.get("ghi")).contains("jkl".toCharArray());
+        ksh.set("mno", "pqr".toCharArray()); // Changed during shutdown, such as a refreshed token.
+        ksh.requestSave();
+        assertThat(ksh.isDirty()).isFalse(); // Saved immediately.
+        assertThat(KeyStoreHandler.open(f, PASSWORD)
+            .get("mno")).contains("pqr".toCharArray());
+    }
+
+    @Test
+    void writeBehindSavesOnBackground() throws IOException, KeyStoreException, InterruptedException {
+        final File f = File.createTempFile("robozonky-", ".keystore");
+        f.delete();
+        final KeyStoreHandler ksh = KeyStoreHandler.create(f, PASSWORD);
+        ksh.enableWriteBehind(Duration.ofMillis(10));
+        ksh.set("abc", "def".toCharArray());
+        ksh.requestSave();
+        for (int i = 0; i < 50 && ksh.isDirty(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(ksh.isDirty()).isFalse();
+        assertThat(KeyStoreHandler.open(f, PASSWORD)
+            .get("abc")).contains("def".toCharArray());
+    }
 }
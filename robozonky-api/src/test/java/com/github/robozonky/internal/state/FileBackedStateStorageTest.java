@@ -18,12 +18,16 @@ package com.github.robozonky.internal.state;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -50,6 +54,24 @@ class FileBackedStateStorageTest {
         assertThat(s.getValue("section", "key")).isEmpty();
     }
 
+    @Test
+    @DisplayName("Storing null means no value.")
+    void valueNull() {
+        s.setValue("section", "key", null);
+        assertThat(s.getValue("section", "key")).isEmpty();
+        assertThat(s.getKeys("section")).containsOnly("key");
+    }
+
+    @Test
+    @DisplayName("Reads are not affected by later changes.")
+    void readsSnapshot() {
+        s.setValue("section", "key1", "value1");
+        final Stream<String> keys = s.getKeys("section");
+        s.setValue("section", "key2", "value2");
+        assertThat(keys).containsOnly("key1");
+        assertThat(s.getKeys("section")).containsOnly("key1", "key2");
+    }
+
     @Test
     @DisplayName("No sections are available.")
     void sectionsDoNotThrow() {
@@ -88,6 +110,47 @@ class FileBackedStateStorageTest {
                     .toString())).isEmpty();
     }
 
+    @Test
+    @DisplayName("Concurrent modifications of many sections are not lost.")
+    void concurrentModifications() {
+        IntStream.range(0, 1_000)
+            .parallel()
+            .forEach(i -> {
+                final String section = "section" + (i % 10);
+                s.modify(section, () -> {
+                    s.setValue(section, "key" + i, "value" + i);
+                    s.unsetValue(section, "nonexistent");
+                });
+                assertThat(s.getKeys(section)).contains("key" + i); // Reads never see a section being modified.
+            });
+        assertThat(s.getSections()).hasSize(10);
+        assertThat(s.getSections()
+            .flatMap(s::getKeys)).hasSize(1_000);
+        assertThat(s.store()).isTrue();
+        final FileBackedStateStorage s2 = new FileBackedStateStorage(f);
+        assertThat(s2.getValue("section7", "key997")).contains("value997");
+    }
+
+    @Test
+    @DisplayName("Storing while the state is being destroyed and modified does not deadlock.")
+    void concurrentStoreModifyAndDestroy() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> IntStream.range(0, 10_000)
+            .parallel()
+            .forEach(i -> {
+                final String section = "section" + (i % 10);
+                switch (i % 3) {
+                    case 0:
+                        s.destroy();
+                        break;
+                    case 1:
+                        s.store();
+                        break;
+                    default:
+                        s.modify(section, () -> s.setValue(section, "key" + i, "value" + i));
+                }
+            }));
+    }
+
     @AfterEach
     @BeforeEach
     void deleteState() {
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class JournaledStateStorageTest {
+
+    private final File f = new File(UUID.randomUUID()
+        .toString() + ".state");
+    private final JournaledStateStorage s = new JournaledStateStorage(f);
+
+    @AfterEach
+    @BeforeEach
+    void deleteState() {
+        s.destroy();
+    }
+
+    @Test
+    @DisplayName("Storing appends to the journal, does not write the snapshot.")
+    void storeAppendsToJournal() throws IOException {
+        s.setValue("section", "key", "value");
+        assertThat(s.store()).isTrue();
+        assertThat(f).doesNotExist();
+        final long journalSize = Files.size(s.getJournalLocation());
+        assertThat(journalSize).isPositive();
+        assertThat(s.store()).isTrue(); // Nothing new to store.
+        assertThat(Files.size(s.getJournalLocation())).isEqualTo(journalSize);
+        s.setValue("section", "key2", "value2");
+        assertThat(s.store()).isTrue();
+        assertThat(Files.size(s.getJournalLocation())).isGreaterThan(journalSize);
+    }
+
+    @Test
+    @DisplayName("Journal is replayed into a new storage instance.")
+    void survival() {
+        s.setValue("section", "key", "value");
+        s.setValue("section", "key2", "value2");
+        s.setValue("section2", "key", "value");
+        s.setValue("section3", "key", "value");
+        s.store();
+        s.unsetValue("section", "key2");
+        s.unsetValues("section2");
+        s.store();
+        s.setValue("section3", "key", "value3"); // Not stored.
+        final JournaledStateStorage s2 = new JournaledStateStorage(f);
+        assertSoftly(softly -> {
+            softly.assertThat(s2.getValue("section", "key"))
+                .contains("value");
+            softly.assertThat(s2.getKeys("section"))
+                .containsOnly("key");
+            softly.assertThat(s2.getValue("section3", "key"))
+                .contains("value");
+            softly.assertThat(s2.getSections())
+                .containsOnly("section", "section3");
+        });
+    }
+
+    @Test
+    @DisplayName("Incomplete record at the end of the journal is discarded.")
+    void recoversFromTornWrite() throws IOException {
+        s.setValue("section", "key", "value");
+        s.store();
+        final long validSize = Files.size(s.getJournalLocation());
+        s.setValue("section", "key", "value2");
+        s.store();
+        final byte[] journal = Files.readAllBytes(s.getJournalLocation());
+        Files.write(s.getJournalLocation(), Arrays.copyOf(journal, journal.length - 3)); // Simulate crash.
+        final JournaledStateStorage s2 = new JournaledStateStorage(f);
+        assertThat(s2.getValue("section", "key")).contains("value");
+        assertThat(Files.size(s.getJournalLocation())).isEqualTo(validSize);
+        s2.setValue("section", "key", "value3");
+        s2.store();
+        final JournaledStateStorage s3 = new JournaledStateStorage(f);
+        assertThat(s3.getValue("section", "key")).contains("value3");
+    }
+
+    @Test
+    @DisplayName("Corrupted record in the journal stops the replay.")
+    void recoversFromCorruption() throws IOException {
+        s.setValue("section", "key", "value");
+        s.store();
+        Files.write(s.getJournalLocation(), new byte[] { 0, 0, 0, 1, 0, 0, 0, 0, 42 }, StandardOpenOption.APPEND);
+        final JournaledStateStorage s2 = new JournaledStateStorage(f);
+        assertThat(s2.getValue("section", "key")).contains("value");
+        assertThat(s2.getSections()).containsOnly("section");
+    }
+
+    @Test
+    @DisplayName("Journal is compacted into the snapshot once it grows too large.")
+    void compaction() throws IOException {
+        final JournaledStateStorage small = new JournaledStateStorage(f, 100);
+        small.setValue("section", "key", "value");
+        small.store();
+        assertThat(f).doesNotExist();
+        small.setValue("section", "key", UUID.randomUUID()
+            .toString() +
+                UUID.randomUUID()
+                    .toString());
+        small.setValue("section", "key", "value2");
+        small.store();
+        assertThat(f).exists();
+        assertThat(Files.size(small.getJournalLocation())).isZero();
+        small.unsetValue("section", "key");
+        small.setValue("section", "key3", "value3");
+        small.store();
+        final FileBackedStateStorage snapshotOnly = new FileBackedStateStorage(f);
+        assertThat(snapshotOnly.getValue("section", "key")).contains("value2");
+        final JournaledStateStorage s2 = new JournaledStateStorage(f);
+        assertSoftly(softly -> {
+            softly.assertThat(s2.getValue("section", "key"))
+                .isEmpty();
+            softly.assertThat(s2.getValue("section", "key3"))
+                .contains("value3");
+        });
+        small.destroy();
+    }
+
+    @Test
+    @DisplayName("Legacy state file is read and then journaled.")
+    void readsLegacyState() {
+        final FileBackedStateStorage legacy = new FileBackedStateStorage(f);
+        legacy.setValue("section", "key", "value");
+        legacy.store();
+        s.setValue("section", "key2", "value2");
+        s.store();
+        final JournaledStateStorage s2 = new JournaledStateStorage(f);
+        assertThat(s2.getKeys("section")).containsOnly("key", "key2");
+    }
+}
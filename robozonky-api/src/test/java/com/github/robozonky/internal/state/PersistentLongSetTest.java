@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.SessionInfo;
+
+class PersistentLongSetTest {
+
+    private static final String KEY = "key";
+
+    private InstanceState<PersistentLongSetTest> state;
+
+    @BeforeEach
+    void createState() {
+        final SessionInfo sessionInfo = mock(SessionInfo.class);
+        when(sessionInfo.getUsername()).thenReturn("someone@somewhere.cz");
+        state = TenantState.of(sessionInfo)
+            .in(PersistentLongSetTest.class);
+    }
+
+    @AfterEach
+    void deleteState() {
+        TenantState.destroyAll();
+    }
+
+    @Test
+    void persistsOnlyChanges() {
+        final PersistentLongSet set = new PersistentLongSet(state, KEY);
+        set.add(1);
+        set.add(2);
+        set.persist(); // Nothing stored yet, therefore stores the base.
+        final String base = state.getValue(KEY)
+            .orElseThrow();
+        set.add(3);
+        set.remove(1);
+        set.persist();
+        assertThat(state.getValue(KEY)).contains(base); // Untouched.
+        assertThat(state.getValue(KEY + ".1")).isPresent();
+        assertThat(new PersistentLongSet(state, KEY).toArray()).containsExactly(2, 3);
+    }
+
+    @Test
+    void cancelsOutChanges() {
+        final PersistentLongSet set = new PersistentLongSet(state, KEY);
+        set.add(1);
+        set.persist();
+        assertThat(set.add(2)).isTrue();
+        assertThat(set.remove(2)).isTrue();
+        assertThat(set.remove(1)).isTrue();
+        assertThat(set.add(1)).isTrue();
+        set.persist();
+        assertThat(state.getValue(KEY + ".1")).isEmpty(); // Nothing changed.
+        assertThat(new PersistentLongSet(state, KEY).toArray()).containsExactly(1);
+    }
+
+    @Test
+    void compacts() {
+        final PersistentLongSet set = new PersistentLongSet(state, KEY);
+        for (int i = 1; i <= PersistentLongSet.MAX_DELTAS + 3; i++) { // Base, all the deltas, compaction, delta.
+            set.add(i);
+            set.persist();
+        }
+        assertThat(state.getValue(KEY + "." + PersistentLongSet.MAX_DELTAS)).isEmpty();
+        assertThat(state.getValue(KEY + ".1")).isPresent(); // The one after compaction.
+        assertThat(new PersistentLongSet(state, KEY).toArray()).hasSize(PersistentLongSet.MAX_DELTAS + 3);
+    }
+
+    @Test
+    void clears() {
+        final PersistentLongSet set = new PersistentLongSet(state, KEY);
+        set.add(1);
+        set.persist();
+        set.add(2);
+        set.persist();
+        set.clear();
+        assertThat(state.getKeys()).doesNotContain(KEY, KEY + ".1");
+        assertThat(new PersistentLongSet(state, KEY).isEmpty()).isTrue();
+    }
+
+    @Test
+    void readsLegacyValue() {
+        state.update(m -> m.put(KEY, "1;2;3"));
+        final PersistentLongSet set = new PersistentLongSet(state, KEY);
+        assertThat(set.toArray()).containsExactly(1, 2, 3);
+        set.remove(2);
+        set.persist();
+        assertThat(new PersistentLongSet(state, KEY).toArray()).containsExactly(1, 3);
+    }
+}
@@ -17,8 +17,12 @@
 package com.github.robozonky.internal.state;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.*;
 
+import java.io.File;
+import java.time.Duration;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.internal.Settings;
 
 @ExtendWith(MockitoExtension.class)
 class TenantStateTest {
@@ -65,6 +70,54 @@ class TenantStateTest {
         assertThat(is.getValue("a")).isEmpty();
     }
 
+    @AfterEach
+    void resetCommitWindow() {
+        System.clearProperty(Settings.Key.STATE_COMMIT_WINDOW.getName());
+    }
+
+    private static void enableCommitWindow() {
+        System.setProperty(Settings.Key.STATE_COMMIT_WINDOW.getName(), "500");
+    }
+
+    @Test
+    void storesImmediatelyByDefault() {
+        final TenantState ts = TenantState.of(sessionInfo);
+        final InstanceState<TenantStateTest> is = ts.in(TenantStateTest.class);
+        final File stateFile = new File("robozonky-" + TenantState.encode(sessionInfo.getUsername()) + ".state");
+        is.update(m -> m.put("a", "b"));
+        assertThat(stateFile).exists();
+    }
+
+    @Test
+    void groupCommit() {
+        enableCommitWindow();
+        final TenantState ts = TenantState.of(sessionInfo);
+        final InstanceState<TenantStateTest> is = ts.in(TenantStateTest.class);
+        final File stateFile = new File("robozonky-" + TenantState.encode(sessionInfo.getUsername()) + ".state");
+        is.update(m -> m.put("a", "b"));
+        is.update(m -> m.put("c", "d"));
+        assertThat(stateFile).doesNotExist(); // Not yet stored.
+        assertThat(is.getValue("a")).contains("b"); // But already visible.
+        is.flush();
+        assertThat(stateFile).exists();
+        assertThat(new FileBackedStateStorage(stateFile).getKeys(TenantStateTest.class.getName()))
+            .contains("a", "c");
+    }
+
+    @Test
+    void groupCommitEventuallyStores() {
+        enableCommitWindow();
+        final TenantState ts = TenantState.of(sessionInfo);
+        final InstanceState<TenantStateTest> is = ts.in(TenantStateTest.class);
+        final File stateFile = new File("robozonky-" + TenantState.encode(sessionInfo.getUsername()) + ".state");
+        is.update(m -> m.put("a", "b"));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (!stateFile.exists()) {
+                Thread.sleep(10);
+            }
+        });
+    }
+
     @Test
     void encode() {
         final String hashed = TenantState.encode("The quick brown fox jumps over the lazy dog.");
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class LongSetTest {
+
+    @Test
+    void addAndRemove() {
+        final LongSet set = new LongSet();
+        assertThat(set.isEmpty()).isTrue();
+        for (long i = 100; i > 0; i--) {
+            assertThat(set.add(i)).isTrue();
+        }
+        assertThat(set.add(50)).isFalse();
+        assertThat(set.size()).isEqualTo(100);
+        assertThat(set.contains(1)).isTrue();
+        assertThat(set.contains(101)).isFalse();
+        assertThat(set.remove(50)).isTrue();
+        assertThat(set.remove(50)).isFalse();
+        assertThat(set.contains(50)).isFalse();
+        assertThat(set.toArray()).startsWith(1, 2, 3)
+            .endsWith(98, 99, 100)
+            .hasSize(99);
+    }
+
+    @Test
+    void bulkOperations() {
+        final LongSet set = LongSet.of(5, 3, 1, 3);
+        assertThat(set.toArray()).containsExactly(1, 3, 5);
+        set.addAll(LongSet.of(2, 3, 4));
+        assertThat(set.toArray()).containsExactly(1, 2, 3, 4, 5);
+        set.removeAll(LongSet.of(1, 5, 6));
+        assertThat(set.toArray()).containsExactly(2, 3, 4);
+        set.clear();
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test
+    void encodesAndDecodes() {
+        final LongSet set = LongSet.of(Long.MIN_VALUE, -1, 0, 1, 123_456_789, Long.MAX_VALUE);
+        final String encoded = set.encode();
+        assertThat(encoded).doesNotContain(";");
+        assertThat(LongSet.decode(encoded)).isEqualTo(set);
+        assertThat(LongSet.decode(new LongSet().encode())).isEqualTo(new LongSet());
+    }
+
+    @Test
+    void encodingIsCompact() {
+        final LongSet set = LongSet.of(LongStream.range(1_000_000, 1_001_000));
+        final String legacy = set.stream()
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining(";"));
+        assertThat(set.encode()
+            .length()).isLessThan(legacy.length() / 4);
+    }
+
+    @Test
+    void decodesLegacyFormat() {
+        assertThat(LongSet.decode("3;1; 2;")).isEqualTo(LongSet.of(1, 2, 3));
+        assertThat(LongSet.decode("")).isEqualTo(new LongSet());
+    }
+}
@@ -41,4 +41,12 @@ public class MoneyAdapterTest {
             .isSameAs(Money.ZERO);
     }
 
+    @Test
+    void unmarshalInterned() {
+        Money first = adapter.adaptFromJson("200.00");
+        Money second = new MoneyAdapter().adaptFromJson("200.00");
+        Assertions.assertThat(second)
+            .isSameAs(first);
+    }
+
 }
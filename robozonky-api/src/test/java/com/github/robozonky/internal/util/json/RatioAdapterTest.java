@@ -41,4 +41,12 @@ public class RatioAdapterTest {
             .isSameAs(Ratio.ZERO);
     }
 
+    @Test
+    void unmarshalInterned() {
+        Ratio first = adapter.adaptFromJson("0.0499");
+        Ratio second = new RatioAdapter().adaptFromJson("0.0499");
+        Assertions.assertThat(second)
+            .isSameAs(first);
+    }
+
 }
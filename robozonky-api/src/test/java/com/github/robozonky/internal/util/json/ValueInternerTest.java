@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ValueInternerTest {
+
+    @Test
+    void convertsOnlyOnce() {
+        final AtomicInteger conversions = new AtomicInteger(0);
+        final ValueInterner<BigDecimal> interner = new ValueInterner<>(raw -> {
+            conversions.incrementAndGet();
+            return new BigDecimal(raw);
+        }, 10);
+        final BigDecimal first = interner.intern("1.00");
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(interner.intern("1.00")).isSameAs(first);
+        }
+        assertThat(conversions).hasValue(1); // No new garbage for values already seen.
+    }
+
+    @Test
+    void keepsValuesInUse() {
+        final ValueInterner<BigDecimal> interner = new ValueInterner<>(BigDecimal::new, 10);
+        final BigDecimal hot = interner.intern("1.00");
+        for (int i = 0; i < 100; i++) {
+            interner.intern(i + ".01"); // Each used only once.
+            assertThat(interner.intern("1.00")).isSameAs(hot);
+            assertThat(interner.size()).isLessThanOrEqualTo(10);
+        }
+    }
+
+    @Test
+    void internsConcurrently() throws Exception {
+        final int threads = 8;
+        final ValueInterner<BigDecimal> interner = new ValueInterner<>(BigDecimal::new, 1_000);
+        final Set<BigDecimal> seen = ConcurrentHashMap.newKeySet();
+        final List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    seen.add(interner.intern(String.valueOf(i % 100)));
+                }
+                return null;
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(interner.size()).isEqualTo(100);
+        assertThat(seen).hasSizeLessThanOrEqualTo(100 + threads); // Only racing first conversions may differ.
+    }
+
+}
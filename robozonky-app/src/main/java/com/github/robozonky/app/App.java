@@ -25,6 +25,9 @@ import org.apache.logging.log4j.Logger;
 import com.github.robozonky.app.events.Events;
 import com.github.robozonky.app.events.impl.EventFactory;
 import com.github.robozonky.app.runtime.Lifecycle;
+import com.github.robozonky.internal.extensions.ListenerServiceLoader;
+import com.github.robozonky.internal.secrets.KeyStoreHandler;
+import com.github.robozonky.internal.state.TenantState;
 
 /**
  * You are required to exit this app by calling {@link #exit(ReturnCode)}.
@@ -81,6 +84,9 @@ public class App implements Runnable {
         Events.global()
             .fire(EventFactory.roboZonkyStarting());
         shutdownHooks.register(() -> Optional.of(r -> LogManager.shutdown()));
+        shutdownHooks.register(() -> Optional.of(r -> TenantState.flushAll())); // Before logging is shut down.
+        shutdownHooks.register(() -> Optional.of(r -> KeyStoreHandler.flushAll()));
+        shutdownHooks.register(() -> Optional.of(r -> ListenerServiceLoader.flushAll())); // After the final event.
         shutdownHooks.register(new RoboZonkyStartupNotifier(m.getSessionInfo()));
         final ReturnCode code = m.get();
         // trigger all shutdown hooks in reverse order, before the token is closed after exiting this method
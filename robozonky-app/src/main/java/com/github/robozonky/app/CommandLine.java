@@ -18,11 +18,17 @@ package com.github.robozonky.app;
 
 import static picocli.CommandLine.Command;
 import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Spec;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
@@ -31,15 +37,21 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
 import com.github.robozonky.app.daemon.Daemon;
+import com.github.robozonky.app.daemon.MultiTenantDaemon;
 import com.github.robozonky.app.events.Events;
 import com.github.robozonky.app.events.SessionEvents;
 import com.github.robozonky.app.runtime.Lifecycle;
 import com.github.robozonky.app.tenant.PowerTenant;
 import com.github.robozonky.app.tenant.TenantBuilder;
 import com.github.robozonky.internal.extensions.ListenerServiceLoader;
+import com.github.robozonky.internal.remote.ApiProvider;
+import com.github.robozonky.internal.remote.SharedHttpClient;
 import com.github.robozonky.internal.secrets.SecretProvider;
 import com.github.robozonky.internal.util.UrlUtil;
 
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.ParameterException;
+
 /**
  * Converts command line into application configuration using {@link picocli.CommandLine}.
  */
@@ -48,7 +60,7 @@ class CommandLine implements Callable<Optional<Function<Lifecycle, InvestmentMod
 
     private static final Logger LOGGER = LogManager.getLogger(CommandLine.class);
     @Option(names = { "-s",
-            "--strategy" }, required = true, description = "Points to a resource holding the investment strategy configuration.")
+            "--strategy" }, description = "Points to a resource holding the investment strategy configuration. Required unless --tenants is given.")
     String strategyLocation = "";
     @Option(names = { "-h", "--help" }, usageHelp = true, description = "Print usage end exit.")
     private boolean help;
@@ -57,14 +69,19 @@ class CommandLine implements Callable<Optional<Function<Lifecycle, InvestmentMod
     @Option(names = { "-n", "--name" }, description = "Name of this RoboZonky session.")
     private String name = "Unnamed";
     @Option(names = { "-p",
-            "--password" }, required = true, interactive = true, arity = "0..1", description = "Enter password for the secure storage file.")
+            "--password" }, interactive = true, arity = "0..1", description = "Enter password for the secure storage file. Required; with --tenants, it is used for every tenant which does not specify its own.")
     private char[] password = null;
     @Option(names = { "-d",
             "--dry" }, description = "RoboZonky will simulate investments, but never actually spend money.")
     private boolean dryRunEnabled = false;
     @Option(names = { "-g",
-            "--guarded" }, description = "Path to secure storage file that contains various secrets.", required = true)
+            "--guarded" }, description = "Path to secure storage file that contains various secrets. Required unless --tenants is given.")
     private File keystore = null;
+    @Option(names = { "-t",
+            "--tenants" }, description = "Directory with one command-line file (*.cli) per Zonky account, all of which will run in this JVM. Strategy, notifications, name, dry run and secure storage are then read from those files.")
+    private File tenantDirectory = null;
+    @Spec
+    private CommandSpec spec;
 
     public CommandLine() {
         // for backwards compatibility with RoboZonky 4.x, which used JCommander
@@ -88,10 +105,18 @@ class CommandLine implements Callable<Optional<Function<Lifecycle, InvestmentMod
         return Objects.isNull(result) ? Optional.empty() : result;
     }
 
-    private static PowerTenant getTenant(final CommandLine cli, final SecretProvider secrets) {
+    /**
+     *
+     * @param cli     Configuration of the tenant.
+     * @param secrets Secrets of the tenant.
+     * @param api     Null if the tenant should have an API provider of its own.
+     * @return never null
+     */
+    private static PowerTenant getTenant(final CommandLine cli, final SecretProvider secrets, final ApiProvider api) {
         return new TenantBuilder().withSecrets(secrets)
             .withStrategy(cli.strategyLocation)
             .named(cli.name)
+            .withApi(api)
             .build(cli.dryRunEnabled);
     }
 
@@ -123,19 +148,120 @@ class CommandLine implements Callable<Optional<Function<Lifecycle, InvestmentMod
         return Optional.ofNullable(keystore);
     }
 
+    Optional<File> getTenantDirectory() {
+        return Optional.ofNullable(tenantDirectory);
+    }
+
     String getName() {
         return name;
     }
 
     private InvestmentMode configure(final SecretProvider secrets, final Lifecycle lifecycle) {
-        final PowerTenant tenant = getTenant(this, secrets);
+        final PowerTenant tenant = getTenant(this, secrets, null);
         configureNotifications(this, tenant);
         // and now initialize the chosen mode of operation
         return new Daemon(tenant, lifecycle);
     }
 
+    private static InvestmentMode configure(final List<CommandLine> clis, final List<SecretProvider> secrets,
+            final Lifecycle lifecycle) {
+        final SharedHttpClient httpClient = new SharedHttpClient(clis.size());
+        final List<PowerTenant> tenants = new ArrayList<>(clis.size());
+        for (int i = 0; i < clis.size(); i++) {
+            final CommandLine cli = clis.get(i);
+            final PowerTenant tenant = getTenant(cli, secrets.get(i), httpClient.newApiProvider(cli.name));
+            configureNotifications(cli, tenant);
+            tenants.add(tenant);
+        }
+        return new MultiTenantDaemon(tenants, httpClient, lifecycle);
+    }
+
+    private void validate() {
+        if (password == null) {
+            throw new ParameterException(spec.commandLine(), "Missing required option: '--password'.");
+        } else if (keystore == null) {
+            throw new ParameterException(spec.commandLine(), "Missing required option: '--guarded'.");
+        } else if (strategyLocation.isBlank()) {
+            throw new ParameterException(spec.commandLine(), "Missing required option: '--strategy'.");
+        }
+    }
+
+    /**
+     * Each tenant file holds the same options as the command line of a single-tenant RoboZonky. Unless set in the
+     * file, the tenant is named after the file and uses the password given on the command line.
+     *
+     * @param file Tenant configuration.
+     * @return never null
+     */
+    private CommandLine parseTenant(final File file) {
+        final CommandLine tenant = new CommandLine();
+        tenant.name = file.getName()
+            .replaceFirst("\\.cli$", "");
+        try {
+            new picocli.CommandLine(tenant).parseArgs("@" + file.getAbsolutePath());
+            if (tenant.tenantDirectory != null) {
+                throw new ParameterException(spec.commandLine(), "Option '--tenants' not allowed here.");
+            }
+            if (tenant.password == null) {
+                tenant.password = password.clone();
+            }
+            tenant.validate();
+            return tenant;
+        } catch (final ParameterException ex) {
+            throw new ParameterException(spec.commandLine(), "Wrong tenant file " + file + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private List<CommandLine> parseTenants() {
+        if (keystore != null || !strategyLocation.isBlank()) {
+            throw new ParameterException(spec.commandLine(),
+                    "Options '--guarded' and '--strategy' must go to the tenant files when using '--tenants'.");
+        }
+        final File[] files = tenantDirectory.listFiles((dir, fileName) -> fileName.endsWith(".cli"));
+        if (files == null || files.length == 0) {
+            throw new ParameterException(spec.commandLine(), "No tenant files (*.cli) found in " + tenantDirectory);
+        }
+        Arrays.sort(files); // tenants are always scheduled in the same order
+        try {
+            final List<CommandLine> tenants = new ArrayList<>(files.length);
+            for (final File file : files) {
+                tenants.add(parseTenant(file));
+            }
+            return tenants;
+        } finally {
+            Arrays.fill(password, ' '); // every tenant has its own copy
+        }
+    }
+
+    private Optional<Function<Lifecycle, InvestmentMode>> callMultiTenant() {
+        if (password == null) {
+            throw new ParameterException(spec.commandLine(), "Missing required option: '--password'.");
+        }
+        final List<CommandLine> clis = parseTenants();
+        final List<SecretProvider> secrets = new ArrayList<>(clis.size());
+        final Set<String> usernames = new HashSet<>(clis.size());
+        for (final CommandLine cli : clis) {
+            final Optional<SecretProvider> tenantSecrets = SecretProviderFactory.getSecretProvider(cli);
+            if (tenantSecrets.isEmpty()) {
+                return Optional.empty();
+            }
+            final SecretProvider s = tenantSecrets.get();
+            if (!usernames.add(s.getUsername())) {
+                LOGGER.error("Zonky account {} is configured by more than one tenant.", s.getUsername());
+                return Optional.empty();
+            }
+            secrets.add(s);
+        }
+        LOGGER.debug("Configured {} tenants.", clis.size());
+        return Optional.of(l -> configure(clis, secrets, l));
+    }
+
     @Override
     public Optional<Function<Lifecycle, InvestmentMode>> call() {
+        if (tenantDirectory != null) {
+            return callMultiTenant();
+        }
+        validate();
         return SecretProviderFactory.getSecretProvider(this)
             .map(s -> l -> configure(s, l));
     }
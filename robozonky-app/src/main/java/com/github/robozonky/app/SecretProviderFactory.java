@@ -22,6 +22,7 @@ import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.secrets.KeyStoreHandler;
 import com.github.robozonky.internal.secrets.SecretProvider;
 
@@ -45,6 +46,7 @@ final class SecretProviderFactory {
                 final char[] password = cli.getPassword();
                 try {
                     final KeyStoreHandler ksh = KeyStoreHandler.open(keystore, password);
+                    ksh.enableWriteBehind(Settings.INSTANCE.getKeyStoreSaveWindow()); // Flushed on shutdown.
                     return Optional.of(SecretProvider.keyStoreBased(ksh));
                 } catch (final Exception ex) {
                     LOGGER.error("Failed opening guarded storage.", ex);
@@ -17,6 +17,8 @@
 package com.github.robozonky.app.daemon;
 
 import java.time.Duration;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,6 +28,7 @@ import com.github.robozonky.app.InvestmentMode;
 import com.github.robozonky.app.ReturnCode;
 import com.github.robozonky.app.runtime.Lifecycle;
 import com.github.robozonky.app.tenant.PowerTenant;
+import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.async.Scheduler;
 import com.github.robozonky.internal.extensions.JobServiceLoader;
 import com.github.robozonky.internal.test.DateUtil;
@@ -33,18 +36,36 @@ import com.github.robozonky.internal.test.DateUtil;
 public class Daemon implements InvestmentMode {
 
     private static final Logger LOGGER = LogManager.getLogger(Daemon.class);
+    /**
+     * Marketplace polls need to keep their cadence regardless of how long the HTTP requests take.
+     */
+    private static final Set<Class<?>> FIXED_RATE_TYPES = Set.of(InvestingSession.class, PurchasingSession.class);
     private final PowerTenant tenant;
     private final Lifecycle lifecycle;
     private final Scheduler scheduler;
+    private final Consumer<Throwable> onFailure;
 
     public Daemon(final PowerTenant tenant, final Lifecycle lifecycle) {
         this(tenant, lifecycle, Scheduler.create());
     }
 
     Daemon(final PowerTenant tenant, final Lifecycle lifecycle, Scheduler scheduler) {
+        this(tenant, lifecycle, scheduler, t -> lifecycle.resumeToFail(t));
+    }
+
+    /**
+     *
+     * @param tenant    The tenant to run.
+     * @param lifecycle Will be suspended until the app is asked to stop.
+     * @param scheduler Where to schedule the tenant's tasks; will be closed with the daemon.
+     * @param onFailure Called when one of the tenant's tasks fails irrecoverably.
+     */
+    Daemon(final PowerTenant tenant, final Lifecycle lifecycle, final Scheduler scheduler,
+            final Consumer<Throwable> onFailure) {
         this.tenant = tenant;
         this.lifecycle = lifecycle;
         this.scheduler = scheduler;
+        this.onFailure = onFailure;
     }
 
     private void scheduleDaemons(final Scheduler executor) { // run investing and purchasing daemons
@@ -75,7 +96,12 @@ public class Daemon implements InvestmentMode {
                 + ", repeating after " + repeatAfter
                 + ". Optional timeout of " + timeout + ".");
         final Runnable payload = new Skippable(r, type, tenant, this::triggerShutdownDueToFailure);
-        executor.submit(payload, repeatAfter, initialDelay, timeout);
+        if (FIXED_RATE_TYPES.contains(type)) {
+            executor.submitAtFixedRate(type.getSimpleName(), payload, repeatAfter, initialDelay, timeout,
+                    Settings.INSTANCE.getSchedulerMaxJitter());
+        } else {
+            executor.submit(type.getSimpleName(), payload, repeatAfter, initialDelay, timeout);
+        }
     }
 
     void submitTenantless(final Scheduler executor, final Runnable r, final Class<?> type, final Duration repeatAfter,
@@ -87,22 +113,33 @@ public class Daemon implements InvestmentMode {
                 + ", repeating after " + repeatAfter
                 + ". Optional timeout of " + timeout + ".");
         final Runnable payload = new SimpleSkippable(r, type, this::triggerShutdownDueToFailure);
-        executor.submit(payload, repeatAfter, initialDelay, timeout);
+        executor.submit(type.getSimpleName(), payload, repeatAfter, initialDelay, timeout);
     }
 
     private void triggerShutdownDueToFailure(final Throwable throwable) {
-        lifecycle.resumeToFail(throwable);
+        onFailure.accept(throwable);
     }
 
-    private void scheduleJobs() {
+    void scheduleSimpleJobs() {
         LOGGER.debug("Scheduling simple batch jobs.");
         JobServiceLoader.loadSimpleJobs()
             .forEach(j -> submitTenantless(scheduler, j.payload(), j.getClass(), j.repeatEvery(),
                     j.startIn(), j.killIn()));
+    }
+
+    /**
+     * Schedules everything that is specific to the tenant, leaving out the simple jobs.
+     */
+    void scheduleTenant() {
+        scheduleTenantJobs();
+        scheduleDaemons(scheduler);
+    }
+
+    private void scheduleTenantJobs() {
         LOGGER.debug("Scheduling tenant-based batch jobs.");
         JobServiceLoader.loadTenantJobs()
             .forEach(j -> submitWithTenant(scheduler, () -> j.payload()
-                .accept(tenant), j.getClass(),
+                .accept(tenant, scheduler.getExecutor()), j.getClass(),
                     j.repeatEvery(), j.startIn(), j.killIn()));
         LOGGER.debug("Job scheduling over.");
     }
@@ -116,8 +153,8 @@ public class Daemon implements InvestmentMode {
     public ReturnCode get() {
         try {
             // schedule the tasks
-            scheduleJobs();
-            scheduleDaemons(scheduler);
+            scheduleSimpleJobs();
+            scheduleTenant();
             // block until request to stop the app is received
             lifecycle.suspend();
             LOGGER.trace("Request to stop received.");
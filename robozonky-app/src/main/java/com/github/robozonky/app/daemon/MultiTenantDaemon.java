@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.app.InvestmentMode;
+import com.github.robozonky.app.ReturnCode;
+import com.github.robozonky.app.runtime.Lifecycle;
+import com.github.robozonky.app.tenant.PowerTenant;
+import com.github.robozonky.internal.async.Scheduler;
+import com.github.robozonky.internal.extensions.JobServiceLoader;
+import com.github.robozonky.internal.remote.SharedHttpClient;
+
+/**
+ * Runs many tenants in one JVM. Each tenant gets its own {@link Daemon}, but they all share one {@link Scheduler},
+ * one {@link SharedHttpClient} and the event executor. Simple batch jobs, which do not depend on the tenant, only run
+ * once for all of them.
+ * <p>
+ * A tenant failing irrecoverably only stops that tenant; the app is only stopped when there are no tenants left.
+ */
+public class MultiTenantDaemon implements InvestmentMode {
+
+    private static final Logger LOGGER = LogManager.getLogger(MultiTenantDaemon.class);
+    private final List<PowerTenant> tenants;
+    private final List<Daemon> daemons;
+    private final List<Scheduler> tenantSchedulers;
+    private final Lifecycle lifecycle;
+    private final Scheduler scheduler;
+    private final SharedHttpClient httpClient;
+    private final AtomicInteger tenantsRunning;
+    private final Set<PowerTenant> stopped = ConcurrentHashMap.newKeySet();
+
+    public MultiTenantDaemon(final List<PowerTenant> tenants, final SharedHttpClient httpClient,
+            final Lifecycle lifecycle) {
+        this(tenants, httpClient, lifecycle, Scheduler.create());
+    }
+
+    MultiTenantDaemon(final List<PowerTenant> tenants, final SharedHttpClient httpClient, final Lifecycle lifecycle,
+            final Scheduler scheduler) {
+        if (tenants.isEmpty()) {
+            throw new IllegalArgumentException("No tenants given.");
+        }
+        this.tenants = List.copyOf(tenants);
+        this.httpClient = httpClient;
+        this.lifecycle = lifecycle;
+        this.scheduler = scheduler;
+        this.tenantsRunning = new AtomicInteger(tenants.size());
+        var tenantCount = tenants.size();
+        this.daemons = new ArrayList<>(tenantCount);
+        this.tenantSchedulers = new ArrayList<>(tenantCount);
+        for (var i = 0; i < tenantCount; i++) {
+            var tenant = tenants.get(i);
+            var tenantScheduler = scheduler.forTenant(tenant.getSessionInfo()
+                .getName(), i, tenantCount);
+            tenantSchedulers.add(tenantScheduler);
+            daemons.add(new Daemon(tenant, lifecycle, tenantScheduler, t -> stopTenant(tenant, tenantScheduler, t)));
+        }
+    }
+
+    void stopTenant(final PowerTenant tenant, final Scheduler tenantScheduler, final Throwable throwable) {
+        if (!stopped.add(tenant)) { // Already stopped by another of its tasks.
+            return;
+        }
+        LOGGER.error("Stopping '{}' due to an unrecoverable failure.", tenant.getSessionInfo()
+            .getName(), throwable);
+        try {
+            tenantScheduler.close();
+        } catch (final Exception ex) {
+            LOGGER.debug("Failed stopping the tenant's tasks.", ex);
+        }
+        if (tenantsRunning.decrementAndGet() == 0) {
+            lifecycle.resumeToFail(throwable);
+        }
+    }
+
+    void scheduleSimpleJobs() {
+        LOGGER.debug("Scheduling simple batch jobs.");
+        JobServiceLoader.loadSimpleJobs()
+            .forEach(j -> scheduler.submit(j.getClass()
+                .getSimpleName(), new SimpleSkippable(j.payload(), j.getClass(), lifecycle::resumeToFail),
+                    j.repeatEvery(), j.startIn(), j.killIn()));
+    }
+
+    List<Scheduler> getTenantSchedulers() {
+        return tenantSchedulers;
+    }
+
+    /**
+     * The startup banner and messages only have room for one session, so this is the first tenant's.
+     *
+     * @return never null
+     */
+    @Override
+    public SessionInfo getSessionInfo() {
+        return tenants.get(0)
+            .getSessionInfo();
+    }
+
+    @Override
+    public ReturnCode get() {
+        try {
+            LOGGER.info("Running {} tenants.", daemons.size());
+            scheduleSimpleJobs();
+            daemons.forEach(Daemon::scheduleTenant);
+            lifecycle.suspend();
+            LOGGER.trace("Request to stop received.");
+            return (lifecycle.isFailed()) ? ReturnCode.ERROR_UNEXPECTED : ReturnCode.OK;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var daemon : daemons) {
+            try {
+                daemon.close();
+            } catch (final Exception ex) {
+                LOGGER.debug("Failed closing {}.", daemon, ex);
+            }
+        }
+        scheduler.close();
+        httpClient.close();
+    }
+}
@@ -19,7 +19,12 @@ package com.github.robozonky.app.daemon;
 import static com.github.robozonky.app.events.impl.EventFactory.investmentSold;
 import static com.github.robozonky.app.events.impl.EventFactory.investmentSoldLazy;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -34,13 +39,8 @@ final class SaleCheck implements TenantPayload {
 
     private static final Logger LOGGER = LogManager.getLogger(SaleCheck.class);
 
-    private synchronized Optional<Investment> retrieveInvestmentIfSold(final SoldParticipationCache cache,
-            final Tenant tenant, final long investmentId) {
-        // Don't use the cached version here, we need to know the very latest info.
-        var investment = tenant.call(z -> z.getInvestment(investmentId));
-        if (investment == null) {
-            throw new IllegalStateException("Investment #" + investmentId + " not found.");
-        }
+    private static Optional<Investment> checkIfSold(final SoldParticipationCache cache, final Investment investment) {
+        var investmentId = investment.getId();
         var loanId = investment.getLoan()
             .getId();
         switch (investment.getSellStatus()) {
@@ -57,11 +57,38 @@ final class SaleCheck implements TenantPayload {
         }
     }
 
+    /**
+     * Don't use the cached version here, we need to know the very latest info. All the offered investments are
+     * retrieved at once, in as few requests as possible.
+     *
+     * @param tenant  Tenant to retrieve the investments for.
+     * @param offered IDs of investments which are being offered on the secondary marketplace.
+     * @return Investments in the same order as the IDs.
+     */
+    private static List<Investment> retrieve(final Tenant tenant, final long[] offered) {
+        final Map<Long, Investment> byId = tenant.call(z -> z.getInvestmentsById(offered))
+            .collect(Collectors.toMap(Investment::getId, Function.identity(), (a, b) -> a));
+        return LongStream.of(offered)
+            .mapToObj(investmentId -> {
+                final Investment investment = byId.get(investmentId);
+                if (investment == null) {
+                    throw new IllegalStateException("Investment #" + investmentId + " not found.");
+                }
+                return investment;
+            })
+            .collect(Collectors.toList());
+    }
+
     @Override
-    public void accept(final Tenant tenant) {
+    public synchronized void accept(final Tenant tenant) {
         final SoldParticipationCache cache = SoldParticipationCache.forTenant(tenant);
-        cache.getOffered()
-            .mapToObj(investmentId -> retrieveInvestmentIfSold(cache, tenant, investmentId))
+        final long[] offered = cache.getOffered()
+            .toArray();
+        if (offered.length == 0) {
+            return;
+        }
+        retrieve(tenant, offered).stream()
+            .map(investment -> checkIfSold(cache, investment))
             .flatMap(Optional::stream)
             .forEach(sold -> ((PowerTenant) tenant).fire(investmentSoldLazy(() -> {
                 final Loan l = tenant.getLoan(sold.getLoan()
@@ -16,17 +16,13 @@
 
 package com.github.robozonky.app.daemon;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Set;
 import java.util.function.ToLongFunction;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.PersistentLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 
 /**
@@ -44,9 +40,8 @@ import com.github.robozonky.internal.tenant.Tenant;
 final class SessionState<T> {
 
     private static final Logger LOGGER = LogManager.getLogger(SessionState.class);
-    private static final long[] NO_LONGS = new long[0];
     private final boolean isEnabled;
-    private final Collection<Long> items;
+    private final PersistentLongSet items;
     private final ToLongFunction<T> idSupplier;
     private final String key;
     private final InstanceState<SessionState> state;
@@ -65,43 +60,25 @@ final class SessionState<T> {
         this.state = tenant.getState(SessionState.class);
         this.key = key;
         this.idSupplier = idSupplier;
-        this.items = isEnabled ? read() : Collections.emptyList(); // Only do work in dry run.
+        this.items = isEnabled ? new PersistentLongSet(state, key) : null; // Only do work in dry run.
         LOGGER.debug("'{}' contains {}.", key, items);
     }
 
-    private Set<Long> read() {
-        var result = state.getValues(key)
-            .map(s -> s.mapToLong(Long::parseLong)
-                .toArray())
-            .orElse(NO_LONGS);
-        LOGGER.trace("'{}' read {}.", key, result);
-        return LongStream.of(result)
-            .boxed()
-            .collect(Collectors.toSet());
-    }
-
-    private void write(final Collection<Long> items) {
-        if (items.isEmpty()) {
-            state.update(c -> c.remove(key));
-        } else {
-            state.update(b -> b.put(key, items.stream()
-                .map(String::valueOf)));
-        }
-        var value = state.getValue(key)
-            .orElse("nothing");
-        LOGGER.trace("'{}' wrote '{}'.", key, value);
-    }
-
     /**
-     * Immediately writes the item to the underlying storage.
+     * Immediately writes the item to the underlying storage, unless it was already stored.
      * 
      * @param item
      */
     public synchronized void put(final T item) {
         if (isEnabled) { // Only do work in dry run.
-            items.add(idSupplier.applyAsLong(item));
+            if (items.add(idSupplier.applyAsLong(item))) {
+                items.persist();
+                LOGGER.trace("'{}' wrote {}.", key, items);
+            }
+        } else if (state.getValue(key)
+            .isPresent()) { // But remove the stale dry run data, if any.
+            new PersistentLongSet(state, key).clear();
         }
-        write(items); // But store the results anyway, so that the stale dry run data is removed.
     }
 
     /**
@@ -110,7 +87,7 @@ final class SessionState<T> {
      * @param item
      */
     public synchronized boolean contains(final T item) {
-        return items.contains(idSupplier.applyAsLong(item));
+        return isEnabled && items.contains(idSupplier.applyAsLong(item));
     }
 
     @Override
@@ -18,12 +18,8 @@ package com.github.robozonky.app.daemon;
 
 import java.time.Duration;
 import java.util.Map;
-import java.util.Set;
 import java.util.WeakHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,7 +29,9 @@ import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.internal.async.Reloadable;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.PersistentLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
+import com.github.robozonky.internal.util.LongSet;
 
 final class SoldParticipationCache {
 
@@ -41,24 +39,22 @@ final class SoldParticipationCache {
     private static final Map<SessionInfo, SoldParticipationCache> INSTANCES = new WeakHashMap<>(0);
     private static final String KEY = "offeredButNotYetSeenSold";
 
-    private final InstanceState<SoldParticipationCache> state;
-    private final Set<Long> listedSoldLocally = new CopyOnWriteArraySet<>();
-    private final Reloadable<Set<Long>> listedSoldRemotely;
+    private final PersistentLongSet offered;
+    private final LongSet listedSoldLocally = new LongSet();
+    private final Reloadable<LongSet> listedSoldRemotely;
 
     private SoldParticipationCache(final Tenant tenant) {
-        this.state = tenant.getState(SoldParticipationCache.class);
+        final InstanceState<SoldParticipationCache> state = tenant.getState(SoldParticipationCache.class);
+        this.offered = new PersistentLongSet(state, KEY);
         this.listedSoldRemotely = Reloadable.with(() -> retrieveSoldParticipationIds(tenant))
             .reloadAfter(Duration.ofMinutes(5))
             .async() // Don't block for this.
             .build();
     }
 
-    private static Set<Long> retrieveSoldParticipationIds(final Tenant tenant) {
-        return tenant.call(Zonky::getSoldInvestments)
-            .mapToLong(Investment::getId)
-            .distinct()
-            .boxed()
-            .collect(Collectors.toSet());
+    private static LongSet retrieveSoldParticipationIds(final Tenant tenant) {
+        return LongSet.of(tenant.call(Zonky::getSoldInvestments)
+            .mapToLong(Investment::getId));
     }
 
     private static SoldParticipationCache newCache(final Tenant tenant) {
@@ -77,33 +73,32 @@ final class SoldParticipationCache {
     }
 
     public synchronized LongStream getOffered() {
-        return state.getValues(KEY)
-            .orElse(Stream.empty())
-            .mapToLong(Long::parseLong);
-    }
-
-    private synchronized void setOffered(final LongStream values) {
-        state.update(m -> m.put(KEY, values.mapToObj(String::valueOf)));
+        return offered.stream();
     }
 
     public synchronized void unmarkAsOffered(final long investmentId) {
-        setOffered(getOffered().filter(i -> i != investmentId));
+        if (offered.remove(investmentId)) {
+            offered.persist();
+        }
     }
 
-    public void markAsOffered(final long investmentId) {
-        final LongStream existingValue = getOffered();
-        final LongStream newValues = LongStream.concat(existingValue, LongStream.of(investmentId))
-            .distinct();
-        setOffered(newValues);
+    public synchronized void markAsOffered(final long investmentId) {
+        if (offered.add(investmentId)) {
+            offered.persist();
+        }
     }
 
-    public void markAsSold(final long investmentId) {
+    public synchronized void markAsSold(final long investmentId) {
         listedSoldLocally.add(investmentId);
         unmarkAsOffered(investmentId);
     }
 
+    private synchronized boolean wasSoldLocally(final long investmentId) {
+        return listedSoldLocally.contains(investmentId);
+    }
+
     public boolean wasOnceSold(final long investmentId) {
-        return listedSoldLocally.contains(investmentId) ||
+        return wasSoldLocally(investmentId) ||
                 listedSoldRemotely.get()
                     .mapRight(s -> s.contains(investmentId))
                     .getOrElseGet(ex -> {
@@ -30,6 +30,9 @@ import static com.github.robozonky.app.events.impl.EventFactory.loanNowDelinquen
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -69,6 +72,7 @@ enum Category {
     DEFAULTED(-1);
 
     private static final Logger LOGGER = LogManager.getLogger(Category.class);
+    private static final Category[] VALUES = values();
     private final int thresholdInDays;
 
     Category(final int thresholdInDays) {
@@ -139,6 +143,62 @@ enum Category {
         return thresholdInDays;
     }
 
+    /**
+     * @return Bit which represents this category in a mask, see {@link #toMask(Collection)}.
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param mask Categories, see {@link #getMask()}.
+     * @return True if this category is one of them.
+     */
+    public boolean isIn(final int mask) {
+        return (mask
+                & getMask()) != 0;
+    }
+
+    public static int toMask(final Collection<Category> categories) {
+        int mask = 0;
+        for (final Category category : categories) {
+            mask |= category.getMask();
+        }
+        return mask;
+    }
+
+    public static EnumSet<Category> fromMask(final int mask) {
+        final EnumSet<Category> result = EnumSet.noneOf(Category.class);
+        for (final Category category : VALUES) {
+            if (category.isIn(mask)) {
+                result.add(category);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the category that an investment should be moved to, given its current state.
+     *
+     * @param mask        Categories that the investment is already in, see {@link #getMask()}.
+     * @param daysPastDue Current days past due of the investment.
+     * @param defaulted   Whether the investment's loan is currently defaulted.
+     * @return Empty if the investment does not need to move.
+     */
+    public static Optional<Category> getNext(final int mask, final int daysPastDue, final boolean defaulted) {
+        if (defaulted) {
+            return !DEFAULTED.isIn(mask) ? Optional.of(DEFAULTED) : Optional.empty();
+        }
+        for (int i = DEFAULTED.ordinal() - 1; i >= 0; i--) { // from the most severe
+            final Category category = VALUES[i];
+            if (category.thresholdInDays > daysPastDue) {
+                continue;
+            }
+            return !category.isIn(mask) ? Optional.of(category) : Optional.empty();
+        }
+        return Optional.empty();
+    }
+
     public Stream<Category> getLesser() {
         return Arrays.stream(Category.values())
             .filter(category -> category.thresholdInDays < this.thresholdInDays && category.thresholdInDays >= 0);
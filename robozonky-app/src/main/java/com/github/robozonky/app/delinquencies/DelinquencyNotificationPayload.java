@@ -19,10 +19,9 @@ package com.github.robozonky.app.delinquencies;
 import static com.github.robozonky.app.events.impl.EventFactory.loanNoLongerDelinquent;
 import static com.github.robozonky.app.events.impl.EventFactory.loanNoLongerDelinquentLazy;
 
-import java.util.Comparator;
-import java.util.EnumSet;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -56,6 +55,7 @@ final class DelinquencyNotificationPayload implements TenantPayload {
     private static final Logger LOGGER = LogManager.getLogger(DelinquencyNotificationPayload.class);
 
     private final Function<Tenant, Registry> registryFunction;
+    private final Map<String, Registry> registries = new ConcurrentHashMap<>(0);
     private final boolean force;
 
     public DelinquencyNotificationPayload() {
@@ -96,85 +96,75 @@ final class DelinquencyNotificationPayload implements TenantPayload {
         }));
     }
 
-    private static void processDelinquent(final PowerTenant tenant, final Registry registry,
+    /**
+     * Moves the investment to its next category, if any.
+     *
+     * @param tenant     Tenant to fire the events on.
+     * @param registry   Registry to record the new category in.
+     * @param delinquent Investment which is currently delinquent.
+     * @return True if the investment moved.
+     */
+    private static boolean processDelinquent(final PowerTenant tenant, final Registry registry,
             final Investment delinquent) {
         final long investmentId = delinquent.getId();
-        final EnumSet<Category> knownCategories = registry.getCategories(delinquent);
-        if (knownCategories.contains(Category.HOPELESS)) {
-            LOGGER.debug("Investment #{} may not be promoted anymore.", investmentId);
-            return;
-        }
         final int daysPastDue = delinquent.getLoan()
             .getDpd();
-        final EnumSet<Category> unusedCategories = EnumSet.complementOf(knownCategories);
-        final Optional<Category> firstNextCategory = unusedCategories.stream()
-            .filter(c -> c.getThresholdInDays() >= 0) // ignore the DEFAULTED category, which gets special treatment
-            .filter(c -> c.getThresholdInDays() <= daysPastDue)
-            .max(Comparator.comparing(Category::getThresholdInDays));
-        if (firstNextCategory.isPresent()) {
-            final Category category = firstNextCategory.get();
-            LOGGER.debug("Investment #{} placed to category {}.", investmentId, category);
-            category.process(tenant, delinquent);
-            registry.addCategory(delinquent, category);
-        } else {
-            LOGGER.debug("Investment #{} can not yet be promoted to the next category.", investmentId);
+        final Optional<Category> next = Category.getNext(registry.getMask(investmentId), daysPastDue,
+                isDefaulted(delinquent));
+        if (next.isEmpty()) { // the vast majority of investments, nothing changed since the last run
+            LOGGER.trace("Investment #{} stays where it was.", investmentId);
+            return false;
         }
+        final Category category = next.get();
+        LOGGER.debug("Investment #{} placed to category {}.", investmentId, category);
+        category.process(tenant, delinquent);
+        registry.addCategory(delinquent, category);
+        return true;
     }
 
-    private static void processDefaulted(final PowerTenant tenant, final Registry registry,
-            final Investment currentDelinquent) {
-        final long investmentId = currentDelinquent.getId();
-        final EnumSet<Category> knownCategories = registry.getCategories(currentDelinquent);
-        if (knownCategories.contains(Category.DEFAULTED)) {
-            LOGGER.debug("Investment #{} already tracked as defaulted.", investmentId);
+    private static void initialize(final Registry registry, final Investment delinquent) {
+        final Optional<Category> next = Category.getNext(0, delinquent.getLoan()
+            .getDpd(), isDefaulted(delinquent));
+        if (next.isPresent()) {
+            registry.addCategory(delinquent, next.get()); // also adds all lesser categories
         } else {
-            final Category category = Category.DEFAULTED;
-            LOGGER.debug("Investment #{} defaulted.", investmentId);
-            category.process(tenant, currentDelinquent);
-            registry.addCategory(currentDelinquent, category);
+            LOGGER.debug("No category found for investment #{}.", delinquent.getId());
         }
     }
 
-    private static Stream<Investment> getDefaulted(final Set<Investment> investments) {
-        return investments.stream()
-            .filter(DelinquencyNotificationPayload::isDefaulted);
-    }
-
-    private static Stream<Investment> getNonDefaulted(final Set<Investment> investments) {
-        return investments.stream()
-            .filter(i -> !isDefaulted(i));
+    /**
+     * Reuse the registry from the previous run, unless the persisted state changed in the meantime.
+     *
+     * @param tenant Tenant to get the registry for.
+     * @return never null
+     */
+    private Registry getRegistry(final Tenant tenant) {
+        return registries.compute(tenant.getSessionInfo()
+            .getUsername(), (username, cached) -> {
+                if (cached != null && cached.isCurrent(tenant)) {
+                    return cached;
+                }
+                return registryFunction.apply(tenant);
+            });
     }
 
     private void process(final PowerTenant tenant) {
         var delinquents = tenant.call(Zonky::getDelinquentInvestments)
             .parallel() // possibly many pages' worth of results; fetch in parallel
-            .collect(Collectors.toSet());
-        var count = delinquents.size();
-        LOGGER.debug("There are {} delinquent investments to process.", count);
-        var registry = registryFunction.apply(tenant);
+            .collect(Collectors.toList());
+        LOGGER.debug("There are {} delinquent investments to process.", delinquents.size());
+        var registry = getRegistry(tenant);
         if (registry.isInitialized()) {
             registry.complement(delinquents)
                 .parallelStream()
-                .forEach(i -> {
-                    registry.remove(i);
-                    processNoLongerDelinquent(registry, i, tenant);
-                });
-            // potentially thousands of items, with relatively heavy logic behind them
-            getDefaulted(delinquents).forEach(d -> processDefaulted(tenant, registry, d));
-            getNonDefaulted(delinquents).forEach(d -> processDelinquent(tenant, registry, d));
+                .forEach(i -> processNoLongerDelinquent(registry, i, tenant));
+            // only investments which changed category since the last run have any work to do
+            var changed = delinquents.stream()
+                .filter(d -> processDelinquent(tenant, registry, d))
+                .count();
+            LOGGER.debug("{} delinquent investments changed category.", changed);
         } else {
-            getDefaulted(delinquents).forEach(d -> registry.addCategory(d, Category.DEFAULTED));
-            getNonDefaulted(delinquents).forEach(delinquent -> {
-                var dpd = delinquent.getLoan()
-                    .getDpd();
-                for (var category : Category.values()) {
-                    if (category.getThresholdInDays() > dpd || category.getThresholdInDays() < 0) {
-                        continue;
-                    }
-                    registry.addCategory(delinquent, category);
-                }
-                LOGGER.debug("No category found for investment #{}.", delinquent.getId());
-            });
+            delinquents.forEach(d -> initialize(registry, d));
         }
         registry.persist();
     }
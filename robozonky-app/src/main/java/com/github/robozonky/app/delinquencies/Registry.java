@@ -16,24 +16,37 @@
 
 package com.github.robozonky.app.delinquencies;
 
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.internal.tenant.Tenant;
+import com.github.robozonky.internal.util.LongSet;
 
+/**
+ * Tracks which {@link Category categories} each delinquent investment has already been placed in. Every category is
+ * persisted separately, in {@link Storage}. The persisted state is also kept in memory as a bitmask of categories per
+ * investment, stored in two parallel primitive arrays sorted by investment ID. This is rebuilt on every
+ * {@link #persist()}, so that looking up an investment's categories is a binary search with no allocation.
+ */
 final class Registry {
 
     private static final String DEFAULTED = "defaulted";
 
     private final Tenant tenant;
     private final Map<Category, Storage> storages;
+    private long[] knownIds;
+    private int[] knownMasks;
+    private Optional<OffsetDateTime> lastUpdated;
 
     public Registry(final Tenant tenant) {
         this.tenant = tenant;
@@ -41,6 +54,7 @@ final class Registry {
         Arrays.stream(Category.values())
             .forEach(cat -> tmp.put(cat, new Storage(tenant, getId(cat))));
         this.storages = Collections.unmodifiableMap(tmp);
+        rebuild();
     }
 
     private static String getId(final Category category) {
@@ -55,31 +69,66 @@ final class Registry {
         return investment.getId();
     }
 
+    private synchronized void rebuild() {
+        final LongSet ids = new LongSet();
+        final Map<Category, long[]> contents = new EnumMap<>(Category.class);
+        storages.forEach((category, storage) -> {
+            final long[] stored = storage.toArray();
+            contents.put(category, stored);
+            ids.addAll(LongSet.of(stored));
+        });
+        final long[] newIds = ids.toArray();
+        final int[] newMasks = new int[newIds.length];
+        contents.forEach((category, stored) -> {
+            for (final long id : stored) {
+                newMasks[Arrays.binarySearch(newIds, id)] |= category.getMask();
+            }
+        });
+        this.knownIds = newIds;
+        this.knownMasks = newMasks;
+        this.lastUpdated = tenant.getState(Storage.class)
+            .getLastUpdated();
+    }
+
     public boolean isInitialized() {
         return tenant.getState(Storage.class)
             .isInitialized();
     }
 
+    /**
+     * @param tenant Tenant to check.
+     * @return True if this registry reflects the latest persisted state of the tenant, and can therefore be reused.
+     */
+    public synchronized boolean isCurrent(final Tenant tenant) {
+        return this.tenant.getSessionInfo()
+            .equals(tenant.getSessionInfo()) &&
+                lastUpdated.equals(tenant.getState(Storage.class)
+                    .getLastUpdated());
+    }
+
     public Collection<Investment> complement(final Collection<Investment> investments) {
-        final Set<Long> idsToComplement = investments.stream()
-            .map(Registry::getId)
-            .collect(Collectors.toSet());
-        return storages.get(Category.NEW)
-            .complement(idsToComplement)
-            .parallel()
-            .mapToObj(id -> tenant.call(z -> z.getInvestment(id)))
+        final LongSet idsToComplement = LongSet.of(investments.stream()
+            .mapToLong(Registry::getId));
+        final long[] missing = complement(idsToComplement).toArray();
+        if (missing.length == 0) {
+            return Collections.emptyList();
+        }
+        return tenant.call(z -> z.getInvestmentsById(missing))
             .collect(Collectors.toList());
     }
 
-    public EnumSet<Category> getCategories(final Investment investment) {
-        final long id = getId(investment);
-        final Set<Category> result = storages.entrySet()
-            .stream()
-            .filter(e -> e.getValue()
-                .isKnown(id))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toSet());
-        return result.isEmpty() ? EnumSet.noneOf(Category.class) : EnumSet.copyOf(result);
+    private synchronized LongStream complement(final LongSet ids) {
+        return Arrays.stream(knownIds)
+            .filter(id -> !ids.contains(id));
+    }
+
+    /**
+     * @param investmentId Investment to look up.
+     * @return Bitmask of persisted categories of the investment, see {@link Category#getMask()}.
+     */
+    public synchronized int getMask(final long investmentId) {
+        final int index = Arrays.binarySearch(knownIds, investmentId);
+        return index < 0 ? 0 : knownMasks[index];
     }
 
     private void addToCategory(final Category category, final long id) {
@@ -103,5 +152,6 @@ final class Registry {
     public void persist() {
         storages.values()
             .forEach(Storage::persist);
+        rebuild();
     }
 }
@@ -16,34 +16,20 @@
 
 package com.github.robozonky.app.delinquencies;
 
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
-import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.PersistentLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
+import com.github.robozonky.internal.util.LongSet;
 
 final class Storage {
 
-    private final InstanceState<Storage> state;
-    private final String key;
-    private final Set<Long> originalContents;
-    private final Set<Long> toAdd = new TreeSet<>();
-    private final Set<Long> toRemove = new TreeSet<>();
+    private final PersistentLongSet originalContents;
+    private final LongSet toAdd = new LongSet();
+    private final LongSet toRemove = new LongSet();
 
     public Storage(final Tenant tenant, final String key) {
-        this.state = tenant.getState(Storage.class);
-        this.key = key;
-        this.originalContents = state.getValues(key)
-            .orElse(Stream.empty())
-            .map(Long::parseLong)
-            .collect(Collectors.toSet());
-    }
-
-    public synchronized boolean isKnown(final long investmentId) {
-        return originalContents.contains(investmentId);
+        this.originalContents = new PersistentLongSet(tenant.getState(Storage.class), key);
     }
 
     public synchronized boolean add(final long investmentId) {
@@ -68,18 +54,24 @@ final class Storage {
         if (toAdd.isEmpty() && toRemove.isEmpty()) {
             return;
         }
-        originalContents.addAll(toAdd);
-        originalContents.removeAll(toRemove);
-        final Stream<String> result = originalContents.stream()
-            .distinct()
-            .sorted()
-            .map(String::valueOf);
-        state.update(m -> m.put(key, result));
+        toAdd.stream()
+            .forEach(originalContents::add);
+        toRemove.stream()
+            .forEach(originalContents::remove);
+        toAdd.clear();
+        toRemove.clear();
+        originalContents.persist();
     }
 
-    public synchronized LongStream complement(final Set<Long> investmentIds) {
+    public synchronized LongStream complement(final LongSet investmentIds) {
         return originalContents.stream()
-            .filter(i -> !investmentIds.contains(i))
-            .mapToLong(i -> i);
+            .filter(i -> !investmentIds.contains(i));
+    }
+
+    /**
+     * @return Persisted contents, in ascending order.
+     */
+    public synchronized long[] toArray() {
+        return originalContents.toArray();
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.events;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Provides the executor on which events are delivered to their listeners. Event delivery used to share
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()} with parallel streams elsewhere in the robot, and therefore
+ * slow listeners (such as those sending e-mails) could starve unrelated work, and vice versa.
+ * <p>
+ * The executor has a fixed number of threads and a bounded queue. When the queue is full, the event is delivered on
+ * the thread which fired it, slowing the producer down instead of piling up events in memory. Such occurrences are
+ * counted in the "robozonky.events.backpressure" meter, the rest of the executor is measured by
+ * {@link ExecutorServiceMetrics}.
+ */
+final class EventDispatchExecutor {
+
+    static final String NAME = "robozonky.events";
+    private static final Logger LOGGER = LogManager.getLogger(EventDispatchExecutor.class);
+    private static final ExecutorService INSTANCE = create(NAME, Settings.INSTANCE.getEventDispatchThreads(),
+            Settings.INSTANCE.getEventDispatchQueueCapacity());
+
+    private EventDispatchExecutor() {
+        // no instances
+    }
+
+    public static ExecutorService get() {
+        return INSTANCE;
+    }
+
+    static ExecutorService create(final String name, final int threads, final int queueCapacity) {
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        final String threadPrefix = name.replace('.', '-') + "-";
+        final Counter backpressure = Counter.builder(name + ".backpressure")
+            .register(Defaults.METER_REGISTRY);
+        final RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    final Thread thread = new Thread(r, threadPrefix + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (r, e) -> {
+                    LOGGER.debug("Event queue full, delivering on {}.", Thread.currentThread());
+                    backpressure.increment();
+                    callerRuns.rejectedExecution(r, e);
+                });
+        executor.allowCoreThreadTimeOut(true); // Do not keep threads around when no events are being fired.
+        LOGGER.debug("Delivering events on up to {} threads, queueing up to {} events.", threads, queueCapacity);
+        return ExecutorServiceMetrics.monitor(Defaults.METER_REGISTRY, executor, name);
+    }
+}
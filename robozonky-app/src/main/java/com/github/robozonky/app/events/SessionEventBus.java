@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.events;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.notifications.Event;
+import com.github.robozonky.api.notifications.EventListener;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.tenant.LazyEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Delivers events of a single session in the order in which they were fired. Events are put into a queue, which is
+ * drained by at most one task at a time, running on the given {@link Executor}. Therefore every listener sees the
+ * events in the order of their appearance, and no two events of the same session are ever delivered concurrently.
+ * <p>
+ * When the drain finds several consecutive events of the same type, going to the same listeners, it delivers them as
+ * one batch. Consecutive events appear either when they are fired faster than they are delivered, or when the
+ * drain is delayed by a coalescing window.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>"robozonky.events.queued" is the number of events waiting for delivery, in all sessions.</li>
+ * <li>"robozonky.events.latency" is the time from firing the event to its delivery to all listeners.</li>
+ * <li>"robozonky.events.batch" is the number of events delivered together.</li>
+ * </ul>
+ */
+final class SessionEventBus {
+
+    private static final Logger LOGGER = LogManager.getLogger(SessionEventBus.class);
+    private static final AtomicInteger QUEUED = Defaults.METER_REGISTRY.gauge("robozonky.events.queued",
+            new AtomicInteger(0));
+    private static final Timer LATENCY = Timer.builder("robozonky.events.latency")
+        .register(Defaults.METER_REGISTRY);
+    private static final DistributionSummary BATCH_SIZE = DistributionSummary.builder("robozonky.events.batch")
+        .register(Defaults.METER_REGISTRY);
+
+    private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Executor executor;
+    private final Delivery delivery;
+
+    /**
+     * @param executor         Where to deliver the events.
+     * @param coalescingWindow How long to wait before delivering the first event, so that other events can be
+     *                         coalesced with it. Zero or negative to deliver immediately.
+     * @param delivery         Delivers a batch of events to a single listener.
+     */
+    public SessionEventBus(final Executor executor, final Duration coalescingWindow, final Delivery delivery) {
+        this.executor = coalescingWindow.isNegative() || coalescingWindow.isZero() ? executor
+                : CompletableFuture.delayedExecutor(coalescingWindow.toNanos(), TimeUnit.NANOSECONDS, executor);
+        this.delivery = delivery;
+    }
+
+    /**
+     * Queue the event for delivery.
+     *
+     * @param event     Event to deliver.
+     * @param listeners Listeners to deliver the event to, in this order.
+     * @return Completes when all the listeners have handled the event.
+     */
+    public CompletableFuture<Void> submit(final LazyEvent<? extends Event> event,
+            final List<? extends EventListener<? extends Event>> listeners) {
+        if (listeners.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final Envelope envelope = new Envelope(event, listeners);
+        depth.incrementAndGet();
+        QUEUED.incrementAndGet();
+        queue.add(envelope);
+        scheduleDrain();
+        return envelope.result;
+    }
+
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Envelope head;
+            while ((head = queue.poll()) != null) {
+                final List<Envelope> batch = new ArrayList<>(1);
+                batch.add(head);
+                Envelope next;
+                while ((next = queue.peek()) != null && next.isCoalescibleWith(head)) {
+                    batch.add(queue.poll()); // We are the only consumer, so this is the same instance we peeked at.
+                }
+                depth.addAndGet(-batch.size());
+                QUEUED.addAndGet(-batch.size());
+                deliver(batch);
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+        if (!queue.isEmpty()) { // Something arrived after we stopped polling, but before we reset the flag.
+            scheduleDrain();
+        }
+    }
+
+    private void deliver(final List<Envelope> batch) {
+        final List<LazyEvent<? extends Event>> events = batch.stream()
+            .map(e -> e.event)
+            .collect(Collectors.toList());
+        LOGGER.trace("Delivering {}.", events);
+        Exception failure = null;
+        try {
+            for (final EventListener<? extends Event> listener : batch.get(0).listeners) {
+                delivery.deliver(events, listener);
+            }
+        } catch (final Exception ex) {
+            LOGGER.debug("Failed delivering {}.", events, ex);
+            failure = ex;
+        }
+        final long now = System.nanoTime(); // Record before completing, so that the meters are current for waiters.
+        batch.forEach(e -> LATENCY.record(now - e.submittedNanos, TimeUnit.NANOSECONDS));
+        BATCH_SIZE.record(batch.size());
+        for (final Envelope envelope : batch) {
+            if (failure == null) {
+                envelope.result.complete(null);
+            } else {
+                envelope.result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Delivery {
+
+        void deliver(List<LazyEvent<? extends Event>> events, EventListener<? extends Event> listener);
+
+    }
+
+    private static final class Envelope {
+
+        private final LazyEvent<? extends Event> event;
+        private final List<? extends EventListener<? extends Event>> listeners;
+        private final long submittedNanos = System.nanoTime();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        Envelope(final LazyEvent<? extends Event> event,
+                final List<? extends EventListener<? extends Event>> listeners) {
+            this.event = event;
+            this.listeners = listeners;
+        }
+
+        boolean isCoalescibleWith(final Envelope other) {
+            return event.getEventType() == other.event.getEventType() && listeners.equals(other.listeners);
+        }
+    }
+}
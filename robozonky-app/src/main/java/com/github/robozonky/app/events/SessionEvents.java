@@ -29,17 +29,20 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.api.notifications.BatchEventListener;
 import com.github.robozonky.api.notifications.Event;
 import com.github.robozonky.api.notifications.EventListener;
 import com.github.robozonky.api.notifications.EventListenerSupplier;
 import com.github.robozonky.api.notifications.SessionEvent;
 import com.github.robozonky.app.events.impl.EventFactory;
+import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.extensions.ListenerServiceLoader;
 import com.github.robozonky.internal.tenant.LazyEvent;
 import com.github.robozonky.internal.util.ClassUtil;
@@ -49,13 +52,18 @@ public final class SessionEvents {
     private static final Logger LOGGER = LogManager.getLogger(SessionEvents.class);
     private static final AtomicLong EVENT_COUNTER = new AtomicLong(0);
     private static final Map<String, SessionEvents> BY_TENANT = new ConcurrentHashMap<>(0);
-    private final Map<Class, List<EventListenerSupplier>> suppliers = new ConcurrentHashMap<>(0);
+    private static final long DISPATCH_TTL_NANOS = Settings.INSTANCE.getRemoteResourceRefreshInterval()
+        .toNanos();
+    private final Map<Class<?>, Dispatch> dispatchTable = new ConcurrentHashMap<>(0);
     private final Set<EventFiringListener> debugListeners = new CopyOnWriteArraySet<>();
     private final SessionInfo sessionInfo;
+    private final SessionEventBus bus;
     private EventListener injectedDebugListener;
 
     private SessionEvents(final SessionInfo sessionInfo) {
         this.sessionInfo = sessionInfo;
+        this.bus = new SessionEventBus(EventDispatchExecutor.get(), Settings.INSTANCE.getEventCoalescingWindow(),
+                this::fireAll);
         addListener(new LoggingEventFiringListener(sessionInfo));
     }
 
@@ -82,38 +90,73 @@ public final class SessionEvents {
             .orElseThrow();
     }
 
-    /**
-     * Takes a set of {@link Runnable}s and queues them to be fired on a background thread, in the guaranteed order of
-     * appearance.
-     *
-     * @param futures Each item in the stream represents a singular event to be fired.
-     * @return When complete, all listeners have been notified of all the events.
-     */
-    @SuppressWarnings("rawtypes")
-    private static CompletableFuture runAsync(final Stream<Runnable> futures) {
-        final CompletableFuture[] results = futures.map(CompletableFuture::runAsync)
-            .toArray(CompletableFuture[]::new);
-        return GlobalEvents.merge(results);
-    }
-
     public SessionInfo getSessionInfo() {
         return sessionInfo;
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     private <T extends Event> List<EventListenerSupplier<T>> retrieveListenerSuppliers(final Class<T> eventType) {
         final Class<T> impl = getImplementingEvent(eventType);
         LOGGER.trace("Event {} implements {}.", eventType, impl);
         return ListenerServiceLoader.load(sessionInfo, impl);
     }
 
+    private <T extends Event> Dispatch resolve(final Class<T> eventType, final long generation) {
+        final List<EventListener<T>> listeners = retrieveListenerSuppliers(eventType).stream()
+            .map(Supplier::get)
+            .flatMap(Optional::stream)
+            .collect(Collectors.toUnmodifiableList());
+        LOGGER.debug("Resolved listeners for {}: {}.", eventType, listeners);
+        return new Dispatch(listeners, generation, System.nanoTime() + DISPATCH_TTL_NANOS);
+    }
+
     /**
-     * Represents the payload that will be handed over to {@link #runAsync(Stream)}.
-     * 
-     * @param lazyEvent The event which will be instantiated and sent to the listener.
-     * @param listener  The listener to receive the event.
-     * @param <T>       Type of the event.
+     * Called by {@link SessionEventBus} to deliver events to a listener, in the order in which they were fired.
+     *
+     * @param lazyEvents Events of the same type, which will be instantiated and sent to the listener.
+     * @param listener   The listener to receive the events.
      */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void fireAll(final List<LazyEvent<? extends Event>> lazyEvents, final EventListener listener) {
+        final long eventId = EVENT_COUNTER.getAndAdd(lazyEvents.size());
+        LOGGER.debug("Starting event {} ({} in total, {}).", eventId, lazyEvents.size(), lazyEvents.get(0));
+        try {
+            if (lazyEvents.size() > 1 && listener instanceof BatchEventListener) {
+                fireBatch((List) lazyEvents, (BatchEventListener) listener);
+            } else {
+                lazyEvents.forEach(e -> fireAny(e, listener));
+            }
+        } finally {
+            LOGGER.debug("Finished processing event {}.", eventId);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T extends Event> void fireBatch(final List<LazyEvent<T>> lazyEvents,
+            final BatchEventListener<T> listener) {
+        final Class<EventListener<T>> listenerType = (Class) listener.getClass();
+        final List<LazyEvent<T>> instantiated = new ArrayList<>(lazyEvents.size());
+        final List<T> events = new ArrayList<>(lazyEvents.size());
+        for (final LazyEvent<T> lazyEvent : lazyEvents) {
+            try {
+                final T event = lazyEvent.get(); // possibly incurring performance penalties
+                debugListeners.forEach(l -> l.ready(event, listenerType));
+                instantiated.add(lazyEvent);
+                events.add(event);
+            } catch (final Exception ex) { // one broken event will not prevent the others from being delivered
+                debugListeners.forEach(l -> l.failed(lazyEvent, listenerType, ex));
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            listener.handle(events, sessionInfo);
+            events.forEach(event -> debugListeners.forEach(l -> l.fired(event, listenerType)));
+        } catch (final Exception ex) {
+            instantiated.forEach(lazyEvent -> debugListeners.forEach(l -> l.failed(lazyEvent, listenerType, ex)));
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Event> void fireAny(final LazyEvent<T> lazyEvent, final EventListener<T> listener) {
         final Class<EventListener<T>> listenerType = (Class<EventListener<T>>) listener.getClass();
@@ -130,19 +173,37 @@ public final class SessionEvents {
     <T extends Event> CompletableFuture fireAny(final LazyEvent<T> event) {
         // loan all listeners
         debugListeners.forEach(l -> l.requested(event));
-        final Stream<EventListener<T>> registered = getRegisteredEventListeners(event.getEventType());
+        final List<EventListener<T>> registered = getRegisteredEventListeners(event.getEventType());
         // send the event to all listeners, execute on the background
-        final Stream<EventListener<T>> withInjected = injectedDebugListener == null ? registered
-                : Stream.concat(Stream.<EventListener<T>>of(injectedDebugListener), registered);
-        return runAsync(withInjected.map(l -> new EventTriggerRunnable(event, l)));
+        final EventListener<T> injected = injectedDebugListener;
+        if (injected == null) {
+            return bus.submit(event, registered);
+        }
+        final List<EventListener<T>> withInjected = new ArrayList<>(registered.size() + 1);
+        withInjected.add(injected);
+        withInjected.addAll(registered);
+        return bus.submit(event, withInjected);
     }
 
-    private <T extends Event> Stream<EventListener<T>> getRegisteredEventListeners(final Class<T> eventType) {
-        List<EventListenerSupplier<T>> registeredSuppliers = suppliers.computeIfAbsent(eventType,
-                e -> retrieveListenerSuppliers(e));
-        return registeredSuppliers.stream()
-            .map(Supplier::get)
-            .flatMap(Optional::stream);
+    /**
+     * Listeners are resolved once per event type and then reused, until either {@link ListenerServiceLoader}
+     * invalidates them or they become too old. The latter ensures that the {@link EventListenerSupplier}s get a chance
+     * to refresh their configuration every once in a while.
+     *
+     * @param eventType Type of the event, either the interface or its implementation.
+     * @param <T>       Type of the event.
+     * @return Unmodifiable.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Event> List<EventListener<T>> getRegisteredEventListeners(final Class<T> eventType) {
+        final long generation = ListenerServiceLoader.getGeneration();
+        final Dispatch current = dispatchTable.get(eventType);
+        if (current != null && current.isValid(generation)) {
+            return (List<EventListener<T>>) current.listeners;
+        }
+        final Dispatch resolved = resolve(eventType, generation);
+        dispatchTable.put(eventType, resolved);
+        return (List<EventListener<T>>) resolved.listeners;
     }
 
     public boolean addListener(final EventFiringListener listener) {
@@ -174,37 +235,24 @@ public final class SessionEvents {
     }
 
     public boolean isListenerRegistered(final Class<? extends Event> eventClass) {
-        return getRegisteredEventListeners(eventClass).findAny()
-            .isPresent();
+        return !getRegisteredEventListeners(eventClass).isEmpty();
     }
 
-    private final class EventTriggerRunnable implements Runnable {
-
-        private final LazyEvent<? extends Event> event;
-        private final EventListener listener;
+    private static final class Dispatch {
 
-        public EventTriggerRunnable(final LazyEvent<? extends Event> event, final EventListener listener) {
-            this.event = event;
-            this.listener = listener;
-        }
+        private final List<? extends EventListener<? extends Event>> listeners;
+        private final long generation;
+        private final long expiresAtNanos;
 
-        @Override
-        public void run() {
-            var eventId = EVENT_COUNTER.getAndIncrement();
-            LOGGER.debug("Starting event {} ({}).", eventId, event);
-            try {
-                SessionEvents.this.fireAny(event, listener);
-            } finally {
-                LOGGER.debug("Finished processing event {}.", eventId);
-            }
+        Dispatch(final List<? extends EventListener<? extends Event>> listeners, final long generation,
+                final long expiresAtNanos) {
+            this.listeners = listeners;
+            this.generation = generation;
+            this.expiresAtNanos = expiresAtNanos;
         }
 
-        @Override
-        public String toString() {
-            return "EventTriggerRunnable{" +
-                    "event=" + event.getEventType() +
-                    ", listener=" + listener.getClass() +
-                    '}';
+        boolean isValid(final long currentGeneration) {
+            return generation == currentGeneration && System.nanoTime() - expiresAtNanos < 0;
         }
     }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.summaries;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.Money;
+import com.github.robozonky.api.Ratio;
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.api.remote.enums.SellStatus;
+import com.github.robozonky.internal.remote.Zonky;
+import com.github.robozonky.internal.remote.entities.InvestmentImpl;
+import com.github.robozonky.internal.tenant.Tenant;
+
+/**
+ * Per-rating amounts for the weekly summary, folded in a single pass as the pages of investments arrive. Amounts are
+ * kept as primitive hundredths of the currency unit, one array per rating, so that adding an investment does not
+ * allocate. Not thread-safe on its own; parallel streams collect into one instance per thread and then
+ * {@link #merge(Aggregate)} them.
+ */
+final class Aggregate {
+
+    private static final Logger LOGGER = LogManager.getLogger(Aggregate.class);
+    private static final int AT_RISK = 0;
+    private static final int SELLABLE = 1;
+    private static final int SELLABLE_WITHOUT_FEE = 2;
+
+    private final Map<Ratio, long[]> totals = new HashMap<>(0);
+
+    /**
+     * Scan the delinquent and the sellable investments of the tenant, both at the same time.
+     *
+     * @param tenant   Tenant to scan.
+     * @param executor Where to scan the delinquent investments, as the scan blocks on HTTP.
+     * @return never null
+     */
+    public static Aggregate of(final Tenant tenant, final Executor executor) {
+        var atRisk = CompletableFuture.supplyAsync(() -> tenant.call(Zonky::getDelinquentInvestments)
+            .parallel() // possibly many pages' worth of results; fetch in parallel
+            .collect(Aggregate::new, Aggregate::addAtRisk, Aggregate::merge), executor);
+        var result = tenant.call(Zonky::getSellableInvestments)
+            .parallel() // Possibly many pages of HTTP requests, plus possibly subsequent sellInfo HTTP requests.
+            .collect(Aggregate::new, Aggregate::addSellable, Aggregate::merge);
+        result.merge(atRisk.join());
+        return result;
+    }
+
+    private static long toHundredths(final Money money) {
+        return money.getValue()
+            .movePointRight(2)
+            .longValueExact();
+    }
+
+    private static Money fromHundredths(final long hundredths) {
+        return Money.from(BigDecimal.valueOf(hundredths, 2));
+    }
+
+    private long[] getTotals(final Ratio rating) {
+        return totals.computeIfAbsent(rating, r -> new long[3]);
+    }
+
+    void addAtRisk(final Investment investment) {
+        var remaining = investment.getPrincipal()
+            .getUnpaid();
+        // TODO Convince Zonky to add penalties back to the API.
+        var principalNotYetReturned = remaining.subtract(investment.getInterest()
+            .getPaid())
+            .max(remaining.getZero());
+        LOGGER.debug("Delinquent: {} in loan #{}, investment #{}.", principalNotYetReturned, investment.getLoan()
+            .getId(), investment.getId());
+        getTotals(investment.getLoan()
+            .getInterestRate())[AT_RISK] += toHundredths(principalNotYetReturned);
+    }
+
+    void addSellable(final Investment investment) {
+        var sellPrice = toHundredths(InvestmentImpl.determineSellPrice(investment));
+        if (sellPrice == 0) { // Filter out empty loans. Zonky shouldn't send those, but happened.
+            return;
+        }
+        // Do everything we can to avoid retrieving the optional remote smpSellInfo.
+        var fee = investment.getSellStatus() == SellStatus.SELLABLE_WITHOUT_FEE ? 0
+                : investment.getSmpSellInfo()
+                    .map(si -> toHundredths(si.getFee()
+                        .getValue()))
+                    .orElse(0L);
+        var rating = getTotals(investment.getLoan()
+            .getInterestRate());
+        rating[SELLABLE] += sellPrice - fee; // Account for the sale fee.
+        if (fee == 0) {
+            rating[SELLABLE_WITHOUT_FEE] += sellPrice;
+        }
+    }
+
+    void merge(final Aggregate other) {
+        other.totals.forEach((rating, amounts) -> {
+            var target = getTotals(rating);
+            for (int i = 0; i < amounts.length; i++) {
+                target[i] += amounts[i];
+            }
+        });
+    }
+
+    private Map<Ratio, Money> get(final int index) {
+        final Map<Ratio, Money> result = new HashMap<>(totals.size());
+        totals.forEach((rating, amounts) -> result.put(rating, fromHundredths(amounts[index])));
+        return result;
+    }
+
+    public Map<Ratio, Money> getAtRisk() {
+        return get(AT_RISK);
+    }
+
+    public Map<Ratio, Money> getSellable() {
+        return get(SELLABLE);
+    }
+
+    public Map<Ratio, Money> getSellableWithoutFee() {
+        return get(SELLABLE_WITHOUT_FEE);
+    }
+}
@@ -16,7 +16,7 @@
 
 package com.github.robozonky.app.summaries;
 
-import static com.github.robozonky.app.summaries.Util.getAmountsSellable;
+import java.util.concurrent.Executor;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -44,19 +44,24 @@ final class Summarizer implements TenantPayload {
         this.force = force;
     }
 
-    private static ExtendedPortfolioOverview extend(final Tenant tenant) {
-        var amountsSellable = getAmountsSellable(tenant);
+    private static ExtendedPortfolioOverview extend(final Tenant tenant, final Executor executor) {
+        var aggregate = Aggregate.of(tenant, executor);
         return ExtendedPortfolioOverviewImpl.extend(tenant.getPortfolio()
-            .getOverview(), Util.getAmountsAtRisk(tenant), amountsSellable._1(), amountsSellable._2());
+            .getOverview(), aggregate.getAtRisk(), aggregate.getSellable(), aggregate.getSellableWithoutFee());
     }
 
-    private static void run(final PowerTenant tenant) {
-        final ExtendedPortfolioOverview portfolioOverview = extend(tenant);
+    private static void run(final PowerTenant tenant, final Executor executor) {
+        final ExtendedPortfolioOverview portfolioOverview = extend(tenant, executor);
         tenant.fire(EventFactory.weeklySummary(portfolioOverview));
     }
 
     @Override
     public void accept(final Tenant tenant) {
+        accept(tenant, Runnable::run); // no scheduler to fork to, scan one after the other
+    }
+
+    @Override
+    public void accept(final Tenant tenant, final Executor executor) {
         PowerTenant powerTenant = (PowerTenant) tenant;
         SessionEvents sessionEvents = Events.forSession(powerTenant);
         boolean shouldTrigger = force || sessionEvents.isListenerRegistered(WeeklySummaryEvent.class);
@@ -64,6 +69,6 @@ final class Summarizer implements TenantPayload {
             LOGGER.debug("Skipping on account of no event listener being configured to receive the results.");
             return;
         }
-        run(powerTenant);
+        run(powerTenant, executor);
     }
 }
@@ -20,6 +20,9 @@ import java.net.SocketTimeoutException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -31,11 +34,18 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.CircuitBreaker;
+import com.github.robozonky.internal.remote.CircuitBreakerOpenException;
 import com.github.robozonky.internal.tenant.Availability;
 import com.github.robozonky.internal.test.DateUtil;
 
 import io.micrometer.core.instrument.Timer;
 
+/**
+ * Failures of individual Zonky API endpoints are handled by their {@link CircuitBreaker}s, which stop using a failing
+ * endpoint without affecting the others. Everything is only paused when the failure can not be attributed to a single
+ * endpoint, or when Zonky API quota has been reached, as that is shared by the endpoints.
+ */
 final class AvailabilityImpl implements Availability {
 
     static final long MANDATORY_DELAY_IN_SECONDS = 5;
@@ -45,14 +55,27 @@ final class AvailabilityImpl implements Availability {
     private final Timer meteredRequestTimer;
     private final Timer downtimeTimer;
     private final AtomicLong requestCountAtTimeOfError = new AtomicLong(0);
+    private final Collection<CircuitBreaker> circuitBreakers;
 
-    public AvailabilityImpl(final ZonkyApiTokenSupplier zonkyTokenSupplier, final Timer requestTimer) {
+    public AvailabilityImpl(final ZonkyApiTokenSupplier zonkyTokenSupplier, final Timer requestTimer,
+            final Collection<CircuitBreaker> circuitBreakers, final String tenantName) {
         this.zonkyApiTokenSupplier = zonkyTokenSupplier;
         this.meteredRequestTimer = requestTimer;
-        this.downtimeTimer = Timer.builder("robozonky.downtime") // TODO make tenant-specific one day.
+        this.circuitBreakers = circuitBreakers;
+        this.downtimeTimer = Timer.builder("robozonky.downtime")
+            .tag("tenant", Objects.requireNonNullElse(tenantName, "default"))
             .register(Defaults.METER_REGISTRY);
     }
 
+    AvailabilityImpl(final ZonkyApiTokenSupplier zonkyTokenSupplier, final Timer requestTimer,
+            final Collection<CircuitBreaker> circuitBreakers) {
+        this(zonkyTokenSupplier, requestTimer, circuitBreakers, null);
+    }
+
+    AvailabilityImpl(final ZonkyApiTokenSupplier zonkyTokenSupplier, final Timer requestTimer) {
+        this(zonkyTokenSupplier, requestTimer, Collections.emptyList());
+    }
+
     AvailabilityImpl(final ZonkyApiTokenSupplier zonkyTokenSupplier) {
         this(zonkyTokenSupplier, null);
     }
@@ -79,6 +102,20 @@ final class AvailabilityImpl implements Availability {
         return canBeIgnored(throwable.getCause());
     }
 
+    private boolean isEndpointFailure(final Throwable throwable) {
+        if (throwable == null) {
+            return false;
+        } else if (throwable instanceof CircuitBreakerOpenException) {
+            return true;
+        }
+        for (var circuitBreaker : circuitBreakers) {
+            if (circuitBreaker.isLastFailure(throwable)) {
+                return true;
+            }
+        }
+        return isEndpointFailure(throwable.getCause());
+    }
+
     @Override
     public ZonedDateTime nextAvailabilityCheck() {
         if (zonkyApiTokenSupplier.isClosed()) {
@@ -134,6 +171,10 @@ final class AvailabilityImpl implements Availability {
             // So we just ignore them.
             LOGGER.debug("Ignoring Zonky API exception.", ex);
             return false;
+        } else if (!isQuotaLimitHit(ex) && isEndpointFailure(ex)) {
+            // The endpoint's circuit breaker takes care of it, no need to stop using the other endpoints.
+            LOGGER.debug("Zonky API endpoint failure, not pausing.", ex);
+            return false;
         }
         requestCountAtTimeOfError.set(meteredRequestTimer == null ? -1 : meteredRequestTimer.count());
         if (isAvailable()) {
@@ -63,7 +63,8 @@ class PowerTenantImpl implements PowerTenant {
         this.sessionInfo = new SessionInfoImpl(() -> call(Zonky::getConsents), () -> call(Zonky::getRestrictions),
                 username, sessionName, isDryRun);
         this.token = tokenSupplier;
-        this.availability = Memoizer.memoize(() -> new AvailabilityImpl(token, apis.getMeteredRequestTimer()));
+        this.availability = Memoizer.memoize(() -> new AvailabilityImpl(token, apis.getMeteredRequestTimer(),
+                apis.getCircuitBreakers(), sessionName));
         this.portfolio = new RemotePortfolioImpl(this);
         this.balance = new StatefulBoundedBalance(this);
     }
@@ -57,6 +57,11 @@ final class TransactionalInstanceState<T> implements InstanceState<T> {
         stateUpdates.add(() -> parent.reset(setter));
     }
 
+    @Override
+    public void flush() {
+        parent.flush();
+    }
+
     @Override
     public Optional<String> getValue(final String key) {
         return parent.getValue(key);
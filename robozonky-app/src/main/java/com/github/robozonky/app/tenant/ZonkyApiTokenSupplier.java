@@ -17,7 +17,17 @@
 package com.github.robozonky.app.tenant;
 
 import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import javax.ws.rs.BadRequestException;
@@ -28,32 +38,53 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.remote.entities.ZonkyApiToken;
-import com.github.robozonky.internal.async.Reloadable;
 import com.github.robozonky.internal.remote.ApiProvider;
 import com.github.robozonky.internal.secrets.SecretProvider;
 import com.github.robozonky.internal.test.DateUtil;
 
 /**
  * Will keep permanent user authentication running in the background.
+ * <p>
+ * The token is refreshed ahead of its expiry on a dedicated thread, shared by all tenants, and stored in the
+ * {@link SecretProvider} on another such thread. {@link #get()} only ever reads the current token, and therefore
+ * never waits for either OAuth or the keystore; the only exceptions are the very first call, which needs to obtain the
+ * token, and a call after the token expired, as there is nothing to fall back to.
  */
 class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         AutoCloseable {
 
     private static final Logger LOGGER = LogManager.getLogger(ZonkyApiTokenSupplier.class);
     private static final Duration ONE_HOUR = Duration.ofHours(1);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration PERSIST_TIMEOUT = Duration.ofSeconds(10);
+    private static final ScheduledThreadPoolExecutor REFRESHER = createRefresher();
+    private static final ExecutorService PERSISTER = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "robozonky-token-persist");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final SecretProvider secrets;
     private final ApiProvider apis;
-    private final Reloadable<ZonkyApiToken> token;
+    private final AtomicReference<ZonkyApiToken> token = new AtomicReference<>();
+    private final AtomicReference<ScheduledFuture<?>> scheduledRefresh = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Void>> lastPersisted = new AtomicReference<>(
+            CompletableFuture.completedFuture(null));
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
 
     public ZonkyApiTokenSupplier(final ApiProvider apis, final SecretProvider secrets) {
         this.apis = apis;
         this.secrets = secrets;
-        this.token = Reloadable.with(this::refreshOrFail)
-            .reloadAfter(ZonkyApiTokenSupplier::reloadAfter)
-            .finishWith(secrets::setToken)
-            .build();
+    }
+
+    private static ScheduledThreadPoolExecutor createRefresher() {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "robozonky-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true); // Closed tenants should not leave their refreshes behind.
+        return executor;
     }
 
     static Duration reloadAfter(final ZonkyApiToken token) {
@@ -83,15 +114,63 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         }
     }
 
-    private ZonkyApiToken refreshOrFail() {
-        return secrets.getToken()
+    private static boolean isUsable(final ZonkyApiToken token) {
+        return token != null && !token.isExpired();
+    }
+
+    private void persist(final ZonkyApiToken token) {
+        lastPersisted.updateAndGet(previous -> previous.thenRunAsync(() -> secrets.setToken(token), PERSISTER)
+            .exceptionally(ex -> {
+                LOGGER.warn("Failed storing token for '{}'.", secrets.getUsername(), ex);
+                return null;
+            }));
+    }
+
+    private void schedule(final Duration delay) {
+        if (isClosed.get()) {
+            return;
+        }
+        LOGGER.debug("Will refresh token for '{}' in {}.", secrets.getUsername(), delay);
+        var future = REFRESHER.schedule(this::refreshInBackground, delay.toMillis(), TimeUnit.MILLISECONDS);
+        var previous = scheduledRefresh.getAndSet(future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void refreshInBackground() {
+        if (isClosed.get()) {
+            return;
+        }
+        try {
+            refreshOrFail();
+        } catch (final Exception ex) {
+            var current = token.get();
+            if (isUsable(current)) {
+                var retryIn = reloadAfter(current);
+                LOGGER.debug("Failed refreshing token for '{}', will retry.", secrets.getUsername(), ex);
+                schedule(retryIn.compareTo(RETRY_DELAY) < 0 ? retryIn : RETRY_DELAY);
+            } else {
+                LOGGER.warn("Failed refreshing token for '{}'.", secrets.getUsername(), ex);
+            }
+        }
+    }
+
+    private synchronized ZonkyApiToken refreshOrFail() {
+        var newToken = Optional.ofNullable(token.get())
+            .or(secrets::getToken) // The latest token may not have been stored yet.
             .map(this::refreshOrFail)
             .orElseThrow(() -> createException("No token found."));
+        token.set(newToken);
+        persist(newToken);
+        schedule(reloadAfter(newToken));
+        return newToken;
     }
 
     private ZonkyApiToken refreshOrFail(final ZonkyApiToken token) {
         if (token.isExpired()) {
-            secrets.setToken(null);
+            this.token.set(null);
+            persist(null);
             throw createException("Token expired.");
         }
         LOGGER.debug(() -> "Current token for '" + secrets.getUsername() +
@@ -99,10 +178,21 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         var newToken = apis.oauth(oauth -> oauth.refresh(token));
         LOGGER.info(() -> "Refreshed access token for '" + secrets.getUsername() +
                 "' expiring on " + DateUtil.toString(newToken.getExpiresOn()) + ".");
-        secrets.setToken(newToken);
         return newToken;
     }
 
+    private synchronized ZonkyApiToken refreshNow() {
+        var current = token.get();
+        if (isUsable(current)) { // Another thread was faster.
+            return current;
+        }
+        try {
+            return refreshOrFail();
+        } catch (final Exception ex) {
+            throw createException(ex);
+        }
+    }
+
     public boolean isClosed() {
         return isClosed.get();
     }
@@ -112,13 +202,33 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         if (isClosed.get()) {
             throw createException("Token already closed.");
         }
-        return token.get()
-            .getOrElseThrow(ZonkyApiTokenSupplier::createException);
+        var current = token.get();
+        if (isUsable(current)) {
+            return current;
+        }
+        return refreshNow();
     }
 
+    /**
+     * Stops refreshing the token and waits a while for the latest token to be stored, as the previous one may no
+     * longer be accepted by Zonky.
+     */
     @Override
     public void close() {
         isClosed.set(true);
+        var refresh = scheduledRefresh.getAndSet(null);
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+        try {
+            lastPersisted.get()
+                .get(PERSIST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread()
+                .interrupt();
+        } catch (final TimeoutException | ExecutionException ex) {
+            LOGGER.debug("Failed waiting for token to be stored.", ex);
+        }
         LOGGER.debug("Token closed.");
     }
 }
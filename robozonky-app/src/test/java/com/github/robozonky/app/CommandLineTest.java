@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.KeyStoreException;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
@@ -34,6 +35,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.app.daemon.Daemon;
+import com.github.robozonky.app.daemon.MultiTenantDaemon;
 import com.github.robozonky.app.runtime.Lifecycle;
 import com.github.robozonky.internal.extensions.ListenerServiceLoader;
 import com.github.robozonky.internal.secrets.KeyStoreHandler;
@@ -93,6 +95,48 @@ class CommandLineTest extends AbstractRoboZonkyTest {
         assertThat(ListenerServiceLoader.getNotificationConfiguration(mockSessionInfo())).isNotEmpty();
     }
 
+    private static void writeTenant(final Path directory, final String name, final String username,
+            final String password) throws IOException, KeyStoreException {
+        final File keystore = directory.resolve(name + ".keystore")
+            .toFile();
+        final KeyStoreHandler ksh = KeyStoreHandler.create(keystore, password.toCharArray());
+        SecretProvider.keyStoreBased(ksh, username, "something".toCharArray());
+        Files.write(directory.resolve(name + ".cli"),
+                List.of("-g", keystore.getAbsolutePath(), "-s", "somewhere", "-d"));
+    }
+
+    @Test
+    void validMultiTenantCli() throws IOException, KeyStoreException {
+        final Path directory = Files.createTempDirectory("robozonky-");
+        writeTenant(directory, "first", "first@robozonky.cz", "password");
+        writeTenant(directory, "second", "second@robozonky.cz", "password");
+        final App main = new App("-t", directory.toString(), "-p", "password");
+        final Optional<Function<Lifecycle, InvestmentMode>> cfg = CommandLine.parse(main);
+        assertThat(cfg).isPresent();
+        final InvestmentMode mode = cfg.get()
+            .apply(null);
+        assertThat(mode).isInstanceOf(MultiTenantDaemon.class);
+        assertThat(mode.getSessionInfo()
+            .getName()).isEqualTo("first"); // named after the file
+    }
+
+    @Test
+    void multiTenantCliDuplicateAccount() throws IOException, KeyStoreException {
+        final Path directory = Files.createTempDirectory("robozonky-");
+        writeTenant(directory, "first", USERNAME, "password");
+        writeTenant(directory, "second", USERNAME, "password");
+        final App main = mockedApp("-t", directory.toString(), "-p", "password");
+        assertThat(CommandLine.parse(main)).isEmpty();
+    }
+
+    @Test
+    void multiTenantCliWithSingleTenantOptions() throws IOException {
+        final Path directory = Files.createTempDirectory("robozonky-");
+        final App main = mockedApp("-t", directory.toString(), "-p", "password", "-s", "somewhere");
+        main.run();
+        verify(main).actuallyExit(eq(ReturnCode.ERROR_SETUP.getCode()));
+    }
+
     @Test
     void validDaemonCliNoKeystore() {
         final App main = mockedApp("-g", "a", "-p", "p", "-i", "somewhere.txt", "-s", "somewhere");
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.app.AbstractZonkyLeveragingTest;
+import com.github.robozonky.app.runtime.Lifecycle;
+import com.github.robozonky.app.tenant.PowerTenant;
+import com.github.robozonky.internal.async.Scheduler;
+import com.github.robozonky.internal.remote.SharedHttpClient;
+
+class MultiTenantDaemonTest extends AbstractZonkyLeveragingTest {
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    @Test
+    void failingTenantStopsAlone() throws Exception {
+        final PowerTenant first = mockTenant(harmlessZonky(), true);
+        final PowerTenant second = mockTenant(harmlessZonky(), true);
+        final Scheduler s = Scheduler.create();
+        try (final MultiTenantDaemon d = new MultiTenantDaemon(List.of(first, second), new SharedHttpClient(2),
+                lifecycle, s)) {
+            assertThat(d.getSessionInfo()).isSameAs(first.getSessionInfo());
+            final List<Scheduler> schedulers = d.getTenantSchedulers();
+            assertThat(schedulers).hasSize(2);
+            final Exception ex = new IllegalStateException("Testing.");
+            d.stopTenant(first, schedulers.get(0), ex);
+            d.stopTenant(first, schedulers.get(0), ex); // Stopping again has no effect.
+            assertThat(schedulers.get(0)
+                .isClosed()).isTrue();
+            assertThat(schedulers.get(1)
+                .isClosed()).isFalse();
+            assertThat(lifecycle.isFailed()).isFalse();
+            d.stopTenant(second, schedulers.get(1), ex); // No tenants left.
+            assertThat(lifecycle.isFailed()).isTrue();
+        }
+        verify(first).close();
+        verify(second).close();
+        assertThat(s.isClosed()).isTrue();
+    }
+
+    @Test
+    void noTenants() {
+        assertThatThrownBy(() -> new MultiTenantDaemon(List.of(), new SharedHttpClient(0), lifecycle))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
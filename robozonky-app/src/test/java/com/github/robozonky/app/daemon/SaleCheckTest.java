@@ -101,6 +101,7 @@ class SaleCheckTest extends AbstractZonkyLeveragingTest {
                 .hasSize(1)
                 .first()
                 .isInstanceOf(InvestmentSoldEvent.class);
+            verify(zonky, times(1)).getInvestmentsById(any()); // retrieved all at once
         }
 
     }
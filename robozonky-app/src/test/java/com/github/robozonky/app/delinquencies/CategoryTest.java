@@ -26,6 +26,8 @@ import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.mockito.Mockito.*;
 
+import java.util.EnumSet;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -162,4 +164,36 @@ class CategoryTest extends AbstractZonkyLeveragingTest {
             .isInstanceOf(LoanDefaultedEvent.class);
         verify(zonky).getLoan(eq(loan.getId()));
     }
+
+    @Test
+    void masks() {
+        final int mask = Category.toMask(EnumSet.of(NEW, SEVERE, DEFAULTED));
+        assertThat(Category.fromMask(mask)).containsExactly(NEW, SEVERE, DEFAULTED);
+        assertThat(Category.fromMask(0)).isEmpty();
+        assertThat(DEFAULTED.isIn(mask)).isTrue();
+        assertThat(MILD.isIn(mask)).isFalse();
+        assertThat(DEFAULTED.isIn(-1)).isTrue(); // all bits set
+    }
+
+    @Test
+    void next() {
+        final int mild = Category.toMask(EnumSet.of(NEW, MILD));
+        assertSoftly(softly -> {
+            softly.assertThat(Category.getNext(0, 0, false))
+                .contains(NEW);
+            softly.assertThat(Category.getNext(0, 45, false))
+                .contains(SEVERE);
+            softly.assertThat(Category.getNext(mild, 29, false))
+                .isEmpty();
+            softly.assertThat(Category.getNext(mild, 30, false))
+                .contains(SEVERE);
+            softly.assertThat(Category.getNext(mild, 29, true))
+                .contains(DEFAULTED);
+            softly.assertThat(Category.getNext(mild
+                    | DEFAULTED.getMask(), 29, true))
+                .isEmpty();
+            softly.assertThat(Category.getNext(Category.toMask(EnumSet.allOf(Category.class)), 120, false))
+                .isEmpty();
+        });
+    }
 }
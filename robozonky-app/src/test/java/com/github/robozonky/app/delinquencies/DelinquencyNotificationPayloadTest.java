@@ -87,19 +87,19 @@ class DelinquencyNotificationPayloadTest extends AbstractZonkyLeveragingTest {
         // run test
         payload.accept(tenant);
         assertSoftly(softly -> {
-            softly.assertThat(r.getCategories(i1))
+            softly.assertThat(Category.fromMask(r.getMask(i1.getId())))
                 .containsExactly(Category.NEW);
-            softly.assertThat(r.getCategories(i10))
+            softly.assertThat(Category.fromMask(r.getMask(i10.getId())))
                 .containsExactly(Category.NEW, Category.MILD);
-            softly.assertThat(r.getCategories(i30))
+            softly.assertThat(Category.fromMask(r.getMask(i30.getId())))
                 .containsExactly(Category.NEW, Category.MILD, Category.SEVERE);
-            softly.assertThat(r.getCategories(i60))
+            softly.assertThat(Category.fromMask(r.getMask(i60.getId())))
                 .containsExactly(Category.NEW, Category.MILD, Category.SEVERE,
                         Category.CRITICAL);
-            softly.assertThat(r.getCategories(i90))
+            softly.assertThat(Category.fromMask(r.getMask(i90.getId())))
                 .containsExactly(Category.NEW, Category.MILD, Category.SEVERE,
                         Category.CRITICAL, Category.HOPELESS);
-            softly.assertThat(r.getCategories(defaulted))
+            softly.assertThat(Category.fromMask(r.getMask(defaulted.getId())))
                 .containsExactly(Category.NEW, Category.MILD, Category.SEVERE,
                         Category.CRITICAL, Category.HOPELESS,
                         Category.DEFAULTED);
@@ -187,4 +187,25 @@ class DelinquencyNotificationPayloadTest extends AbstractZonkyLeveragingTest {
         payload.accept(tenant); // nothing happens, repayments are not handled by this class
         assertThat(getEventsRequested()).isEmpty();
     }
+
+    @Test
+    void processesOnlyChangedDelinquencies() {
+        final InvestmentImpl i1 = getDelinquentInvestment(1);
+        when(zonky.getDelinquentInvestments()).thenAnswer(invocation -> Stream.of(i1));
+        payload.accept(tenant); // nothing will happen here, as this is the initializing run
+        readPreexistingEvents();
+        ((InvestmentLoanDataImpl) i1.getLoan()).setDpd(9);
+        payload.accept(tenant); // still in the same category
+        assertThat(getEventsRequested()).isEmpty();
+        verify(zonky, never()).getInvestment(anyLong());
+        ((InvestmentLoanDataImpl) i1.getLoan()).setDpd(10);
+        final Loan fresh = MockLoanBuilder.fresh();
+        when(zonky.getLoan(anyInt())).thenReturn(fresh);
+        payload.accept(tenant); // crossed the threshold
+        assertThat(getEventsRequested())
+            .extracting(e -> (Object) e.getClass()
+                .getInterfaces()[0])
+            .containsExactly(LoanDelinquent10DaysOrMoreEvent.class);
+        assertThat(Category.fromMask(r.getMask(i1.getId()))).containsExactly(Category.NEW, Category.MILD);
+    }
 }
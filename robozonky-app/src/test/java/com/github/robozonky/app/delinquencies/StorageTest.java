@@ -19,13 +19,13 @@ package com.github.robozonky.app.delinquencies;
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assumptions.assumeThat;
 
-import java.util.Collections;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.tenant.Tenant;
+import com.github.robozonky.internal.util.LongSet;
 import com.github.robozonky.test.AbstractRoboZonkyTest;
 
 class StorageTest extends AbstractRoboZonkyTest {
@@ -42,7 +42,7 @@ class StorageTest extends AbstractRoboZonkyTest {
         s.add(id);
         s.persist();
         final Storage s2 = new Storage(tenant, uid);
-        assertThat(s2.isKnown(id)).isTrue();
+        assertThat(s2.toArray()).contains(id);
     }
 
     @Test
@@ -54,7 +54,7 @@ class StorageTest extends AbstractRoboZonkyTest {
         assertThat(s.add(id)).isFalse();
         assertThat(s.remove(id)).isFalse(); // the original did not contain this id
         s.persist();
-        assertThat(s.isKnown(id)).isFalse(); // the add call was negated by the remove call
+        assertThat(s.toArray()).doesNotContain(id); // the add call was negated by the remove call
     }
 
     @Test
@@ -62,8 +62,8 @@ class StorageTest extends AbstractRoboZonkyTest {
         final long id = 1;
         final Storage s = new Storage(tenant, UUID.randomUUID()
             .toString());
-        assertThat(s.complement(Collections.emptySet())).isEmpty();
-        assertThat(s.complement(Collections.singleton(id))).isEmpty();
+        assertThat(s.complement(new LongSet())).isEmpty();
+        assertThat(s.complement(LongSet.of(id))).isEmpty();
     }
 
     @Test
@@ -74,9 +74,9 @@ class StorageTest extends AbstractRoboZonkyTest {
         s.add(id);
         s.persist();
         // start the test
-        assertThat(s.complement(Collections.emptySet())).containsOnly(id);
-        assertThat(s.complement(Collections.singleton(2l))).containsOnly(id);
-        assertThat(s.complement(Collections.singleton(id))).isEmpty();
+        assertThat(s.complement(new LongSet())).containsOnly(id);
+        assertThat(s.complement(LongSet.of(2))).containsOnly(id);
+        assertThat(s.complement(LongSet.of(id))).isEmpty();
     }
 
     @Test
@@ -91,7 +91,7 @@ class StorageTest extends AbstractRoboZonkyTest {
         assertThat(s.remove(id)).isFalse();
         assertThat(s.add(id)).isFalse(); // the original contained this id
         s.persist();
-        assertThat(s.isKnown(id)).isTrue(); // the remove call was negated by the add call
+        assertThat(s.toArray()).contains(id); // the remove call was negated by the add call
     }
 
     @Test
@@ -99,15 +99,15 @@ class StorageTest extends AbstractRoboZonkyTest {
         final long id = 1;
         final Storage s = new Storage(tenant, UUID.randomUUID()
             .toString());
-        assumeThat(s.isKnown(id)).isFalse();
+        assumeThat(s.toArray()).doesNotContain(id);
         s.add(id);
-        assertThat(s.isKnown(id)).isFalse();
+        assertThat(s.toArray()).doesNotContain(id);
         s.persist();
-        assertThat(s.isKnown(id)).isTrue();
+        assertThat(s.toArray()).contains(id);
         s.remove(id);
-        assertThat(s.isKnown(id)).isTrue();
+        assertThat(s.toArray()).contains(id);
         s.persist();
-        assertThat(s.isKnown(id)).isFalse();
+        assertThat(s.toArray()).doesNotContain(id);
     }
 
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.events;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EventDispatchExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void addRegistry() {
+        Defaults.METER_REGISTRY.add(registry);
+    }
+
+    @AfterEach
+    void removeRegistry() {
+        Defaults.METER_REGISTRY.remove(registry);
+    }
+
+    @Test
+    void runsOnDedicatedThreads() {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        CompletableFuture.runAsync(() -> thread.set(Thread.currentThread()), EventDispatchExecutor.get())
+            .join();
+        assertThat(thread.get()).isNotNull();
+        assertSoftly(softly -> {
+            softly.assertThat(thread.get()
+                .getName())
+                .startsWith("robozonky-events-");
+            softly.assertThat(thread.get()
+                .isDaemon())
+                .isTrue();
+        });
+    }
+
+    @Test
+    void fullQueueRunsOnCaller() throws InterruptedException {
+        final String name = "robozonky.events.test";
+        final ExecutorService executor = EventDispatchExecutor.create(name, 1, 1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(() -> { // occupies the only thread
+                started.countDown();
+                try {
+                    blocker.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread()
+                        .interrupt();
+                }
+            });
+            started.await();
+            final AtomicReference<Thread> queued = new AtomicReference<>();
+            executor.execute(() -> queued.set(Thread.currentThread())); // fills the queue
+            final AtomicReference<Thread> overflown = new AtomicReference<>();
+            executor.execute(() -> overflown.set(Thread.currentThread())); // no space left, runs right here
+            assertThat(overflown.get()).isSameAs(Thread.currentThread());
+            assertThat(queued.get()).isNull();
+            assertThat(registry.get(name + ".backpressure")
+                .counter()
+                .count()).isEqualTo(1.0);
+            blocker.countDown();
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                while (queued.get() == null) {
+                    Thread.sleep(10);
+                }
+            });
+            assertThat(queued.get()).isNotSameAs(Thread.currentThread());
+        } finally {
+            blocker.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.events;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.notifications.Event;
+import com.github.robozonky.api.notifications.EventListener;
+import com.github.robozonky.api.notifications.RoboZonkyTestingEvent;
+import com.github.robozonky.app.events.impl.EventFactory;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.tenant.LazyEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SessionEventBusTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final EventListener<RoboZonkyTestingEvent> listener = (event, sessionInfo) -> {
+        // no need to do anything
+    };
+
+    @BeforeEach
+    void addRegistry() {
+        Defaults.METER_REGISTRY.add(registry);
+    }
+
+    @AfterEach
+    void removeRegistry() {
+        Defaults.METER_REGISTRY.remove(registry);
+        executor.shutdownNow();
+    }
+
+    private static LazyEvent<RoboZonkyTestingEvent> event() {
+        return EventFactory.async(RoboZonkyTestingEvent.class, EventFactory::roboZonkyTesting);
+    }
+
+    @Test
+    void noListenersCompletesImmediately() {
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ZERO, (events, listener) -> fail("Called."));
+        assertThat(bus.submit(event(), Collections.emptyList())).isCompleted();
+        assertThat(bus.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void preservesOrder() {
+        final List<LazyEvent<? extends Event>> delivered = Collections.synchronizedList(new ArrayList<>(0));
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ZERO,
+                (events, listener) -> delivered.addAll(events));
+        final List<LazyEvent<RoboZonkyTestingEvent>> fired = IntStream.range(0, 1_000)
+            .mapToObj(i -> event())
+            .collect(Collectors.toList());
+        final CompletableFuture<?>[] results = fired.stream()
+            .map(e -> bus.submit(e, List.of(listener)))
+            .toArray(CompletableFuture[]::new);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> CompletableFuture.allOf(results)
+            .join());
+        assertThat(delivered).containsExactlyElementsOf(fired);
+        assertThat(bus.getQueueDepth()).isZero();
+        assertThat(registry.get("robozonky.events.latency")
+            .timer()
+            .count()).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void coalescesWithinWindow() {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>(0));
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ofMillis(500),
+                (events, listener) -> batchSizes.add(events.size()));
+        final CompletableFuture<?>[] results = IntStream.range(0, 3)
+            .mapToObj(i -> bus.submit(event(), List.of(listener)))
+            .toArray(CompletableFuture[]::new);
+        assertThat(bus.getQueueDepth()).isEqualTo(3);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> CompletableFuture.allOf(results)
+            .join());
+        assertThat(batchSizes).containsExactly(3);
+    }
+
+    @Test
+    void doesNotCoalesceDifferentListeners() {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>(0));
+        final EventListener<RoboZonkyTestingEvent> otherListener = (event, sessionInfo) -> {
+            // no need to do anything
+        };
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ofMillis(500),
+                (events, listener) -> batchSizes.add(events.size()));
+        final CompletableFuture<?> first = bus.submit(event(), List.of(listener));
+        final CompletableFuture<?> second = bus.submit(event(), List.of(otherListener));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> CompletableFuture.allOf(first, second)
+            .join());
+        assertThat(batchSizes).containsExactly(1, 1);
+    }
+
+    @Test
+    void coalescesWhileBusy() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>(0));
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ZERO, (events, listener) -> {
+            try {
+                blocker.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread()
+                    .interrupt();
+            }
+            batchSizes.add(events.size());
+        });
+        final CompletableFuture<?> first = bus.submit(event(), List.of(listener));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (bus.getQueueDepth() > 0) { // wait until the first event is being delivered
+                Thread.sleep(1);
+            }
+        });
+        final CompletableFuture<?>[] others = IntStream.range(0, 5)
+            .mapToObj(i -> bus.submit(event(), List.of(listener)))
+            .toArray(CompletableFuture[]::new);
+        blocker.countDown();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> CompletableFuture.allOf(others)
+            .join());
+        assertThat(first).isCompleted();
+        assertThat(batchSizes).containsExactly(1, 5);
+    }
+
+    @Test
+    void failureCompletesExceptionally() {
+        final SessionEventBus bus = new SessionEventBus(executor, Duration.ZERO, (events, listener) -> {
+            throw new IllegalStateException("Testing.");
+        });
+        final CompletableFuture<?> result = bus.submit(event(), List.of(listener));
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThatThrownBy(result::join).hasCauseInstanceOf(IllegalStateException.class));
+        final CompletableFuture<?> next = bus.submit(event(), List.of(listener)); // the bus keeps going
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThatThrownBy(next::join).hasCauseInstanceOf(IllegalStateException.class));
+    }
+}
@@ -21,11 +21,18 @@ import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.*;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
+import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.api.notifications.BatchEventListener;
 import com.github.robozonky.api.notifications.EventListener;
 import com.github.robozonky.api.notifications.ExecutionCompletedEvent;
 import com.github.robozonky.api.notifications.LoanDelinquent90DaysOrMoreEvent;
@@ -128,6 +135,33 @@ class SessionEventsTest extends AbstractEventLeveragingTest {
         assertThat(this.getEventsFailed()).isNotEmpty();
     }
 
+    @Test
+    void batchListenerReceivesEventsInOrder() {
+        final List<ExecutionCompletedEvent> received = Collections.synchronizedList(new ArrayList<>(0));
+        final SessionEvents events = Events.forSession(tenant);
+        events.injectEventListener(new BatchEventListener<ExecutionCompletedEvent>() {
+            @Override
+            public void handle(final List<ExecutionCompletedEvent> events, final SessionInfo sessionInfo) {
+                received.addAll(events);
+            }
+
+            @Override
+            public void handle(final ExecutionCompletedEvent event, final SessionInfo sessionInfo) {
+                received.add(event);
+            }
+        });
+        final List<ExecutionCompletedEvent> fired = IntStream.range(0, 100)
+            .mapToObj(i -> EventFactory.executionCompleted(mockPortfolioOverview()))
+            .collect(Collectors.toList());
+        final CompletableFuture<?>[] results = fired.stream()
+            .map(events::fire)
+            .toArray(CompletableFuture[]::new);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CompletableFuture.allOf(results)
+            .join());
+        assertThat(received).containsExactlyElementsOf(fired);
+        assertThat(getEventsFired()).hasSize(100);
+    }
+
     @Test
     void differentInstancesForDifferentUsernames() {
         final SessionEvents a = Events.forSession(tenant);
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.summaries;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.Money;
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.api.remote.enums.LoanHealth;
+import com.github.robozonky.api.remote.enums.Rating;
+import com.github.robozonky.api.remote.enums.SellStatus;
+import com.github.robozonky.internal.remote.entities.AmountsImpl;
+import com.github.robozonky.internal.remote.entities.InvestmentImpl;
+import com.github.robozonky.internal.remote.entities.LoanHealthStatsImpl;
+import com.github.robozonky.internal.remote.entities.LoanImpl;
+import com.github.robozonky.internal.remote.entities.SellInfoImpl;
+import com.github.robozonky.test.mock.MockInvestmentBuilder;
+import com.github.robozonky.test.mock.MockLoanBuilder;
+
+class AggregateTest {
+
+    private static Investment investment(final Rating rating, final int invested, final SellStatus sellStatus) {
+        var loan = new MockLoanBuilder()
+            .set(LoanImpl::setInterestRate, rating.getInterestRate())
+            .build();
+        return MockInvestmentBuilder.fresh(loan, new LoanHealthStatsImpl(LoanHealth.HEALTHY), invested)
+            .set(InvestmentImpl::setSellStatus, sellStatus)
+            .set(InvestmentImpl::setInterest, new AmountsImpl(Money.ZERO))
+            .build();
+    }
+
+    @Test
+    void sellable() {
+        var withFee = (InvestmentImpl) investment(Rating.D, 200, SellStatus.SELLABLE_WITH_FEE);
+        withFee.setSmpSellInfo(new SellInfoImpl(Money.from(200), Money.from(3.5)));
+        var aggregate = new Aggregate();
+        aggregate.addSellable(investment(Rating.D, 100, SellStatus.SELLABLE_WITHOUT_FEE));
+        aggregate.addSellable(withFee);
+        aggregate.addSellable(investment(Rating.A, 0, SellStatus.SELLABLE_WITHOUT_FEE)); // ignored
+        assertSoftly(softly -> {
+            softly.assertThat(aggregate.getSellable())
+                .containsOnlyKeys(Rating.D.getInterestRate())
+                .containsValue(Money.from(296.5));
+            softly.assertThat(aggregate.getSellableWithoutFee())
+                .containsOnlyKeys(Rating.D.getInterestRate())
+                .containsValue(Money.from(100));
+            softly.assertThat(aggregate.getAtRisk())
+                .containsOnlyKeys(Rating.D.getInterestRate())
+                .containsValue(Money.ZERO);
+        });
+    }
+
+    @Test
+    void merges() {
+        var first = new Aggregate();
+        first.addAtRisk(investment(Rating.B, 100, SellStatus.NOT_SELLABLE));
+        var second = new Aggregate();
+        second.addAtRisk(investment(Rating.B, 50, SellStatus.NOT_SELLABLE));
+        second.addSellable(investment(Rating.C, 20, SellStatus.SELLABLE_WITHOUT_FEE));
+        first.merge(second);
+        assertSoftly(softly -> {
+            softly.assertThat(first.getAtRisk())
+                .containsEntry(Rating.B.getInterestRate(), Money.from(150))
+                .containsEntry(Rating.C.getInterestRate(), Money.ZERO);
+            softly.assertThat(first.getSellable())
+                .containsEntry(Rating.B.getInterestRate(), Money.ZERO)
+                .containsEntry(Rating.C.getInterestRate(), Money.from(20));
+        });
+        assertThat(second.getAtRisk()).containsEntry(Rating.B.getInterestRate(), Money.from(50));
+    }
+
+}
@@ -25,6 +25,7 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,6 +37,7 @@ import javax.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.CircuitBreaker;
 import com.github.robozonky.internal.tenant.Availability;
 import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.test.AbstractRoboZonkyTest;
@@ -158,4 +160,24 @@ class AvailabilityImplTest extends AbstractRoboZonkyTest {
         });
     }
 
+    @Test
+    void noPauseOnEndpointFailure() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("portfolio");
+        final Availability a = new AvailabilityImpl(s, null, List.of(circuitBreaker));
+        final ResponseProcessingException ex = new ResponseProcessingException(Response.ok()
+            .build(),
+                UUID.randomUUID()
+                    .toString());
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw ex;
+        })).isSameAs(ex);
+        assertThat(a.registerException(new IllegalStateException(ex))).isFalse();
+        assertThat(a.isAvailable()).isTrue();
+        // Unrelated failure still pauses everything.
+        assertThat(a.registerException(new ResponseProcessingException(Response.ok()
+            .build(),
+                UUID.randomUUID()
+                    .toString()))).isTrue();
+        assertThat(a.isAvailable()).isFalse();
+    }
 }
@@ -19,6 +19,7 @@ package com.github.robozonky.app.tenant;
 import static com.github.robozonky.app.tenant.ZonkyApiTokenSupplier.reloadAfter;
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.Mockito.*;
 
 import java.time.Duration;
@@ -162,6 +163,51 @@ class ZonkyApiTokenSupplierTest extends AbstractZonkyLeveragingTest {
         t.close();
     }
 
+    @Test
+    void refreshesInBackground() {
+        final Zonky zonky = mock(Zonky.class);
+        final OAuth oAuth = mock(OAuth.class);
+        final ZonkyApiToken first = getTokenExpiringIn(Duration.ofMinutes(5));
+        final ZonkyApiToken second = new ZonkyApiTokenImpl(UUID.randomUUID()
+            .toString(),
+                UUID.randomUUID()
+                    .toString(),
+                1); // Refreshed again in half a second.
+        final ZonkyApiToken third = getTokenExpiringIn(Duration.ofMinutes(5));
+        when(oAuth.refresh(any())).thenReturn(second, third);
+        final ApiProvider api = mockApi(oAuth, zonky);
+        final SecretProvider secrets = mock(SecretProvider.class, delegatesTo(this.secrets));
+        secrets.setToken(first);
+        final ZonkyApiTokenSupplier t = new ZonkyApiTokenSupplier(api, secrets);
+        try {
+            assertThat(t.get()).isSameAs(second);
+            verify(oAuth, timeout(5_000).times(2)).refresh(any());
+            verify(secrets, timeout(5_000)).setToken(third); // Stored in the background.
+            assertThat(t.get()).isSameAs(third);
+            verify(oAuth, times(2)).refresh(any()); // Reading the token does not refresh it.
+            verify(api, times(2)).oauth(any());
+        } finally {
+            t.close();
+        }
+    }
+
+    @Test
+    void closingStopsRefreshing() {
+        final Zonky zonky = mock(Zonky.class);
+        final OAuth oAuth = mock(OAuth.class);
+        when(oAuth.refresh(any())).thenReturn(new ZonkyApiTokenImpl(UUID.randomUUID()
+            .toString(),
+                UUID.randomUUID()
+                    .toString(),
+                1));
+        final ApiProvider api = mockApi(oAuth, zonky);
+        secrets.setToken(getTokenExpiringIn(Duration.ofMinutes(5)));
+        final ZonkyApiTokenSupplier t = new ZonkyApiTokenSupplier(api, secrets);
+        assertThat(t.get()).isNotNull();
+        t.close();
+        verify(oAuth, after(1_000).times(1)).refresh(any());
+    }
+
     @Test
     void reloadInterval() {
         var token = getTokenExpiringIn(Duration.ofMinutes(119));
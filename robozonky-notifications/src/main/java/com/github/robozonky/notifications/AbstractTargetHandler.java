@@ -17,10 +17,13 @@
 package com.github.robozonky.notifications;
 
 import java.time.Duration;
-import java.util.EnumMap;
-import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -28,38 +31,72 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
 
+/**
+ * All per-listener settings are resolved once, when the handler is created for a freshly loaded configuration, and
+ * counters are looked up without locking, so that notifications from many sessions can be processed concurrently.
+ */
 public abstract class AbstractTargetHandler {
 
     private static final String HOURLY_LIMIT = "hourlyMaxEmails";
+    private static final String GLOBAL_COUNTER_ID = "global";
+    private static final SupportedListener[] LISTENERS = SupportedListener.values();
+    private static final Set<SupportedListener> DELINQUENCY_LISTENERS = EnumSet.of(
+            SupportedListener.LOAN_NOW_DELINQUENT, SupportedListener.LOAN_DELINQUENT_10_PLUS,
+            SupportedListener.LOAN_DELINQUENT_30_PLUS, SupportedListener.LOAN_DELINQUENT_60_PLUS,
+            SupportedListener.LOAN_DELINQUENT_90_PLUS);
     protected final Target target;
     final ConfigStorage config;
     private final Logger logger = LogManager.getLogger(getClass());
-    private final Map<SessionInfo, Counter> notifications = new HashMap<>(0);
-    private final Map<SupportedListener, Map<SessionInfo, Counter>> specificNotifications = new EnumMap<>(
-            SupportedListener.class);
+    private final boolean enabledInSettings;
+    private final int hourlyLimit;
+    private final boolean[] enabled = new boolean[LISTENERS.length];
+    private final int[] hourlyLimits = new int[LISTENERS.length];
+    private final Map<SessionInfo, Counter> notifications = new ConcurrentHashMap<>(0);
+    private final List<Map<SessionInfo, Counter>> specificNotifications = Stream.of(LISTENERS)
+        .map(l -> new ConcurrentHashMap<SessionInfo, Counter>(0))
+        .collect(Collectors.toUnmodifiableList());
 
     protected AbstractTargetHandler(final ConfigStorage config, final Target target) {
         this.config = config;
         this.target = target;
+        this.enabledInSettings = config.readBoolean(target, "enabled", false);
+        final int limit = config.readInt(target, HOURLY_LIMIT, Integer.MAX_VALUE);
+        this.hourlyLimit = (limit < 0) ? Integer.MAX_VALUE : limit;
+        for (final SupportedListener listener : LISTENERS) {
+            final int i = listener.ordinal();
+            hourlyLimits[i] = getListenerSpecificIntProperty(listener, HOURLY_LIMIT, Integer.MAX_VALUE);
+            enabled[i] = isEnabledInSettings(listener);
+        }
+        /*
+         * "no longer delinquent" will only be triggered in case a loan was previously marked as delinquent - those are
+         * "companion" notifications, the first making no sense without the second. therefore we enable it in case
+         * any of the others is enabled as well. it can not be disabled.
+         */
+        final boolean anyDelinquencyEnabled = DELINQUENCY_LISTENERS.stream()
+            .anyMatch(l -> enabled[l.ordinal()]);
+        enabled[SupportedListener.LOAN_NO_LONGER_DELINQUENT.ordinal()] |= anyDelinquencyEnabled;
+        // testing is always enabled so that notification testing in the installer has something to work with
+        enabled[SupportedListener.TESTING.ordinal()] = true;
     }
 
     private static String getCompositePropertyName(final SupportedListener listener, final String property) {
         return listener.getLabel() + "." + property;
     }
 
-    private synchronized Counter getCounter(final SessionInfo sessionInfo) {
+    private Counter getCounter(final SessionInfo sessionInfo) {
+        final Counter counter = notifications.get(sessionInfo);
+        if (counter != null) {
+            return counter;
+        }
+        Counter.flush(sessionInfo, GLOBAL_COUNTER_ID); // a previous counter may still have changes to write
         return notifications.computeIfAbsent(sessionInfo,
-                s -> new Counter(s, "global", getHourlyLimit(), Duration.ofHours(1)));
+                s -> new Counter(s, GLOBAL_COUNTER_ID, hourlyLimit, Duration.ofHours(1)));
     }
 
     public Target getTarget() {
         return target;
     }
 
-    private int getHourlyLimit(final SupportedListener listener) {
-        return this.getListenerSpecificIntProperty(listener, HOURLY_LIMIT, Integer.MAX_VALUE);
-    }
-
     public int getListenerSpecificIntProperty(final SupportedListener listener, final String property,
             final int defaultValue) {
         return this.getListenerSpecificIntProperty(listener, property)
@@ -80,20 +117,20 @@ public abstract class AbstractTargetHandler {
         return global && getSpecificCounter(sessionInfo, listener).allow();
     }
 
-    private int getHourlyLimit() {
-        final int val = config.readInt(target, HOURLY_LIMIT, Integer.MAX_VALUE);
-        return (val < 0) ? Integer.MAX_VALUE : val;
-    }
-
-    private synchronized Counter getSpecificCounter(final SessionInfo sessionInfo, final SupportedListener listener) {
-        return specificNotifications.computeIfAbsent(listener, key -> new HashMap<>(1))
-            .computeIfAbsent(sessionInfo, s -> new Counter(s, this.getClass()
-                .getSimpleName(),
-                    getHourlyLimit(listener)));
+    private Counter getSpecificCounter(final SessionInfo sessionInfo, final SupportedListener listener) {
+        final Map<SessionInfo, Counter> counters = specificNotifications.get(listener.ordinal());
+        final Counter counter = counters.get(sessionInfo);
+        if (counter != null) {
+            return counter;
+        }
+        final String id = this.getClass()
+            .getSimpleName() + "-" + listener.getLabel();
+        Counter.flush(sessionInfo, id); // a previous counter may still have changes to write
+        return counters.computeIfAbsent(sessionInfo, s -> new Counter(s, id, hourlyLimits[listener.ordinal()]));
     }
 
     boolean isEnabledInSettings() {
-        return config.readBoolean(target, "enabled", false);
+        return enabledInSettings;
     }
 
     private boolean isEnabledInSettings(final SupportedListener listener) {
@@ -101,27 +138,8 @@ public abstract class AbstractTargetHandler {
         return this.isEnabledInSettings() && config.readBoolean(target, propName, false);
     }
 
-    private boolean enableNoLongerDelinquentNotifications() {
-        /*
-         * "no longer delinquent" will only be triggered in case a loan was previously marked as delinquent - those are
-         * "companion" notifications, the first making no sense without the second. therefore we enable it in case
-         * any of the others is enabled as well. it can not be disabled.
-         */
-        return Stream.of(SupportedListener.LOAN_NOW_DELINQUENT, SupportedListener.LOAN_DELINQUENT_10_PLUS,
-                SupportedListener.LOAN_DELINQUENT_30_PLUS, SupportedListener.LOAN_DELINQUENT_60_PLUS,
-                SupportedListener.LOAN_DELINQUENT_90_PLUS)
-            .anyMatch(this::isEnabled);
-    }
-
     boolean isEnabled(final SupportedListener listener) {
-        final boolean noLongerDelinquentEnabled = listener == SupportedListener.LOAN_NO_LONGER_DELINQUENT &&
-                enableNoLongerDelinquentNotifications();
-        if (noLongerDelinquentEnabled || listener == SupportedListener.TESTING) {
-            // testing is always enabled so that notification testing in the installer has something to work with
-            return true;
-        } else {
-            return isEnabledInSettings(listener);
-        }
+        return enabled[listener.ordinal()];
     }
 
     public void offer(final Submission s) throws Exception {
@@ -135,7 +153,7 @@ public abstract class AbstractTargetHandler {
         final Map<String, Object> data = s.getData();
         logger.trace("Triggering.");
         try {
-            send(session, s.getSubject(), s.getMessage(data), s.getFallbackMessage(data));
+            send(s, data);
         } catch (final ClassNotFoundException ex) {
             throw new IllegalStateException("Failed sending e-mail.", ex);
         }
@@ -145,6 +163,29 @@ public abstract class AbstractTargetHandler {
         logger.trace("Finished.");
     }
 
+    /**
+     * Send the notification on behalf of a listener. Override in handlers which deliver in the background, so that
+     * they can honor {@link SupportedListener#requiresImmediateDelivery()}. The contents are only rendered when
+     * needed, which allows handlers to only render what they need and when they need it.
+     *
+     * @param submission Notification to send.
+     * @param data       Data to render the notification with, from {@link Submission#getData()}.
+     * @throws Exception When the notification could not be sent, or queued for sending in the background.
+     */
+    protected void send(final Submission submission, final Map<String, Object> data) throws Exception {
+        send(submission.getSessionInfo(), submission.getSubject(), submission.getMessage(data),
+                submission.getFallbackMessage(data));
+    }
+
+    /**
+     * Send a notification and wait until it is sent.
+     *
+     * @param sessionInfo     Session which triggered the notification.
+     * @param subject         Subject of the notification.
+     * @param message         HTML contents of the notification.
+     * @param fallbackMessage Plain text contents of the notification.
+     * @throws Exception When the notification could not be sent.
+     */
     public abstract void send(final SessionInfo sessionInfo, final String subject,
             final String message, final String fallbackMessage) throws Exception;
 }
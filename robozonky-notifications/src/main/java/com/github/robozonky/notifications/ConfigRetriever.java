@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.notifications;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.util.UrlUtil;
+
+/**
+ * Retrieves notification configuration from a given location. When the configuration is being reloaded, the
+ * location is only read again if it changed since; HTTP locations are asked using ETag and If-Modified-Since, other
+ * locations are compared by their last modification time. Unchanged configuration results in the previous instance
+ * being returned.
+ */
+final class ConfigRetriever {
+
+    private static final Logger LOGGER = LogManager.getLogger(ConfigRetriever.class);
+
+    private final URL source;
+    // only ever accessed by the reloadable, which never reloads concurrently
+    private String eTag;
+    private long lastModified = 0;
+
+    public ConfigRetriever(final URL source) {
+        this.source = source;
+    }
+
+    private static boolean isNotModified(final URLConnection connection) throws IOException {
+        if (connection instanceof HttpURLConnection) {
+            return ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+        }
+        return false;
+    }
+
+    /**
+     * Read the configuration regardless of whether it changed.
+     *
+     * @return never null
+     */
+    public ConfigStorage retrieve() {
+        return retrieve(null);
+    }
+
+    /**
+     * Read the configuration, unless it is known not to have changed.
+     *
+     * @param previous Configuration retrieved previously, null if none.
+     * @return The previous configuration if not changed, a new one otherwise.
+     */
+    public ConfigStorage retrieve(final ConfigStorage previous) {
+        LOGGER.debug("Reading notification configuration from '{}'.", source);
+        try {
+            final URLConnection connection = UrlUtil.open(source);
+            final boolean isHttp = connection instanceof HttpURLConnection;
+            if (previous != null && isHttp) {
+                if (eTag != null) {
+                    connection.setRequestProperty("If-None-Match", eTag);
+                }
+                connection.setIfModifiedSince(lastModified);
+            }
+            if (previous != null && isNotModified(connection)) {
+                LOGGER.debug("Notification configuration not modified.");
+                return previous;
+            }
+            final long newLastModified = connection.getLastModified();
+            if (previous != null && !isHttp && newLastModified != 0 && newLastModified == lastModified) {
+                LOGGER.debug("Notification configuration not modified since {}.", lastModified);
+                return previous;
+            }
+            try (InputStream inputStream = connection.getInputStream()) {
+                final ConfigStorage result = ConfigStorage.create(inputStream);
+                eTag = connection.getHeaderField("ETag");
+                lastModified = newLastModified;
+                return result;
+            }
+        } catch (final Exception ex) {
+            throw new IllegalStateException("Failed reading notification configuration from " + source, ex);
+        }
+    }
+}
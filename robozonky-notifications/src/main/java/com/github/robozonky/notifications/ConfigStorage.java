@@ -20,17 +20,38 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
 
+/**
+ * Immutable snapshot of notification configuration. Target-specific properties ("email.enabled") override the
+ * generic ones ("enabled"); this is resolved once when the snapshot is created, so that reading a property is a
+ * single lookup.
+ */
 public class ConfigStorage {
 
-    private final Properties storage;
+    private final Map<Target, Map<String, String>> storage;
 
     private ConfigStorage(final Properties properties) {
-        this.storage = properties;
+        final Map<Target, Map<String, String>> resolved = new EnumMap<>(Target.class);
+        for (final Target target : Target.values()) {
+            final String prefix = target.getId() + ".";
+            final Map<String, String> values = new HashMap<>(properties.size());
+            properties.stringPropertyNames()
+                .forEach(key -> values.put(key, properties.getProperty(key)));
+            properties.stringPropertyNames()
+                .stream()
+                .filter(key -> key.startsWith(prefix))
+                .forEach(key -> values.put(key.substring(prefix.length()), properties.getProperty(key)));
+            resolved.put(target, Collections.unmodifiableMap(values));
+        }
+        this.storage = Collections.unmodifiableMap(resolved);
     }
 
     public static ConfigStorage create(final File file) throws IOException {
@@ -44,13 +65,8 @@ public class ConfigStorage {
     }
 
     public Optional<String> read(final Target target, final String key) {
-        final String prefix = target.getId();
-        final String mostSpecific = prefix + "." + key;
-        if (storage.containsKey(mostSpecific)) {
-            return Optional.of(storage.getProperty(mostSpecific));
-        } else {
-            return Optional.ofNullable(storage.getProperty(key));
-        }
+        return Optional.ofNullable(storage.get(target)
+            .get(key));
     }
 
     public String read(final Target target, final String key, final String defaultValue) {
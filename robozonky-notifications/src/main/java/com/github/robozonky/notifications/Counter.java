@@ -18,31 +18,58 @@ package com.github.robozonky.notifications;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.time.ZonedDateTime;
-import java.time.temporal.TemporalAmount;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.LongStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
-import com.github.robozonky.internal.Defaults;
-import com.github.robozonky.internal.async.Reloadable;
+import com.github.robozonky.internal.state.InstanceState;
 import com.github.robozonky.internal.state.TenantState;
 import com.github.robozonky.internal.test.DateUtil;
 
+/**
+ * Sliding window counter of events which happened within the given period. Timestamps are kept in memory as epoch
+ * milliseconds in a ring buffer, oldest first, which will never grow beyond the maximum number of allowed events.
+ * Expired timestamps are dropped from the head of the buffer as they are encountered, therefore both
+ * {@link #allow()} and {@link #increase()} run in amortized constant time.
+ * <p>
+ * Timestamps are loaded from {@link TenantState} once, when the counter is created. Whoever replaces a counter with
+ * another one with the same ID, such as after the notification configuration was reloaded, calls
+ * {@link #flush(SessionInfo, String)} first, so that the new counter does not miss anything. Changes are written back
+ * in batches, shortly after they happened, one write per session. Any outstanding changes are written by
+ * {@link #flushAll()} when RoboZonky shuts down.
+ */
 final class Counter {
 
     private static final Logger LOGGER = LogManager.getLogger(Counter.class);
+    private static final Duration FLUSH_DELAY = Duration.ofSeconds(5);
+    private static final Set<Counter> DIRTY = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean FLUSH_SCHEDULED = new AtomicBoolean(false);
+    private static final ScheduledExecutorService FLUSHER = new ScheduledThreadPoolExecutor(1, r -> {
+        final Thread thread = new Thread(r, "robozonky-counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final String id;
-    private final long maxItems;
-    private final TemporalAmount period;
+    private final int maxItems;
+    private final long periodInMillis;
     private final SessionInfo sessionInfo;
-    private final Reloadable<Set<ZonedDateTime>> timestamps;
+    private long[] timestamps;
+    private int head = 0;
+    private int size = 0;
 
     public Counter(final SessionInfo sessionInfo, final String id, final int maxItems) {
         this(sessionInfo, id, maxItems, Duration.ofHours(1));
@@ -51,63 +78,131 @@ final class Counter {
     public Counter(final SessionInfo sessionInfo, final String id, final int maxItems, final Duration period) {
         this.sessionInfo = sessionInfo;
         this.id = id;
-        this.maxItems = maxItems;
-        this.period = period;
-        this.timestamps = Reloadable.with(() -> {
-            var result = load(sessionInfo, id);
-            LOGGER.debug(() -> "Loaded timestamps: " + toString(result) + ".");
-            return result;
-        })
-            .reloadAfter(period)
-            .build();
+        this.maxItems = Math.max(0, maxItems);
+        this.periodInMillis = period.toMillis();
+        this.timestamps = new long[Math.min(this.maxItems, 16)];
+        load().forEach(this::append);
+        LOGGER.debug("Loaded {} timestamps for '{}'.", size, id);
+    }
+
+    private static long parse(final String value) {
+        final String trimmed = value.trim();
+        if (trimmed.chars()
+            .allMatch(Character::isDigit)) {
+            return Long.parseLong(trimmed);
+        } else { // timestamps used to be stored in ISO format
+            return OffsetDateTime.parse(trimmed)
+                .toInstant()
+                .toEpochMilli();
+        }
     }
 
-    private static Set<ZonedDateTime> load(final SessionInfo sessionInfo, final String id) {
+    private LongStream load() {
         return TenantState.of(sessionInfo)
             .in(Counter.class)
             .getValues(id)
-            .map(value -> value
-                .map(String::trim)
-                .map(OffsetDateTime::parse)
-                .map(t -> t.atZoneSameInstant(Defaults.ZONKYCZ_ZONE_ID))
-                .collect(Collectors.toSet()))
-            .orElse(new HashSet<>(0));
+            .map(values -> values.filter(s -> !s.isBlank())
+                .mapToLong(Counter::parse)
+                .sorted())
+            .orElse(LongStream.empty());
     }
 
-    private void store(final SessionInfo sessionInfo, final String id, final Set<ZonedDateTime> timestamps) {
-        LOGGER.trace(() -> "Storing timestamps: " + toString(timestamps) + ".");
-        TenantState.of(sessionInfo)
-            .in(Counter.class)
-            .reset(b -> b.put(id, filterValidTimestamps(timestamps)
-                .map(ZonedDateTime::toOffsetDateTime)
-                .map(OffsetDateTime::toString)));
+    /**
+     * Write all outstanding changes to {@link TenantState}, one write per session.
+     */
+    static void flushAll() {
+        flush(new ArrayList<>(DIRTY));
     }
 
-    private Set<ZonedDateTime> getTimestamps() {
-        return timestamps.get()
-            .getOrElse(Collections.emptySet());
+    /**
+     * Write outstanding changes of the counters with the given ID, leaving all other counters be. To be called before
+     * a counter with that ID is created.
+     *
+     * @param sessionInfo Session of the counter.
+     * @param id          ID of the counter.
+     */
+    static void flush(final SessionInfo sessionInfo, final String id) {
+        flush(DIRTY.stream()
+            .filter(c -> c.sessionInfo.equals(sessionInfo) && c.id.equals(id))
+            .collect(Collectors.toList()));
     }
 
-    private Stream<ZonedDateTime> filterValidTimestamps(final Set<ZonedDateTime> timestamps) {
-        var now = DateUtil.zonedNow();
-        return timestamps.stream()
-            .filter(timestamp -> timestamp.plus(period)
-                .isAfter(now));
+    private static synchronized void flush(final List<Counter> toFlush) {
+        if (toFlush.isEmpty()) {
+            return;
+        }
+        DIRTY.removeAll(toFlush);
+        final Map<SessionInfo, List<Counter>> bySession = toFlush.stream()
+            .collect(Collectors.groupingBy(c -> c.sessionInfo));
+        bySession.forEach((session, counters) -> {
+            final InstanceState<Counter> state = TenantState.of(session)
+                .in(Counter.class);
+            state.update(b -> counters.forEach(c -> b.put(c.id, c.snapshot()
+                .mapToObj(Long::toString))));
+            LOGGER.trace("Stored {} counters for {}.", counters.size(), session);
+        });
     }
 
-    public void increase() {
-        var stamps = getTimestamps();
-        stamps.add(DateUtil.zonedNow());
-        store(sessionInfo, id, stamps);
+    private static void scheduleFlush() {
+        if (FLUSH_SCHEDULED.compareAndSet(false, true)) {
+            FLUSHER.schedule(() -> {
+                FLUSH_SCHEDULED.set(false);
+                flushAll();
+            }, FLUSH_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized LongStream snapshot() {
+        expire(DateUtil.now()
+            .toEpochMilli());
+        final long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = timestamps[(head + i) % timestamps.length];
+        }
+        return Arrays.stream(result);
+    }
+
+    private void expire(final long nowInMillis) {
+        final long threshold = nowInMillis - periodInMillis;
+        while (size > 0 && timestamps[head] <= threshold) {
+            head = (head + 1) % timestamps.length;
+            size--;
+        }
     }
 
-    public boolean allow() {
-        return filterValidTimestamps(getTimestamps()).count() < maxItems;
+    private void append(final long timestamp) {
+        if (maxItems == 0) {
+            return;
+        } else if (size == maxItems) { // only the newest timestamps matter, drop the oldest
+            head = (head + 1) % timestamps.length;
+            size--;
+        } else if (size == timestamps.length) { // grow, but never beyond the maximum
+            final long[] grown = new long[(int) Math.min(maxItems, timestamps.length * 2L)];
+            for (int i = 0; i < size; i++) {
+                grown[i] = timestamps[(head + i) % timestamps.length];
+            }
+            timestamps = grown;
+            head = 0;
+        }
+        timestamps[(head + size) % timestamps.length] = timestamp;
+        size++;
     }
 
-    private static String toString(Set<ZonedDateTime> timestamps) {
-        return timestamps.stream()
-            .map(DateUtil::toString)
-            .collect(Collectors.joining("; ", "[", "]"));
+    public void increase() {
+        final long now = DateUtil.now()
+            .toEpochMilli();
+        synchronized (this) {
+            expire(now);
+            append(now);
+        }
+        DIRTY.add(this);
+        scheduleFlush();
     }
+
+    public synchronized boolean allow() {
+        expire(DateUtil.now()
+            .toEpochMilli());
+        return size < maxItems;
+    }
+
 }
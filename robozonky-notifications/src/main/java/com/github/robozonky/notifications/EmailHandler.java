@@ -16,6 +16,15 @@
 
 package com.github.robozonky.notifications;
 
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import org.apache.commons.mail.EmailException;
 import org.apache.commons.mail.HtmlEmail;
 import org.apache.logging.log4j.LogManager;
@@ -28,75 +37,107 @@ final class EmailHandler extends AbstractTargetHandler {
 
     private static final Logger LOGGER = LogManager.getLogger(EmailHandler.class);
 
+    private final String sender;
+    private final String recipient;
+    private final boolean authenticationRequired;
+    private final boolean startTlsRequired;
+    private final boolean sslOnConnectRequired;
+    private final String smtpUsername;
+    private final String smtpPassword;
+    private final String smtpHostname;
+    private final int smtpPort;
+    private final Duration digestWindow;
+    private final Object smtpServer;
+
     public EmailHandler(final ConfigStorage config) {
         super(config, Target.EMAIL);
+        this.sender = config.read(target, "from", "noreply@robozonky.cz");
+        this.recipient = config.read(target, "to", "");
+        // for backwards compatibility reasons, defaults to true
+        this.authenticationRequired = config.readBoolean(target, "smtp.requiresAuthentication", true);
+        this.startTlsRequired = config.readBoolean(target, "smtp.requiresStartTLS", false);
+        this.sslOnConnectRequired = config.readBoolean(target, "smtp.requiresSslOnConnect", false);
+        this.smtpUsername = config.read(target, "smtp.username", sender);
+        this.smtpPassword = config.read(target, "smtp.password", "");
+        this.smtpHostname = config.read(target, "smtp.hostname", "localhost");
+        this.smtpPort = config.readInt(target, "smtp.port", 25);
+        this.digestWindow = Duration.ofSeconds(config.readInt(target, "digestWindowSeconds", 0));
+        // e-mails to the same server with the same credentials share a connection; only keep a hash of the password
+        this.smtpServer = List.of(smtpHostname, smtpPort, startTlsRequired, sslOnConnectRequired,
+                authenticationRequired, smtpUsername, hash(smtpPassword));
     }
 
-    private String getSender() {
-        return config.read(target, "from", "noreply@robozonky.cz");
-    }
-
-    private String getRecipient() {
-        return config.read(target, "to", "");
-    }
-
-    private boolean isAuthenticationRequired() { // for backwards compatibility reasons, defaults to true
-        return config.readBoolean(target, "smtp.requiresAuthentication", true);
-    }
-
-    private boolean isStartTlsRequired() {
-        return config.readBoolean(target, "smtp.requiresStartTLS", false);
-    }
-
-    private boolean isSslOnConnectRequired() {
-        return config.readBoolean(target, "smtp.requiresSslOnConnect", false);
-    }
-
-    private String getSmtpUsername() {
-        return config.read(target, "smtp.username", this.getSender());
-    }
-
-    private String getSmtpPassword() {
-        return config.read(target, "smtp.password", "");
-    }
-
-    private String getSmtpHostname() {
-        return config.read(target, "smtp.hostname", "localhost");
+    private static String hash(final String secret) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return new BigInteger(1, digest.digest(secret.getBytes(Defaults.CHARSET))).toString(16);
+        } catch (final NoSuchAlgorithmException ex) { // every JVM is required to support it
+            throw new IllegalStateException("SHA-256 not available.", ex);
+        }
     }
 
-    private int getSmtpPort() {
-        return config.readInt(target, "smtp.port", 25);
+    private static void await(final CompletableFuture<Void> delivery) throws Exception {
+        try {
+            delivery.get();
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        }
     }
 
     private HtmlEmail createNewEmail(final SessionInfo session) throws EmailException {
         final HtmlEmail email = new HtmlEmail();
         email.setCharset(Defaults.CHARSET.displayName()); // otherwise the e-mail contents are mangled
-        email.setHostName(getSmtpHostname());
-        email.setSmtpPort(getSmtpPort());
-        email.setStartTLSRequired(isStartTlsRequired());
-        email.setSSLOnConnect(isSslOnConnectRequired());
-        if (isAuthenticationRequired()) {
-            final String username = getSmtpUsername();
-            LOGGER.debug("Will contact SMTP server as '{}'.", username);
-            email.setAuthentication(getSmtpUsername(), getSmtpPassword());
+        email.setHostName(smtpHostname);
+        email.setSmtpPort(smtpPort);
+        email.setStartTLSRequired(startTlsRequired);
+        email.setSSLOnConnect(sslOnConnectRequired);
+        if (authenticationRequired) {
+            LOGGER.debug("Will contact SMTP server as '{}'.", smtpUsername);
+            email.setAuthentication(smtpUsername, smtpPassword);
         } else {
             LOGGER.debug("Will contact SMTP server anonymously.");
         }
-        email.setFrom(getSender(), "RoboZonky '" + session.getName() + "'");
-        email.addTo(getRecipient());
+        email.setFrom(sender, "RoboZonky '" + session.getName() + "'");
+        email.addTo(recipient);
         return email;
     }
 
+    Object getSmtpServer() {
+        return smtpServer;
+    }
+
+    private CompletableFuture<Void> submit(final SessionInfo sessionInfo, final MailQueue.Mail mail,
+            final boolean immediate) throws EmailException {
+        createNewEmail(sessionInfo); // fail fast on invalid configuration, such as a wrong recipient
+        LOGGER.debug("Will send '{}' from {} to {} through {}:{} as {}.", mail.getSubject(), sender, recipient,
+                smtpHostname, smtpPort, smtpUsername);
+        final String digestKey = sessionInfo.getUsername() + " " + sender + " " + recipient;
+        final Duration window = immediate ? Duration.ZERO : digestWindow;
+        final int maxAttempts = immediate ? 1 : MailQueue.MAX_ATTEMPTS;
+        return MailQueue.forServer(getSmtpServer())
+            .submit(() -> createNewEmail(sessionInfo), mail, digestKey, window, maxAttempts);
+    }
+
+    /**
+     * Unless the listener requires immediate delivery, queues the e-mail and returns immediately; it is then sent on
+     * a background thread, subject to the digest window and retries, and failures to send it are only logged.
+     */
+    @Override
+    protected void send(final Submission submission, final Map<String, Object> data) throws Exception {
+        final boolean immediate = submission.getSupportedListener()
+            .requiresImmediateDelivery();
+        final MailQueue.Mail mail = new MailQueue.Mail(submission.getSubject(), submission.getTemplateName(), data,
+                () -> submission.getMessage(data), () -> submission.getFallbackMessage(data));
+        final CompletableFuture<Void> delivery = submit(submission.getSessionInfo(), mail, immediate);
+        if (immediate) {
+            await(delivery);
+        }
+    }
+
     @Override
     public void send(final SessionInfo sessionInfo, final String subject,
             final String message, final String fallbackMessage) throws Exception {
-        final HtmlEmail email = createNewEmail(sessionInfo);
-        email.setSubject(subject);
-        email.setHtmlMsg(message);
-        email.setTextMsg(fallbackMessage);
-        LOGGER.debug("Will send '{}' from {} to {} through {}:{} as {}.", email.getSubject(),
-                email.getFromAddress(), email.getToAddresses(), email.getHostName(), email.getSmtpPort(),
-                getSmtpUsername());
-        email.send();
+        await(submit(sessionInfo, new MailQueue.Mail(subject, message, fallbackMessage), true));
     }
 }
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.notifications;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.HtmlEmail;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.notifications.templates.TemplateProcessor;
+
+import freemarker.template.TemplateException;
+
+/**
+ * Outbound e-mail queue for a single SMTP server. E-mails are sent on a dedicated background thread, over a
+ * connection which is kept open for a while after the last e-mail was sent, so that bursts of notifications do not
+ * each pay for a new connection and TLS handshake. Failed e-mails are retried with exponential backoff.
+ * <p>
+ * When a digest window is given, e-mails with the same digest key are held back for the duration of the window and
+ * then rendered from their templates as a single e-mail.
+ * <p>
+ * Once a queue has nothing to do for a while, it shuts its thread down and is forgotten, so that queues of servers no
+ * longer in the configuration do not linger.
+ * <p>
+ * All queues are flushed through {@link #flushAll()} when RoboZonky shuts down, so that notifications such as
+ * "RoboZonky ending" are not lost.
+ */
+final class MailQueue {
+
+    private static final Logger LOGGER = LogManager.getLogger(MailQueue.class);
+    private static final Map<Object, MailQueue> QUEUES = new ConcurrentHashMap<>(0);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(30);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    static final int MAX_ATTEMPTS = 5;
+
+    private final Object server;
+    private final ScheduledThreadPoolExecutor worker;
+    private final Duration initialBackoff;
+    private final Duration keepAlive;
+    private final Set<CompletableFuture<Void>> outstanding = ConcurrentHashMap.newKeySet();
+    private boolean retired = false; // guarded by this
+    // all the following is only ever accessed from the worker thread
+    private final Map<String, Digest> digests = new LinkedHashMap<>(0);
+    private Transport transport;
+    private long lastUsedNanos;
+    private boolean idleCheckScheduled = false;
+    private volatile int connectionCount = 0;
+
+    MailQueue(final Object server, final Duration initialBackoff, final Duration keepAlive) {
+        this.server = server;
+        this.initialBackoff = initialBackoff;
+        this.keepAlive = keepAlive;
+        this.worker = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "robozonky-mail-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.worker.setRemoveOnCancelPolicy(true);
+        // once retired, there is nothing left to do and late flushes can be safely ignored
+        this.worker.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * @param server Anything that identifies the SMTP server and the credentials used to log into it.
+     * @return The same instance for the same server, unless it was retired in the meantime.
+     */
+    public static MailQueue forServer(final Object server) {
+        return QUEUES.computeIfAbsent(server, s -> new MailQueue(s, INITIAL_BACKOFF, KEEP_ALIVE));
+    }
+
+    /**
+     * {@link #flush(Duration)} every queue.
+     */
+    public static void flushAll() {
+        QUEUES.values()
+            .forEach(q -> q.flush(SHUTDOWN_TIMEOUT));
+    }
+
+    /**
+     * Queue an e-mail for sending.
+     *
+     * @param email        Fully prepared e-mail, except for subject and contents. Will be called on the background
+     *                     thread, possibly multiple times.
+     * @param mail         Subject and contents of the e-mail.
+     * @param digestKey    E-mails with the same key may be sent together.
+     * @param digestWindow How long to hold the e-mail back, waiting for others to share the same e-mail. Zero or
+     *                     negative to send immediately. E-mails which were not rendered from a template are always
+     *                     sent immediately.
+     * @param maxAttempts  How many times to try sending the e-mail before giving up.
+     * @return Completes when the e-mail was sent, or fails when it was given up on.
+     */
+    public CompletableFuture<Void> submit(final EmailSupplier email, final Mail mail, final String digestKey,
+            final Duration digestWindow, final int maxAttempts) {
+        synchronized (this) {
+            if (!retired) {
+                return enqueue(email, mail, digestKey, digestWindow, maxAttempts);
+            }
+        }
+        LOGGER.debug("Queue retired in the meantime, using a new one.");
+        return forServer(server).submit(email, mail, digestKey, digestWindow, maxAttempts);
+    }
+
+    private CompletableFuture<Void> enqueue(final EmailSupplier email, final Mail mail, final String digestKey,
+            final Duration digestWindow, final int maxAttempts) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        outstanding.add(result);
+        result.whenComplete((r, ex) -> outstanding.remove(result));
+        if (digestWindow.isNegative() || digestWindow.isZero() || !mail.isDigestible()) {
+            worker.execute(() -> send(email, mail, List.of(result), 1, maxAttempts));
+        } else {
+            worker.execute(() -> addToDigest(email, mail, result, digestKey, digestWindow, maxAttempts));
+        }
+        return result;
+    }
+
+    /**
+     * Send all e-mails held back for digests and wait for all queued e-mails to be sent or given up on.
+     *
+     * @param timeout How long to wait at most.
+     * @return True if the queue was empty when the method returned.
+     */
+    public boolean flush(final Duration timeout) {
+        worker.execute(this::sendAllDigests);
+        final CompletableFuture<?>[] pending = outstanding.toArray(new CompletableFuture[0]);
+        try {
+            CompletableFuture.allOf(pending)
+                .handle((r, ex) -> null) // failures are not our concern here
+                .get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return outstanding.isEmpty();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread()
+                .interrupt();
+            return false;
+        } catch (final TimeoutException | ExecutionException ex) {
+            LOGGER.warn("Not all e-mails were sent in time, {} remain.", outstanding.size());
+            return false;
+        }
+    }
+
+    int getConnectionCount() {
+        return connectionCount;
+    }
+
+    boolean isRetired() {
+        return worker.isShutdown();
+    }
+
+    private void addToDigest(final EmailSupplier email, final Mail mail, final CompletableFuture<Void> result,
+            final String digestKey, final Duration digestWindow, final int maxAttempts) {
+        final Digest digest = digests.computeIfAbsent(digestKey, k -> {
+            LOGGER.debug("Starting digest '{}', will be sent in {}.", k, digestWindow);
+            worker.schedule(() -> sendDigest(k), digestWindow.toNanos(), TimeUnit.NANOSECONDS);
+            return new Digest(email, maxAttempts);
+        });
+        digest.add(mail, result);
+    }
+
+    private void sendDigest(final String digestKey) {
+        final Digest digest = digests.remove(digestKey);
+        if (digest == null) { // already sent by a flush
+            return;
+        }
+        send(digest.email, digest.toMail(), digest.results, 1, digest.maxAttempts);
+    }
+
+    private void sendAllDigests() {
+        new ArrayList<>(digests.keySet()).forEach(this::sendDigest);
+    }
+
+    private void send(final EmailSupplier emailSupplier, final Mail mail, final List<CompletableFuture<Void>> results,
+            final int attempt, final int maxAttempts) {
+        final MimeMessage message;
+        try {
+            final HtmlEmail email = emailSupplier.get();
+            email.setSubject(mail.getSubject());
+            email.setHtmlMsg(mail.getHtml());
+            email.setTextMsg(mail.getText());
+            email.buildMimeMessage();
+            message = email.getMimeMessage();
+            message.saveChanges();
+        } catch (final EmailException | MessagingException | IOException | TemplateException ex) {
+            // invalid e-mail or failed rendering, no point in retrying
+            LOGGER.warn("Failed preparing e-mail '{}'.", mail.getSubject(), ex);
+            results.forEach(r -> r.completeExceptionally(ex));
+            markUsed();
+            return;
+        }
+        try {
+            LOGGER.debug("Sending '{}' to {}, attempt #{}.", mail.getSubject(), message.getAllRecipients(), attempt);
+            getTransport(message).sendMessage(message, message.getAllRecipients());
+            results.forEach(r -> r.complete(null));
+            markUsed();
+        } catch (final MessagingException ex) {
+            closeTransport(); // the connection may be broken
+            if (attempt >= maxAttempts) {
+                LOGGER.warn("Failed sending e-mail '{}', giving up after {} attempts.", mail.getSubject(), attempt,
+                        ex);
+                results.forEach(r -> r.completeExceptionally(ex));
+                markUsed();
+                return;
+            }
+            final Duration backoff = initialBackoff.multipliedBy(1L << (attempt - 1));
+            LOGGER.debug("Failed sending e-mail '{}', retrying in {}.", mail.getSubject(), backoff, ex);
+            worker.schedule(() -> send(emailSupplier, mail, results, attempt + 1, maxAttempts), backoff.toNanos(),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Transport getTransport(final MimeMessage message) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        closeTransport();
+        LOGGER.debug("Connecting to SMTP server.");
+        final Transport newTransport = message.getSession()
+            .getTransport();
+        newTransport.connect();
+        connectionCount++;
+        transport = newTransport;
+        return newTransport;
+    }
+
+    private void markUsed() {
+        lastUsedNanos = System.nanoTime();
+        if (idleCheckScheduled) {
+            return;
+        }
+        idleCheckScheduled = true;
+        worker.schedule(this::closeIfIdle, keepAlive.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void closeIfIdle() {
+        idleCheckScheduled = false;
+        final long idleNanos = System.nanoTime() - lastUsedNanos;
+        if (idleNanos >= keepAlive.toNanos()) {
+            closeTransport();
+            retireIfIdle();
+        } else {
+            idleCheckScheduled = true;
+            worker.schedule(this::closeIfIdle, keepAlive.toNanos() - idleNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void retireIfIdle() {
+        synchronized (this) { // no new e-mails may be submitted in the meantime
+            if (!outstanding.isEmpty() || !digests.isEmpty()) {
+                return;
+            }
+            retired = true;
+            if (server != null) {
+                QUEUES.remove(server, this);
+            }
+        }
+        LOGGER.debug("Retiring idle e-mail queue.");
+        worker.shutdown();
+    }
+
+    private void closeTransport() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            LOGGER.debug("Disconnecting from SMTP server.");
+            transport.close();
+        } catch (final MessagingException ex) {
+            LOGGER.debug("Failed closing SMTP connection.", ex);
+        } finally {
+            transport = null;
+        }
+    }
+
+    /**
+     * Creates a new e-mail, with sender, recipients and SMTP server already set.
+     */
+    @FunctionalInterface
+    interface EmailSupplier {
+
+        HtmlEmail get() throws EmailException;
+
+    }
+
+    /**
+     * Subject and contents of an e-mail. Contents are only rendered when first needed, on the background thread, and
+     * then kept for any retries. E-mails rendered from a template remember it, so that they can be rendered together
+     * with others into a digest.
+     */
+    static final class Mail {
+
+        private final String subject;
+        private final String template;
+        private final Map<String, Object> data;
+        private final MessageRenderer htmlRenderer;
+        private final MessageRenderer textRenderer;
+        private String html;
+        private String text;
+
+        public Mail(final String subject, final String template, final Map<String, Object> data,
+                final MessageRenderer htmlRenderer, final MessageRenderer textRenderer) {
+            this.subject = subject;
+            this.template = template;
+            this.data = data;
+            this.htmlRenderer = htmlRenderer;
+            this.textRenderer = textRenderer;
+        }
+
+        public Mail(final String subject, final MessageRenderer htmlRenderer, final MessageRenderer textRenderer) {
+            this(subject, null, null, htmlRenderer, textRenderer);
+        }
+
+        public Mail(final String subject, final String html, final String text) {
+            this(subject, () -> html, () -> text);
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        boolean isDigestible() {
+            return template != null;
+        }
+
+        public String getHtml() throws IOException, TemplateException {
+            if (html == null) {
+                html = htmlRenderer.render();
+            }
+            return html;
+        }
+
+        public String getText() throws IOException, TemplateException {
+            if (text == null) {
+                text = textRenderer.render();
+            }
+            return text;
+        }
+    }
+
+    private static final class Digest {
+
+        private final EmailSupplier email;
+        private final int maxAttempts;
+        private final List<Mail> mails = new ArrayList<>(1);
+        private final List<CompletableFuture<Void>> results = new ArrayList<>(1);
+
+        Digest(final EmailSupplier email, final int maxAttempts) {
+            this.email = email;
+            this.maxAttempts = maxAttempts;
+        }
+
+        void add(final Mail mail, final CompletableFuture<Void> result) {
+            mails.add(mail);
+            results.add(result);
+        }
+
+        Mail toMail() {
+            if (mails.size() == 1) {
+                return mails.get(0);
+            }
+            final String subject = mails.get(0)
+                .getSubject() + " (+" + (mails.size() - 1) + ")";
+            final List<Map.Entry<String, Map<String, Object>>> embedded = mails.stream()
+                .map(mail -> Map.entry(mail.template, mail.data))
+                .collect(Collectors.toList());
+            return new Mail(subject, () -> TemplateProcessor.INSTANCE.processHtmlDigest(subject, embedded),
+                    () -> TemplateProcessor.INSTANCE.processPlainTextDigest(subject, embedded));
+        }
+    }
+}
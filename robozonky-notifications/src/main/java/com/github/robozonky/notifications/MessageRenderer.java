@@ -0,0 +1,32 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.notifications;
+
+import java.io.IOException;
+
+import freemarker.template.TemplateException;
+
+/**
+ * Renders contents of a notification, typically from a template. Handlers only call this once they are sure the
+ * notification will be sent.
+ */
+@FunctionalInterface
+public interface MessageRenderer {
+
+    String render() throws IOException, TemplateException;
+
+}
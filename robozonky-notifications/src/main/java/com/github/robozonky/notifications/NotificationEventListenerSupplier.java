@@ -30,6 +30,8 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.notifications.Event;
 import com.github.robozonky.api.notifications.EventListener;
+import com.github.robozonky.notifications.listeners.AbstractListener;
+import com.github.robozonky.notifications.templates.TemplateProcessor;
 
 final class NotificationEventListenerSupplier<T extends Event> implements Function<Target, EventListener<T>> {
 
@@ -88,9 +90,25 @@ final class NotificationEventListenerSupplier<T extends Event> implements Functi
             .findFirst()
             .map(l -> (EventListener<T>) l.getListener(handler))
             .orElse(null);
+        if (result instanceof AbstractListener) {
+            preload((AbstractListener<?>) result);
+        }
         return Optional.ofNullable(result);
     }
 
+    /**
+     * Parse the template as soon as the listener is known, so that the first notification does not pay for it.
+     *
+     * @param listener Listener whose template to parse.
+     */
+    private static void preload(final AbstractListener<?> listener) {
+        try {
+            TemplateProcessor.INSTANCE.preload(listener.getTemplateFileName());
+        } catch (final Exception ex) { // the notification will report the problem when it is actually sent
+            LOGGER.debug("Failed preloading template for {}.", listener, ex);
+        }
+    }
+
     public void disable() {
         LOGGER.debug("Disabling notifications for {}.", eventType);
         value.set(Collections.emptyMap());
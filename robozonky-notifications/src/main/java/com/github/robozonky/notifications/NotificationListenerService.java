@@ -18,10 +18,11 @@ package com.github.robozonky.notifications;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -32,9 +33,10 @@ import com.github.robozonky.api.SessionInfo;
 import com.github.robozonky.api.notifications.Event;
 import com.github.robozonky.api.notifications.EventListenerSupplier;
 import com.github.robozonky.api.notifications.ListenerService;
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.async.ReloadListener;
 import com.github.robozonky.internal.async.Reloadable;
 import com.github.robozonky.internal.extensions.ListenerServiceLoader;
-import com.github.robozonky.internal.util.UrlUtil;
 
 public final class NotificationListenerService implements ListenerService {
 
@@ -42,21 +44,29 @@ public final class NotificationListenerService implements ListenerService {
 
     private final Map<String, Reloadable<ConfigStorage>> configurations = new HashMap<>(0);
 
-    private static ConfigStorage retrieve(final URL source) {
-        LOGGER.debug("Reading notification configuration from '{}'.", source);
-        try (var inputStream = UrlUtil.open(source)
-            .getInputStream()) {
-            return ConfigStorage.create(inputStream);
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed reading notification configuration from " + source, ex);
-        }
-    }
-
     private Optional<Reloadable<ConfigStorage>> readConfig(final String configLocation) {
         try {
-            var config = new URL(configLocation);
-            var configStorage = Reloadable.with(() -> retrieve(config))
-                .reloadAfter(Duration.ofHours(1))
+            var retriever = new ConfigRetriever(new URL(configLocation));
+            var configStorage = Reloadable.with(retriever::retrieve)
+                .reloadWith(retriever::retrieve) // only re-reads the configuration if it changed
+                .reloadAfter(Settings.INSTANCE.getRemoteResourceRefreshInterval())
+                .addListener(new ReloadListener<>() { // listeners cached by robozonky-app need to be resolved again
+                    private final AtomicReference<ConfigStorage> lastSeen = new AtomicReference<>();
+
+                    @Override
+                    public void newValue(final ConfigStorage newValue) {
+                        if (!Objects.equals(lastSeen.getAndSet(newValue), newValue)) {
+                            LOGGER.debug("Notification configuration changed.");
+                            ListenerServiceLoader.invalidate();
+                        }
+                    }
+
+                    @Override
+                    public void valueUnset() {
+                        lastSeen.set(null);
+                        ListenerServiceLoader.invalidate();
+                    }
+                })
                 .async()
                 .build();
             return Optional.of(configStorage);
@@ -102,4 +112,10 @@ public final class NotificationListenerService implements ListenerService {
         return Stream.of(Target.values())
             .map(target -> getEventListenerSupplier(sessionInfo, eventType, target));
     }
+
+    @Override
+    public void flush() {
+        Counter.flushAll();
+        MailQueue.flushAll();
+    }
 }
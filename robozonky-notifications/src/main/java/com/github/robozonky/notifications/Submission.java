@@ -37,6 +37,12 @@ public interface Submission {
 
     String getSubject();
 
+    /**
+     *
+     * @return Name of the template that {@link #getMessage(Map)} and {@link #getFallbackMessage(Map)} render.
+     */
+    String getTemplateName();
+
     String getMessage(final Map<String, Object> data) throws IOException, TemplateException;
 
     String getFallbackMessage(final Map<String, Object> data) throws IOException, TemplateException;
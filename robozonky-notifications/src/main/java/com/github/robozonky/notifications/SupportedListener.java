@@ -305,6 +305,11 @@ public enum SupportedListener {
         }
     },
     TESTING {
+        @Override
+        public boolean requiresImmediateDelivery() {
+            return true; // the user is waiting to see whether notifications work
+        }
+
         @Override
         public EventListener getListener(final AbstractTargetHandler targetHandler) {
             return new RoboZonkyTestingEventListener(this, targetHandler);
@@ -392,4 +397,14 @@ public enum SupportedListener {
         return false;
     }
 
+    /**
+     * Whether or not the notification needs to be delivered before the listener returns, so that any delivery
+     * failure can be reported to the caller. Other notifications may be delivered in the background.
+     *
+     * @return True if the notification must not be delivered in the background.
+     */
+    public boolean requiresImmediateDelivery() {
+        return false;
+    }
+
 }
@@ -21,9 +21,9 @@ import static java.util.Map.entry;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -49,7 +49,10 @@ import freemarker.template.TemplateException;
 
 public abstract class AbstractListener<T extends Event> implements EventListener<T> {
 
+    // ratings here need to have a stable iteration order, as they will be used to list them in notifications
+    private static final List<Rating> RATINGS = List.of(Rating.values());
     protected final Logger logger = LogManager.getLogger(this.getClass());
+    private final Map<List<Object>, Map<String, Object>> sessionData = new ConcurrentHashMap<>(1);
     final DelinquencyTracker delinquencyTracker;
     private final AbstractTargetHandler handler;
     private final SupportedListener listener;
@@ -108,20 +111,30 @@ public abstract class AbstractListener<T extends Event> implements EventListener
         return result;
     }
 
-    public final Map<String, Object> getData(final T event, final SessionInfo sessionInfo) {
-        final Map<String, Object> result = new HashMap<>(this.getData(event));
-        // ratings here need to have a stable iteration order, as they will be used to list them in notifications
-        result.put("ratings", Stream.of(Rating.values())
-            .collect(Collectors.toList()));
-        result.put("session", Map.ofEntries(
+    private Map<String, Object> getSessionData(final SessionInfo sessionInfo) {
+        final List<Object> key = List.of(sessionInfo.getUsername(), sessionInfo.isDryRun());
+        return sessionData.computeIfAbsent(key, k -> Map.ofEntries(
                 entry("userName", Util.obfuscateEmailAddress(sessionInfo.getUsername())),
                 entry("userAgent", Defaults.ROBOZONKY_USER_AGENT),
                 entry("isDryRun", sessionInfo.isDryRun())));
+    }
+
+    private Map<String, Object> getData(final T event, final SessionInfo sessionInfo, final String subject) {
+        final Map<String, Object> result = new HashMap<>(this.getData(event));
+        result.put("ratings", RATINGS);
+        result.put("session", getSessionData(sessionInfo));
         result.put("conception", Util.toDate(event.getConceivedOn()));
         result.put("creation", Util.toDate(event.getCreatedOn()));
+        if (subject != null) {
+            result.put("subject", subject);
+        }
         return Collections.unmodifiableMap(result);
     }
 
+    public final Map<String, Object> getData(final T event, final SessionInfo sessionInfo) {
+        return getData(event, sessionInfo, null);
+    }
+
     private Submission createSubmission(final T event, final SessionInfo sessionInfo) {
         final String s = this.getSubject(event);
         final String t = this.getTemplateFileName();
@@ -139,9 +152,7 @@ public abstract class AbstractListener<T extends Event> implements EventListener
 
             @Override
             public Map<String, Object> getData() {
-                final Map<String, Object> data = new HashMap<>(AbstractListener.this.getData(event, sessionInfo));
-                data.put("subject", getSubject());
-                return Collections.unmodifiableMap(data);
+                return AbstractListener.this.getData(event, sessionInfo, getSubject());
             }
 
             @Override
@@ -149,6 +160,11 @@ public abstract class AbstractListener<T extends Event> implements EventListener
                 return s;
             }
 
+            @Override
+            public String getTemplateName() {
+                return t;
+            }
+
             @Override
             public String getMessage(final Map<String, Object> data) throws IOException, TemplateException {
                 return TemplateProcessor.INSTANCE.processHtml(t, data);
@@ -22,13 +22,16 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.notifications.templates.html.HtmlTemplate;
 import com.github.robozonky.notifications.templates.plaintext.PlainTextTemplate;
 
+import freemarker.cache.StrongCacheStorage;
 import freemarker.core.TemplateNumberFormatFactory;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
@@ -38,8 +41,16 @@ public enum TemplateProcessor {
 
     INSTANCE;
 
+    private static final String CORE_TEMPLATE = "core.ftl";
+    private static final String DIGEST_TEMPLATE = "digest.ftl";
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
     private static final Configuration PLAIN_TEXT_CONFIG = getFreemarkerConfiguration(PlainTextTemplate.class);
     private static final Configuration HTML_CLASSPATH_CONFIG = getFreemarkerConfiguration(HtmlTemplate.class);
+    private static final Template PLAIN_TEXT_CORE = load(PLAIN_TEXT_CONFIG, CORE_TEMPLATE);
+    private static final Template HTML_CORE = load(HTML_CLASSPATH_CONFIG, CORE_TEMPLATE);
+    private static final Template PLAIN_TEXT_DIGEST = load(PLAIN_TEXT_CONFIG, DIGEST_TEMPLATE);
+    private static final Template HTML_DIGEST = load(HTML_CLASSPATH_CONFIG, DIGEST_TEMPLATE);
+    private static final ThreadLocal<StringWriter> BUFFERS = ThreadLocal.withInitial(() -> new StringWriter(8 * 1024));
 
     public static Configuration getFreemarkerConfiguration() {
         final Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
@@ -62,10 +73,24 @@ public enum TemplateProcessor {
     static Configuration getFreemarkerConfiguration(final Class<?> templateRoot) {
         final Configuration cfg = getFreemarkerConfiguration();
         cfg.setClassForTemplateLoading(templateRoot, "");
+        /*
+         * Templates on the classpath never change. Therefore once parsed, they are kept for the lifetime of the app
+         * and never checked for updates.
+         */
+        cfg.setCacheStorage(new StrongCacheStorage());
+        cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
         return cfg;
     }
 
-    private static String process(final Configuration configuration, final String embeddedTemplate,
+    private static Template load(final Configuration configuration, final String name) {
+        try {
+            return configuration.getTemplate(name);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Failed loading template: " + name + ".", ex);
+        }
+    }
+
+    private static String process(final Template template, final String embeddedTemplate,
             final Map<String, Object> embeddedData)
             throws IOException, TemplateException {
         final Map<String, Object> data = Map.ofEntries(
@@ -73,21 +98,94 @@ public enum TemplateProcessor {
                 entry("robozonkyUrl", Defaults.ROBOZONKY_URL),
                 entry("embed", embeddedTemplate),
                 entry("data", embeddedData));
-        final Template template = configuration.getTemplate("core.ftl");
-        final StringWriter sw = new StringWriter();
-        template.process(data, sw);
-        return sw.toString()
-            .trim();
+        return process(template, data);
+    }
+
+    private static String processDigest(final Template template, final String subject,
+            final List<Map.Entry<String, Map<String, Object>>> embedded)
+            throws IOException, TemplateException {
+        final List<Map<String, Object>> embeds = embedded.stream()
+            .map(e -> Map.of("template", e.getKey(), "data", e.getValue()))
+            .collect(Collectors.toList());
+        final Map<String, Object> data = Map.ofEntries(
+                entry("timestamp", Date.from(DateUtil.now())),
+                entry("robozonkyUrl", Defaults.ROBOZONKY_URL),
+                entry("subject", subject),
+                entry("embeds", embeds));
+        return process(template, data);
+    }
+
+    private static String process(final Template template, final Map<String, Object> data)
+            throws IOException, TemplateException {
+        final StringWriter sw = BUFFERS.get();
+        final StringBuffer buffer = sw.getBuffer();
+        buffer.setLength(0);
+        try {
+            template.process(data, sw);
+            return buffer.toString()
+                .trim();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) { // do not keep unusually large buffers around
+                BUFFERS.remove();
+            } else {
+                buffer.setLength(0);
+            }
+        }
+    }
+
+    static StringWriter getBuffer() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * Parse the given template ahead of time, so that it does not need to be parsed when the first notification is
+     * being rendered.
+     *
+     * @param embeddedTemplate Name of the template, as given to {@link #processHtml(String, Map)} and
+     *                         {@link #processPlainText(String, Map)}.
+     * @throws IOException When the template could not be read or parsed.
+     */
+    public void preload(final String embeddedTemplate) throws IOException {
+        HTML_CLASSPATH_CONFIG.getTemplate(embeddedTemplate);
+        PLAIN_TEXT_CONFIG.getTemplate(embeddedTemplate);
     }
 
     public String processPlainText(final String embeddedTemplate, final Map<String, Object> embeddedData)
             throws IOException, TemplateException {
-        return process(PLAIN_TEXT_CONFIG, embeddedTemplate, embeddedData);
+        return process(PLAIN_TEXT_CORE, embeddedTemplate, embeddedData);
     }
 
     public String processHtml(final String embeddedTemplate, final Map<String, Object> embeddedData)
             throws IOException, TemplateException {
-        return process(HTML_CLASSPATH_CONFIG, embeddedTemplate, embeddedData);
+        return process(HTML_CORE, embeddedTemplate, embeddedData);
+    }
+
+    /**
+     * Render several notifications as a single one, each with its own heading, sharing a single footer.
+     *
+     * @param subject  Subject of the resulting notification.
+     * @param embedded Names of the templates, as given to {@link #processPlainText(String, Map)}, with their data.
+     * @return Rendered notification.
+     * @throws IOException       When any of the templates could not be read.
+     * @throws TemplateException When any of the templates could not be rendered.
+     */
+    public String processPlainTextDigest(final String subject,
+            final List<Map.Entry<String, Map<String, Object>>> embedded) throws IOException, TemplateException {
+        return processDigest(PLAIN_TEXT_DIGEST, subject, embedded);
+    }
+
+    /**
+     * Render several notifications as a single HTML document, each with its own heading, sharing a single footer.
+     *
+     * @param subject  Subject of the resulting notification.
+     * @param embedded Names of the templates, as given to {@link #processHtml(String, Map)}, with their data.
+     * @return Rendered notification.
+     * @throws IOException       When any of the templates could not be read.
+     * @throws TemplateException When any of the templates could not be rendered.
+     */
+    public String processHtmlDigest(final String subject, final List<Map.Entry<String, Map<String, Object>>> embedded)
+            throws IOException, TemplateException {
+        return processDigest(HTML_DIGEST, subject, embedded);
     }
 
 }
@@ -0,0 +1,27 @@
+<#include "macros.ftl">
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="UTF-8">
+<title>${subject}</title>
+</head>
+
+<body>
+<#list embeds as embedded>
+    <#assign data = embedded.data>
+    <section>
+        <header>
+            <h1>${data.subject}</h1>
+        </header>
+
+        <main>
+            <#include embedded.template>
+        </main>
+    </section>
+    <#sep><hr></#sep>
+</#list>
+
+    <@footer />
+</body>
+
+</html>
@@ -0,0 +1,17 @@
+<#include "macros.ftl">
+<#assign data = embeds[0].data>
+<@dryRunWarning />
+
+<#list embeds as embedded>
+<#assign data = embedded.data>
+${data.subject}
+
+<#include embedded.template>
+<#sep>
+
+----------
+
+</#sep>
+</#list>
+
+<@footer />
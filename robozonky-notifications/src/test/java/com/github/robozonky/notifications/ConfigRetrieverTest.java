@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.notifications;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+class ConfigRetrieverTest {
+
+    @Test
+    void rereadsFileOnlyWhenModified() throws IOException {
+        final Path path = Files.createTempFile("robozonky-", ".cfg");
+        Files.writeString(path, "enabled = true");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now()
+            .minusSeconds(60)));
+        final ConfigRetriever retriever = new ConfigRetriever(path.toUri()
+            .toURL());
+        final ConfigStorage original = retriever.retrieve();
+        assertThat(original.readBoolean(Target.EMAIL, "enabled", false)).isTrue();
+        assertThat(retriever.retrieve(original)).isSameAs(original);
+        Files.writeString(path, "enabled = false");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+        final ConfigStorage changed = retriever.retrieve(original);
+        assertThat(changed).isNotSameAs(original);
+        assertThat(changed.readBoolean(Target.EMAIL, "enabled", true)).isFalse();
+    }
+
+    @Test
+    void usesETag() throws IOException {
+        final AtomicInteger fullResponses = new AtomicInteger(0);
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            if ("\"1\"".equals(exchange.getRequestHeaders()
+                .getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                final byte[] body = "enabled = true".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders()
+                    .add("ETag", "\"1\"");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+                fullResponses.incrementAndGet();
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            final ConfigRetriever retriever = new ConfigRetriever(new URL("http://localhost:" + server.getAddress()
+                .getPort() + "/notifications.cfg"));
+            final ConfigStorage original = retriever.retrieve();
+            assertThat(original.readBoolean(Target.EMAIL, "enabled", false)).isTrue();
+            assertThat(retriever.retrieve(original)).isSameAs(original);
+            assertThat(fullResponses).hasValue(1);
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -17,9 +17,12 @@
 package com.github.robozonky.notifications;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Test;
 
@@ -45,6 +48,20 @@ class ConfigStorageTest {
         assertThat(cs3).isNotEqualTo(cs);
     }
 
+    @Test
+    void targetSpecificOverridesGeneric() throws IOException {
+        final String cfg = "enabled = false\nemail.enabled = true\nto = someone@somewhere.cz";
+        final ConfigStorage cs = ConfigStorage.create(new ByteArrayInputStream(cfg.getBytes(StandardCharsets.UTF_8)));
+        assertSoftly(softly -> {
+            softly.assertThat(cs.readBoolean(Target.EMAIL, "enabled", false))
+                .isTrue();
+            softly.assertThat(cs.read(Target.EMAIL, "to"))
+                .contains("someone@somewhere.cz");
+            softly.assertThat(cs.read(Target.EMAIL, "from"))
+                .isEmpty();
+        });
+    }
+
     @Test
     void fromFile() throws IOException {
         final ConfigStorage cs = ConfigStorage.create(File.createTempFile("robozonky-", ".tmp"));
@@ -19,11 +19,16 @@ package com.github.robozonky.notifications;
 import static org.assertj.core.api.Assertions.*;
 
 import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.state.TenantState;
+import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.test.AbstractRoboZonkyTest;
 
 class CounterTest extends AbstractRoboZonkyTest {
@@ -38,7 +43,9 @@ class CounterTest extends AbstractRoboZonkyTest {
         final Counter c = new Counter(SESSION, id, 1, Duration.ofSeconds(seconds));
         assertThat(c.allow()).isTrue();
         c.increase();
+        assertThat(c.allow()).isFalse();
         // make sure value was persisted
+        Counter.flushAll();
         final Counter c2 = new Counter(SESSION, id, 1, Duration.ofSeconds(seconds));
         assertThat(c2.allow()).isFalse();
         int millis = 0;
@@ -55,4 +62,56 @@ class CounterTest extends AbstractRoboZonkyTest {
             fail("Did not reset counter in time.");
         }
     }
+
+    @Test
+    void persistsInBatches() {
+        final String id = UUID.randomUUID()
+            .toString();
+        final Counter c = new Counter(SESSION, id, 3);
+        c.increase();
+        c.increase();
+        assertThat(c.allow()).isTrue();
+        c.increase();
+        assertThat(c.allow()).isFalse();
+        c.increase(); // over the limit, oldest timestamp is replaced
+        assertThat(c.allow()).isFalse();
+        Counter.flushAll();
+        final Counter c2 = new Counter(SESSION, id, 3);
+        assertThat(c2.allow()).isFalse();
+        final Counter c3 = new Counter(SESSION, id, 4);
+        assertThat(c3.allow()).isTrue();
+    }
+
+    @Test
+    void replacementSeesUnflushedChanges() {
+        final String id = UUID.randomUUID()
+            .toString();
+        final Counter c = new Counter(SESSION, id, 1);
+        c.increase(); // not yet written
+        Counter.flush(SESSION, id);
+        final Counter c2 = new Counter(SESSION, id, 1);
+        assertThat(c2.allow()).isFalse();
+    }
+
+    @Test
+    void readsLegacyTimestamps() {
+        final String id = UUID.randomUUID()
+            .toString();
+        final OffsetDateTime now = OffsetDateTime.ofInstant(DateUtil.now(), Defaults.ZONKYCZ_ZONE_ID);
+        TenantState.of(SESSION)
+            .in(Counter.class)
+            .update(b -> b.put(id, Stream.of(now, now.minusDays(1))
+                .map(OffsetDateTime::toString)));
+        assertThat(new Counter(SESSION, id, 1).allow()).isFalse();
+        assertThat(new Counter(SESSION, id, 2).allow()).isTrue();
+    }
+
+    @Test
+    void zeroNeverAllows() {
+        final Counter c = new Counter(SESSION, UUID.randomUUID()
+            .toString(), 0);
+        assertThat(c.allow()).isFalse();
+        c.increase();
+        assertThat(c.allow()).isFalse();
+    }
 }
@@ -17,10 +17,17 @@
 package com.github.robozonky.notifications;
 
 import static org.assertj.core.api.Assertions.*;
-
-import java.util.Collections;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
 import java.util.Map;
 
+import javax.mail.AuthenticationFailedException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.logging.log4j.LogManager;
@@ -30,9 +37,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.notifications.listeners.RoboZonkyTestingEventListener;
 import com.github.robozonky.test.AbstractMinimalRoboZonkyTest;
 import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
 import com.icegreen.greenmail.util.ServerSetup;
 import com.icegreen.greenmail.util.ServerSetupTest;
 
@@ -48,14 +57,8 @@ class EmailHandlerTest extends AbstractMinimalRoboZonkyTest {
         return setup;
     }
 
-    @Test
-    void sendsEmails() throws Exception {
-        final int originalMessages = EMAIL.getReceivedMessages().length;
-        final ConfigStorage cs = ConfigStorage.create(RoboZonkyTestingEventListener.class
-            .getResourceAsStream("notifications-enabled.cfg"));
-        final EmailHandler h = new EmailHandler(cs);
-        final String subject = "A", body = "B";
-        h.offer(new Submission() {
+    private static Submission submission(final SupportedListener listener, final String subject, final String body) {
+        return new Submission() {
             @Override
             public SessionInfo getSessionInfo() {
                 return mockSessionInfo();
@@ -63,12 +66,13 @@ class EmailHandlerTest extends AbstractMinimalRoboZonkyTest {
 
             @Override
             public SupportedListener getSupportedListener() {
-                return SupportedListener.TESTING;
+                return listener;
             }
 
             @Override
             public Map<String, Object> getData() {
-                return Collections.emptyMap();
+                return Map.of("subject", subject, "conception", new Date(),
+                        "session", Map.of("userName", "someone", "userAgent", "RoboZonky", "isDryRun", false));
             }
 
             @Override
@@ -76,6 +80,11 @@ class EmailHandlerTest extends AbstractMinimalRoboZonkyTest {
                 return subject;
             }
 
+            @Override
+            public String getTemplateName() {
+                return "testing.ftl";
+            }
+
             @Override
             public String getMessage(final Map<String, Object> data) {
                 return body;
@@ -85,7 +94,46 @@ class EmailHandlerTest extends AbstractMinimalRoboZonkyTest {
             public String getFallbackMessage(final Map<String, Object> data) {
                 return body;
             }
+        };
+    }
+
+    private static ConfigStorage config(final String... additionalLines) throws IOException {
+        try (InputStream s = RoboZonkyTestingEventListener.class.getResourceAsStream("notifications-enabled.cfg")) {
+            final String original = new String(s.readAllBytes(), Defaults.CHARSET);
+            final String result = original + System.lineSeparator() +
+                    String.join(System.lineSeparator(), additionalLines);
+            return ConfigStorage.create(new ByteArrayInputStream(result.getBytes(Defaults.CHARSET)));
+        }
+    }
+
+    @Test
+    void resolvesListenerSettings() throws IOException {
+        final String cfg = "enabled = true\nloanDelinquent30DaysOrMore.enabled = true\n";
+        final EmailHandler h = new EmailHandler(ConfigStorage.create(new ByteArrayInputStream(cfg.getBytes(
+                Defaults.CHARSET))));
+        assertSoftly(softly -> {
+            softly.assertThat(h.isEnabledInSettings())
+                .isTrue();
+            softly.assertThat(h.isEnabled(SupportedListener.LOAN_DELINQUENT_30_PLUS))
+                .isTrue();
+            softly.assertThat(h.isEnabled(SupportedListener.LOAN_NO_LONGER_DELINQUENT))
+                .isTrue();
+            softly.assertThat(h.isEnabled(SupportedListener.TESTING))
+                .isTrue();
+            softly.assertThat(h.isEnabled(SupportedListener.INVESTMENT_MADE))
+                .isFalse();
         });
+    }
+
+    @Test
+    void sendsEmails() throws Exception {
+        final int originalMessages = EMAIL.getReceivedMessages().length;
+        final ConfigStorage cs = ConfigStorage.create(RoboZonkyTestingEventListener.class
+            .getResourceAsStream("notifications-enabled.cfg"));
+        final EmailHandler h = new EmailHandler(cs);
+        final String subject = "A", body = "B";
+        h.offer(submission(SupportedListener.TESTING, subject, body)); // testing is delivered immediately
+        assertThat(EMAIL.waitForIncomingEmail(5_000, originalMessages + 1)).isTrue();
         assertThat(EMAIL.getReceivedMessages()).hasSize(originalMessages + 1);
         final MimeMessage m = EMAIL.getReceivedMessages()[originalMessages];
         assertThat(m.getSubject())
@@ -96,6 +144,75 @@ class EmailHandlerTest extends AbstractMinimalRoboZonkyTest {
             .contains("RoboZonky 'Testing'");
     }
 
+    @Test
+    void failsImmediatelyWhenTesting() throws Exception {
+        final EmailHandler h = new EmailHandler(config("smtp.password = wrong"));
+        assertThatThrownBy(() -> h.offer(submission(SupportedListener.TESTING, "A", "B")))
+            .isInstanceOf(AuthenticationFailedException.class);
+    }
+
+    @Test
+    void sendFailsWhenNotSent() throws Exception {
+        final EmailHandler h = new EmailHandler(config("smtp.password = wrong"));
+        assertThatThrownBy(() -> h.send(mockSessionInfo(), "A", "B", "C"))
+            .isInstanceOf(AuthenticationFailedException.class);
+    }
+
+    @Test
+    void differentPasswordMeansDifferentServer() throws Exception {
+        final EmailHandler h = new EmailHandler(config());
+        final EmailHandler h2 = new EmailHandler(config("smtp.password = other"));
+        assertThat(h.getSmtpServer()).isNotEqualTo(h2.getSmtpServer());
+        assertThat(h.getSmtpServer()
+            .toString()).doesNotContain("other");
+        assertThat(h2.getSmtpServer()
+            .toString()).doesNotContain("other");
+    }
+
+    @Test
+    void sendsInBackgroundOverSharedConnection() throws Exception {
+        final int originalMessages = EMAIL.getReceivedMessages().length;
+        final EmailHandler h = new EmailHandler(config());
+        final MailQueue queue = MailQueue.forServer(h.getSmtpServer());
+        final int originalConnections = queue.getConnectionCount();
+        for (int i = 0; i < 3; i++) {
+            h.offer(submission(SupportedListener.INVESTMENT_MADE, "A" + i, "B" + i));
+        }
+        assertThat(EMAIL.waitForIncomingEmail(5_000, originalMessages + 3)).isTrue();
+        assertThat(queue.getConnectionCount()).isEqualTo(originalConnections + 1);
+        assertThat(EMAIL.getReceivedMessages())
+            .extracting(MimeMessage::getSubject)
+            .endsWith("A0", "A1", "A2");
+    }
+
+    @Test
+    void doesNotRenderSuppressed() throws Exception {
+        final EmailHandler h = new EmailHandler(config("investmentMade.hourlyMaxEmails = 0"));
+        final Submission s = spy(submission(SupportedListener.INVESTMENT_MADE, "A", "B"));
+        h.offer(s);
+        verify(s, never()).getMessage(any());
+        verify(s, never()).getFallbackMessage(any());
+    }
+
+    @Test
+    void sendsDigest() throws Exception {
+        final int originalMessages = EMAIL.getReceivedMessages().length;
+        final EmailHandler h = new EmailHandler(config("digestWindowSeconds = 1"));
+        for (int i = 0; i < 3; i++) {
+            h.offer(submission(SupportedListener.INVESTMENT_MADE, "A" + i, "B" + i));
+        }
+        assertThat(EMAIL.getReceivedMessages()).hasSize(originalMessages); // held back for the digest
+        assertThat(EMAIL.waitForIncomingEmail(5_000, originalMessages + 1)).isTrue();
+        final MimeMessage m = EMAIL.getReceivedMessages()[originalMessages];
+        assertThat(m.getSubject()).isEqualTo("A0 (+2)");
+        final String body = GreenMailUtil.getBody(m);
+        assertThat(body).contains("A0", "A1", "A2"); // rendered from the templates, each under its own heading
+        assertThat(body.split("<html", -1)).hasSize(2); // a single document
+        assertThat(MailQueue.forServer(h.getSmtpServer())
+            .flush(Duration.ofSeconds(5))).isTrue();
+        assertThat(EMAIL.getReceivedMessages()).hasSize(originalMessages + 1);
+    }
+
     @BeforeEach
     void startEmailing() {
         EMAIL.start();
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.notifications;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.HtmlEmail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+class MailQueueTest {
+
+    private static final ServerSetup SETUP = new ServerSetup(3026, null, ServerSetup.PROTOCOL_SMTP);
+    private final GreenMail email = new GreenMail(SETUP);
+
+    private static HtmlEmail createEmail() throws EmailException {
+        final HtmlEmail email = new HtmlEmail();
+        email.setHostName("localhost");
+        email.setSmtpPort(SETUP.getPort());
+        email.setFrom("sender@robozonky.cz");
+        email.addTo("recipient@robozonky.cz");
+        return email;
+    }
+
+    @AfterEach
+    void stopEmailing() {
+        email.stop();
+    }
+
+    @Test
+    void retriesWithBackoff() throws Exception {
+        final MailQueue queue = new MailQueue(null, Duration.ofMillis(200), Duration.ofSeconds(30));
+        final CompletableFuture<Void> result = queue.submit(MailQueueTest::createEmail,
+                new MailQueue.Mail("Subject", "<p>HTML</p>", "Text"), "key", Duration.ZERO, MailQueue.MAX_ATTEMPTS);
+        Thread.sleep(300); // the server is not yet running, so the first attempt will fail
+        assertThat(result).isNotDone();
+        email.start();
+        result.get(10, TimeUnit.SECONDS);
+        assertThat(email.waitForIncomingEmail(5_000, 1)).isTrue();
+        assertThat(queue.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givesUp() {
+        final MailQueue queue = new MailQueue(null, Duration.ofMillis(10), Duration.ofSeconds(30));
+        final CompletableFuture<Void> result = queue.submit(MailQueueTest::createEmail,
+                new MailQueue.Mail("Subject", "<p>HTML</p>", "Text"), "key", Duration.ZERO, 2);
+        assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(MessagingException.class);
+        assertThat(queue.flush(Duration.ofSeconds(1))).isTrue();
+    }
+
+    @Test
+    void retiresWhenIdle() throws Exception {
+        email.start();
+        final MailQueue queue = new MailQueue(null, Duration.ofMillis(10), Duration.ofMillis(100));
+        queue.submit(MailQueueTest::createEmail, new MailQueue.Mail("Subject", "<p>HTML</p>", "Text"), "key",
+                Duration.ZERO, 1)
+            .get(10, TimeUnit.SECONDS);
+        final long start = System.nanoTime();
+        while (!queue.isRetired() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.isRetired()).isTrue();
+    }
+}
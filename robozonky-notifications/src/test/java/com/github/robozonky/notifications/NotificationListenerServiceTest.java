@@ -73,4 +73,19 @@ class NotificationListenerServiceTest extends AbstractRoboZonkyTest {
             .isEqualTo(true);
     }
 
+    @Test
+    void loadingConfigInvalidatesListeners() throws IOException {
+        final Path path = Files.createTempFile("robozonky-", ".cfg");
+        try (InputStream s = getClass().getResourceAsStream("listeners/notifications-enabled.cfg")) {
+            Files.write(path, s.readAllBytes());
+        }
+        ListenerServiceLoader.registerConfiguration(SESSION, path.toUri()
+            .toURL());
+        final long generation = ListenerServiceLoader.getGeneration();
+        final ListenerService s = new NotificationListenerService();
+        s.findListeners(SESSION, RoboZonkyTestingEvent.class)
+            .forEach(Supplier::get); // loads the configuration
+        assertThat(ListenerServiceLoader.getGeneration()).isGreaterThan(generation);
+    }
+
 }
@@ -18,6 +18,8 @@ package com.github.robozonky.notifications;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.stream.Stream;
 
@@ -42,12 +44,13 @@ class SupportedListenerTest {
     }
 
     @Test
-    void nullity() {
+    void nullity() throws IOException {
+        final ConfigStorage config = ConfigStorage.create(new ByteArrayInputStream(new byte[0]));
         SoftAssertions.assertSoftly(softly -> Stream.of(SupportedListener.values())
             .forEach(l -> {
                 softly.assertThat(l.createSampleEvent())
                     .isNotNull();
-                softly.assertThat(l.getListener(new EmailHandler(null)))
+                softly.assertThat(l.getListener(new EmailHandler(config)))
                     .isNotNull();
             }));
     }
@@ -165,6 +165,7 @@ class AbstractListenerTest extends AbstractRoboZonkyTest {
     @AfterEach
     @Override
     protected void deleteState() { // JUnit 5 won't invoke this from an abstract class
+        new NotificationListenerService().flush(); // so that counters of previous tests are not written later
         super.deleteState();
     }
 
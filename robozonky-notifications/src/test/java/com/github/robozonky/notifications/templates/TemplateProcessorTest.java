@@ -16,9 +16,16 @@
 
 package com.github.robozonky.notifications.templates;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -26,7 +33,9 @@ import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.notifications.templates.html.HtmlTemplate;
 import com.github.robozonky.notifications.templates.plaintext.PlainTextTemplate;
 
+import freemarker.cache.StrongCacheStorage;
 import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
 
 class TemplateProcessorTest {
 
@@ -69,4 +78,52 @@ class TemplateProcessorTest {
                 .isEqualTo(targetEncoding);
         });
     }
+
+    @Test
+    void templatesCachedForever() {
+        final Configuration configuration = TemplateProcessor.getFreemarkerConfiguration(HtmlTemplate.class);
+        assertSoftly(softly -> {
+            softly.assertThat(configuration.getCacheStorage())
+                .isInstanceOf(StrongCacheStorage.class);
+            softly.assertThat(configuration.getTemplateUpdateDelayMilliseconds())
+                .isEqualTo(Long.MAX_VALUE);
+        });
+    }
+
+    @Test
+    void preloadsExistingTemplate() throws IOException {
+        TemplateProcessor.INSTANCE.preload("testing.ftl");
+        assertThatThrownBy(() -> TemplateProcessor.INSTANCE.preload("nonexistent.ftl"))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void reusesBufferWithinThread() throws IOException, TemplateException {
+        final Map<String, Object> data = Map.of(
+                "session", Map.of("userName", "someone", "userAgent", "RoboZonky", "isDryRun", false),
+                "conception", new Date());
+        final StringWriter buffer = TemplateProcessor.getBuffer();
+        final String first = TemplateProcessor.INSTANCE.processPlainText("testing.ftl", data);
+        assertThat(buffer.getBuffer()).isEmpty(); // cleared after use
+        final String second = TemplateProcessor.INSTANCE.processPlainText("testing.ftl", data);
+        assertThat(TemplateProcessor.getBuffer()).isSameAs(buffer);
+        assertThat(second).isEqualTo(first); // nothing left over from the first run
+    }
+
+    @Test
+    void rendersDigest() throws IOException, TemplateException {
+        final Map<String, Object> session = Map.of("userName", "someone", "userAgent", "RoboZonky", "isDryRun", false);
+        final List<Map.Entry<String, Map<String, Object>>> embedded = List.of(
+                Map.entry("testing.ftl", Map.of("subject", "First", "session", session, "conception", new Date())),
+                Map.entry("testing.ftl", Map.of("subject", "Second", "session", session, "conception", new Date())));
+        final String html = TemplateProcessor.INSTANCE.processHtmlDigest("Digest", embedded);
+        assertSoftly(softly -> {
+            softly.assertThat(html)
+                .contains("<title>Digest</title>", "<h1>First</h1>", "<h1>Second</h1>");
+            softly.assertThat(html.split("<footer>", -1))
+                .hasSize(2);
+        });
+        final String text = TemplateProcessor.INSTANCE.processPlainTextDigest("Digest", embedded);
+        assertThat(text).contains("First", "Second", "----------");
+    }
 }
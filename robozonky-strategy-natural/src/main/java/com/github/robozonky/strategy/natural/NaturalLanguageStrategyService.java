@@ -16,19 +16,25 @@
 
 package com.github.robozonky.strategy.natural;
 
-import java.util.Collections;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -38,12 +44,25 @@ import com.github.robozonky.api.strategies.ReservationStrategy;
 import com.github.robozonky.api.strategies.SellStrategy;
 import com.github.robozonky.api.strategies.StrategyService;
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.util.StringUtil;
 
 public class NaturalLanguageStrategyService implements StrategyService {
 
     private static final Logger LOGGER = LogManager.getLogger(NaturalLanguageStrategyService.class);
-    private static final AtomicReference<Map<String, ParsedStrategy>> CACHE = new AtomicReference<>(
-            Collections.emptyMap());
+    /**
+     * Parsed strategies keyed by their source, shared by all tenants running in this JVM. Tenants which share a
+     * strategy only pay for parsing it once, and tenants with different strategies do not evict each other. Guarded
+     * by the class lock; least recently used strategies are dropped once there are too many of them.
+     */
+    private static final int MAX_CACHED = 256;
+    private static final Map<String, ParsedStrategy> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ParsedStrategy> eldest) {
+            return size() > MAX_CACHED;
+        }
+
+    };
     private static final ANTLRErrorListener ERROR_LISTENER = new BaseErrorListener() {
 
         @Override
@@ -55,18 +74,38 @@ public class NaturalLanguageStrategyService implements StrategyService {
         }
 
     };
+    private static final AtomicBoolean WARMUP_REQUESTED = new AtomicBoolean(false);
+
+    public NaturalLanguageStrategyService() {
+        if (WARMUP_REQUESTED.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(NaturalLanguageStrategyService::warmUp);
+        }
+    }
+
+    /**
+     * ANTLR keeps its DFA cache in static fields of the generated parser, shared by all parser instances. Parsing a
+     * representative strategy in the background fills that cache before the actual user strategy arrives, so that
+     * the first real parse does not pay for the ATN simulation of the entire grammar.
+     */
+    static void warmUp() {
+        try (InputStream s = NaturalLanguageStrategyService.class.getResourceAsStream("warmup")) {
+            parseWithAntlr(CharStreams.fromString(StringUtil.toString(s, Defaults.CHARSET)));
+            LOGGER.debug("Strategy parser warmed up.");
+        } catch (final Exception ex) {
+            LOGGER.debug("Failed warming up strategy parser.", ex);
+        }
+    }
 
     private static void setCached(final String strategy, final ParsedStrategy parsed) {
-        CACHE.set(Collections.singletonMap(strategy, parsed));
+        CACHE.put(strategy, parsed);
         LOGGER.debug("Cached strategy: {}.", parsed);
     }
 
     private static Optional<ParsedStrategy> getCached(final String strategy) {
-        return Optional.ofNullable(CACHE.get()
-            .get(strategy));
+        return Optional.ofNullable(CACHE.get(strategy));
     }
 
-    private static synchronized ParsedStrategy parseOrCached(final String strategy) {
+    static synchronized ParsedStrategy parseOrCached(final String strategy) {
         return getCached(strategy).orElseGet(() -> {
             LOGGER.trace("Parsing started.");
             final ParsedStrategy parsed = parseWithAntlr(CharStreams.fromString(strategy));
@@ -76,13 +115,43 @@ public class NaturalLanguageStrategyService implements StrategyService {
         });
     }
 
+    /**
+     * Uses the two-stage parsing strategy recommended by ANTLR. The faster SLL prediction mode is used first, and
+     * only if it fails, the input is parsed again in the full LL mode. For valid strategies, SLL is practically
+     * always sufficient. Invalid strategies will fail in both modes, but only the LL mode will report the actual
+     * syntax error.
+     *
+     * @param s strategy to parse
+     * @return parsed strategy
+     * @throws IllegalStateException on syntax error
+     */
     static ParsedStrategy parseWithAntlr(final CharStream s) {
         final NaturalLanguageStrategyLexer l = new NaturalLanguageStrategyLexer(s);
         l.removeErrorListeners(); // no sysout
         final CommonTokenStream ts = new CommonTokenStream(l);
         final NaturalLanguageStrategyParser p = new NaturalLanguageStrategyParser(ts);
-        p.removeErrorListeners(); // turn sysout into an exception
-        p.addErrorListener(ERROR_LISTENER);
+        p.removeErrorListeners(); // SLL mode bails out on first error; no need to report it
+        try {
+            return parseWithSll(p);
+        } catch (final ParseCancellationException ex) {
+            LOGGER.debug("SLL parsing failed, falling back to LL.", ex);
+            p.reset(); // rewinds the token stream
+            p.addErrorListener(ERROR_LISTENER); // turn sysout into an exception
+            return parseWithLl(p);
+        }
+    }
+
+    static ParsedStrategy parseWithSll(final NaturalLanguageStrategyParser p) {
+        p.getInterpreter()
+            .setPredictionMode(PredictionMode.SLL);
+        p.setErrorHandler(new BailErrorStrategy());
+        return p.primaryExpression().result;
+    }
+
+    private static ParsedStrategy parseWithLl(final NaturalLanguageStrategyParser p) {
+        p.getInterpreter()
+            .setPredictionMode(PredictionMode.LL);
+        p.setErrorHandler(new DefaultErrorStrategy());
         return p.primaryExpression().result;
     }
 
@@ -27,6 +27,8 @@ import java.util.Comparator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -74,4 +76,17 @@ class GeneratedStrategyVerifierTest {
             .isNotNull();
     }
 
+    @ParameterizedTest
+    @ArgumentsSource(StrategySourceProvider.class)
+    void strategyParsedWithoutLlFallback(Path id) {
+        final String input = convertToString(id);
+        final NaturalLanguageStrategyLexer l = new NaturalLanguageStrategyLexer(CharStreams.fromString(input));
+        final NaturalLanguageStrategyParser p = new NaturalLanguageStrategyParser(new CommonTokenStream(l));
+        p.removeErrorListeners();
+        final ParsedStrategy s = NaturalLanguageStrategyService.parseWithSll(p);
+        assertThat(s)
+            .as("Failed parsing strategy {} in SLL mode.", id)
+            .isNotNull();
+    }
+
 }
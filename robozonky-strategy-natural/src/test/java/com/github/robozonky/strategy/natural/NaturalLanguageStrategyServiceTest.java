@@ -26,8 +26,10 @@ import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.antlr.v4.runtime.CharStreams;
 import org.junit.jupiter.api.DynamicNode;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
 import com.github.robozonky.api.strategies.StrategyService;
@@ -162,6 +164,31 @@ class NaturalLanguageStrategyServiceTest {
         }
     }
 
+    @Test
+    void syntaxErrorReportedAfterLlFallback() {
+        final InputStream s = NaturalLanguageStrategyServiceTest.class.getResourceAsStream("no-headers");
+        final String str = StringUtil.toString(s, Defaults.CHARSET);
+        assertThatThrownBy(() -> NaturalLanguageStrategyService.parseWithAntlr(CharStreams.fromString(str)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("Syntax error at");
+    }
+
+    @Test
+    void warmupStrategyValid() {
+        final InputStream s = NaturalLanguageStrategyService.class.getResourceAsStream("warmup");
+        final String str = StringUtil.toString(s, Defaults.CHARSET);
+        assertThat(NaturalLanguageStrategyService.parseWithAntlr(CharStreams.fromString(str))).isNotNull();
+    }
+
+    @Test
+    void cachesStrategiesOfMultipleTenants() {
+        final String first = StringUtil.toString(getClass().getResourceAsStream("simplest"), Defaults.CHARSET);
+        final String second = StringUtil.toString(getClass().getResourceAsStream("complex"), Defaults.CHARSET);
+        final ParsedStrategy parsed = NaturalLanguageStrategyService.parseOrCached(first);
+        assertThat(NaturalLanguageStrategyService.parseOrCached(second)).isNotSameAs(parsed);
+        assertThat(NaturalLanguageStrategyService.parseOrCached(first)).isSameAs(parsed); // not evicted by the other
+    }
+
     @TestFactory
     Stream<DynamicNode> strategyType() {
         return Stream.of(Type.values())
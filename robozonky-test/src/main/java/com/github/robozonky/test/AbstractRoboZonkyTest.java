@@ -19,6 +19,7 @@ package com.github.robozonky.test;
 import static org.mockito.Mockito.*;
 
 import java.time.ZonedDateTime;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
@@ -77,6 +78,12 @@ public abstract class AbstractRoboZonkyTest extends AbstractMinimalRoboZonkyTest
         when(zonky.getConsents()).thenReturn(new ConsentsImpl());
         when(zonky.getStatistics()).thenReturn(StatisticsImpl.empty());
         when(zonky.getInvestments(any())).thenAnswer(i -> Stream.empty());
+        when(zonky.getInvestmentsById(any())).thenAnswer(i -> { // so that stubbing getInvestment() is enough
+            return Stream.of(i.getArguments()) // varargs are expanded
+                .mapToLong(id -> (long) id)
+                .mapToObj(zonky::getInvestment)
+                .filter(Objects::nonNull);
+        });
         return zonky;
     }
 